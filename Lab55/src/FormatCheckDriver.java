@@ -0,0 +1,172 @@
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+import simulator.EventQueue;
+import simulator.EventQueueStrategy;
+import simulator.SimListener;
+import simulator.Simulator;
+import store.event.StoreCloseEvent;
+import store.event.StoreStartEvent;
+import store.state.StoreRecord;
+import store.state.StoreState;
+import store.view.ProgressFormatter;
+import store.view.StoreView;
+
+/**
+ * Checks and times {@link ProgressFormatter} against the row of the progress
+ * table of {@link StoreView} formatted the way it was before, with
+ * {@link String#format(String, Object...)} and the time formatted by
+ * {@code new DecimalFormat("#.##")}. The records of a busy store are written
+ * by both, which must give exactly the same text, and then every record is
+ * written a number of rounds by each to a writer that throws the text away.
+ *
+ * Prints the time and the bytes allocated per row of both, bytes are 0 if the
+ * JVM can't measure them, and exits with status 1 if any row differs.
+ *
+ * Usage: {@code FormatCheckDriver [rounds]}
+ */
+public class FormatCheckDriver {
+
+	private static final String FORMAT = "%7s %-10s %4s %2s %4s | %5s %3s %3s %4s %5s | %5s %5s %s\r\n";
+
+	private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+	public static void main(String[] args) {
+		int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+
+		List<StoreRecord> records = records();
+		int[] arrived = new int[records.size()];
+		int customersArrived = 0;
+		for (int i = 0; i < arrived.length; i++) {
+			if (records.get(i).isArrival()) {
+				customersArrived++;
+			}
+			arrived[i] = customersArrived;
+		}
+
+		Row formatter = new Row() {
+			private final ProgressFormatter formatter = new ProgressFormatter();
+
+			@Override
+			public void write(StoreRecord record, int customersArrived, PrintWriter out) {
+				formatter.write(record, customersArrived, out);
+			}
+		};
+		Row format = new Row() {
+			private final DecimalFormat timeFormat = new DecimalFormat("#.##");
+
+			@Override
+			public void write(StoreRecord record, int customersArrived, PrintWriter out) {
+				String customerId = record.getCustomer();
+				out.format(FORMAT,
+						new Object[] { timeFormat.format(record.getTime()), record.getEventDescription(),
+								customerId == null ? "" : customerId, record.storeIsOpen() ? "Ö" : "S",
+								record.getRegistersOpen(), record.getCheckoutFreeTime(), customersArrived,
+								record.getCustomersPayed(), record.getCustomersDeniedEntry(), "-",
+								record.getQueueTime(), record.getCustomersInQueue(), "<Queue>" });
+			}
+		};
+
+		int difference = firstDifference(records, arrived, formatter, format);
+		if (difference >= 0) {
+			System.out.printf("Row %d differs%n  formatter: %s  format:    %s", difference,
+					text(records, arrived, formatter, difference), text(records, arrived, format, difference));
+			System.exit(1);
+		}
+		System.out.printf("%d rows, same text%n", records.size());
+
+		// Alternate so both see the same warm-up and the same state of the JIT
+		double[] nanos = new double[2];
+		double[] bytes = new double[2];
+		Row[] rows = { formatter, format };
+		for (int round = 0; round < rounds; round++) {
+			for (int i = 0; i < rows.length; i++) {
+				long allocated = allocatedBytes();
+				long start = System.nanoTime();
+				write(records, arrived, rows[i]);
+				long elapsed = System.nanoTime() - start;
+				// The first rounds only warm up
+				if (round >= rounds / 2) {
+					nanos[i] += elapsed;
+					bytes[i] += allocatedBytes() - allocated;
+				}
+			}
+		}
+		double measured = (double) (rounds - rounds / 2) * records.size();
+		System.out.printf("%-18s %10s %12s%n", "Row", "ns/row", "bytes/row");
+		System.out.printf("%-18s %10.1f %12.1f%n", "ProgressFormatter", nanos[0] / measured, bytes[0] / measured);
+		System.out.printf("%-18s %10.1f %12.1f%n", "String.format", nanos[1] / measured, bytes[1] / measured);
+	}
+
+	/**
+	 * Get the records of a busy store with thousands of customers.
+	 */
+	private static List<StoreRecord> records() {
+		List<StoreRecord> records = new ArrayList<>();
+		EventQueue queue = EventQueueStrategy.HEAP.create();
+		StoreState state = new StoreState(1234, 2000, 50, 500, 100, 5, 20, 0.2, 0.5, queue);
+		state.getEventBus().subscribe(new SimListener<StoreRecord>() {
+			@Override
+			public void onRecords(List<? extends StoreRecord> batch) {
+				records.addAll(batch);
+			}
+		});
+		queue.addEvent(new StoreStartEvent(state));
+		queue.addEvent(new StoreCloseEvent(state, 500));
+		new Simulator(state, queue).run(600);
+		return records;
+	}
+
+	private static int firstDifference(List<StoreRecord> records, int[] arrived, Row a, Row b) {
+		for (int i = 0; i < records.size(); i++) {
+			if (!text(records, arrived, a, i).equals(text(records, arrived, b, i))) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static String text(List<StoreRecord> records, int[] arrived, Row row, int i) {
+		StringWriter text = new StringWriter();
+		PrintWriter out = new PrintWriter(text);
+		row.write(records.get(i), arrived[i], out);
+		out.flush();
+		return text.toString();
+	}
+
+	private static void write(List<StoreRecord> records, int[] arrived, Row row) {
+		PrintWriter out = new PrintWriter(Writer.nullWriter());
+		for (int i = 0; i < arrived.length; i++) {
+			row.write(records.get(i), arrived[i], out);
+		}
+		out.flush();
+	}
+
+	private static long allocatedBytes() {
+		return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+	}
+
+	private static com.sun.management.ThreadMXBean threads() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean extended = (com.sun.management.ThreadMXBean) threads;
+			if (extended.isThreadAllocatedMemorySupported() && extended.isThreadAllocatedMemoryEnabled()) {
+				return extended;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Writes the row of a record.
+	 */
+	private interface Row {
+		void write(StoreRecord record, int customersArrived, PrintWriter out);
+	}
+}
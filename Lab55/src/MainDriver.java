@@ -1,16 +1,36 @@
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
 import simulator.Event;
 import simulator.EventQueue;
+import simulator.EventQueueStrategy;
+import simulator.SimView;
 import simulator.Simulator;
-import simulator.StopEvent;
+import simulator.SimulatorMetrics;
 import store.event.StoreCloseEvent;
+import store.event.StoreEngine;
 import store.event.StoreStartEvent;
 import store.event.StoreCloseEvent;
+import store.state.AsyncStoreListener;
+import store.state.StoreMetrics;
+import store.state.StoreRecord;
 import store.state.StoreState;
-import store.view.StoreView;;
+import store.time.RateFunction;
+import store.time.StoreTime;
+import store.time.TraceArrivals;
+import store.time.TraceDurations;
+import store.time.TraceFile;
+import store.view.BucketView;
+import store.view.StoreView;
+import store.view.TraceWriter;
 
 public class MainDriver {
 
-	public static void main(String[] args) {
+	public static void main(String[] args) throws IOException {
 
 		long TIME_SEED = 1234; // Seed to generate random number
 		int MAX_CUSTOMERS = 5; // Maximum number of costumers allowed in store at once
@@ -21,23 +41,98 @@ public class MainDriver {
 		double MAX_PICKING_TIME = 1; // Maximum time a costumer can pick items in
 		double MIN_CHECKOUT_TIME = 2; // Minimum time a costumer can checkout in
 		double MAX_CHECKOUT_TIME = 3; // Time a costumer can checkout in
+		EventQueueStrategy QUEUE_STRATEGY = EventQueueStrategy.HEAP; // Event queue implementation
+		boolean PRIMITIVE_ENGINE = false; // Run with StoreEngine instead of event objects
+		boolean ASYNC_VIEW = false; // Format the view on a thread of its own
+		int VIEW_BUFFER_SIZE = 1 << 14; // Records buffered for the async view
+		double BUCKET_WIDTH = 0; // Write one row per interval of this length instead of per event, if positive
+		String TRACE_FILE = null; // Also write a binary trace to this file, read it with TraceDriver
+		boolean JMX = false; // Expose live metrics as platform MBeans, see them with JConsole
+		double[] RATE_TIMES = null; // Times the arrival rate changes at, from 0, instead of ARRIVAL_SPEED
+		double[] RATES = null; // Arrival rate from each of RATE_TIMES on, e.g. a rush hour
+		String ARRIVAL_TRACE = null; // Replay arrival times from this .csv or binary file, column 0
+		String SERVICE_TRACE = null; // Replay pick and checkout times from this file, columns 0 and 1
+		double TRACE_FROM = 0; // Replay arrivals from this time in the trace on, as time 0
+		double TRACE_TO = Double.POSITIVE_INFINITY; // Replay arrivals before this time in the trace
+		double SPEED_UP = 1; // Replay the traces this many times faster than recorded
+		double TIME_STOP = 99; // At what time simulation stops
 
 		// Create instances of various objects
-		EventQueue eventQueue = new EventQueue();
-		StoreState state = new StoreState(TIME_SEED, MAX_CUSTOMERS, MAX_REGISTERS, TIME_STORE_CLOSE,
+		EventQueue eventQueue = QUEUE_STRATEGY.create();
+		StoreState state = RATE_TIMES == null
+				? new StoreState(TIME_SEED, MAX_CUSTOMERS, MAX_REGISTERS, TIME_STORE_CLOSE,
 										  ARRIVAL_SPEED, MIN_PICKING_TIME, MAX_PICKING_TIME, MIN_CHECKOUT_TIME, 
-										  MAX_CHECKOUT_TIME, eventQueue);
-		StoreView view = new StoreView(state);
-		
-		// Create and add events
-		eventQueue.addEvent(new StoreStartEvent(state));
-		eventQueue.addEvent(new StoreCloseEvent(state, TIME_STORE_CLOSE));
-		eventQueue.addEvent(new StopEvent(state, 99));
-		
-		state.addObserver(view);
-
-		// Run simulator
-		new Simulator(state, eventQueue).run();
+										  MAX_CHECKOUT_TIME, eventQueue)
+				: new StoreState(TIME_SEED, MAX_CUSTOMERS, MAX_REGISTERS, TIME_STORE_CLOSE,
+										  RateFunction.piecewiseConstant(RATE_TIMES, RATES), MIN_PICKING_TIME,
+										  MAX_PICKING_TIME, MIN_CHECKOUT_TIME, MAX_CHECKOUT_TIME, eventQueue);
+		StoreTime times = state.getStoreTime();
+		List<TraceFile> traces = new ArrayList<>();
+		if (ARRIVAL_TRACE != null) {
+			TraceFile arrivals = openTrace(traces, ARRIVAL_TRACE, 1, 0);
+			times.setArrivals(new TraceArrivals(arrivals, TRACE_FROM, TRACE_TO, SPEED_UP));
+		}
+		if (SERVICE_TRACE != null) {
+			times.setPickTimes(new TraceDurations(openTrace(traces, SERVICE_TRACE, 2, 0), SPEED_UP));
+			times.setCheckOutTimes(new TraceDurations(openTrace(traces, SERVICE_TRACE, 2, 1), SPEED_UP));
+		}
+		SimView<StoreRecord> view = BUCKET_WIDTH > 0 ? new BucketView(state, BUCKET_WIDTH) : new StoreView(state);
+		if (ASYNC_VIEW) {
+			state.subscribeAsync(new AsyncStoreListener(view, VIEW_BUFFER_SIZE));
+		} else {
+			state.getEventBus().subscribe(view);
+		}
+		if (TRACE_FILE != null) {
+			state.getEventBus().subscribe(new TraceWriter(state, new FileOutputStream(TRACE_FILE), false));
+		}
+
+		SimulatorMetrics simulatorMetrics = null;
+		StoreMetrics storeMetrics = null;
+		if (JMX) {
+			simulatorMetrics = new SimulatorMetrics().register("MainDriver");
+			storeMetrics = new StoreMetrics().register("MainDriver");
+			state.setMetrics(storeMetrics);
+		}
+
+		try {
+			if (PRIMITIVE_ENGINE) {
+				StoreEngine engine = new StoreEngine(state);
+				engine.setMetrics(simulatorMetrics);
+				engine.scheduleStart();
+				engine.scheduleClose(TIME_STORE_CLOSE);
+				engine.run(TIME_STOP);
+				return;
+			}
+
+			// Create and add events
+			eventQueue.addEvent(new StoreStartEvent(state));
+			eventQueue.addEvent(new StoreCloseEvent(state, TIME_STORE_CLOSE));
+
+			// Run simulator
+			Simulator simulator = new Simulator(state, eventQueue);
+			simulator.setMetrics(simulatorMetrics);
+			simulator.run(TIME_STOP);
+		} finally {
+			for (TraceFile trace : traces) {
+				trace.close();
+			}
+			if (JMX) {
+				simulatorMetrics.unregister();
+				storeMetrics.unregister();
+			}
+		}
+	}
+
+	/**
+	 * Open a column of a trace, as CSV if the name ends in .csv and as binary
+	 * doubles otherwise, and add it to the traces to close.
+	 */
+	private static TraceFile openTrace(List<TraceFile> traces, String file, int columns, int column)
+			throws IOException {
+		Path path = Paths.get(file);
+		TraceFile trace = file.endsWith(".csv") ? TraceFile.csv(path, column) : TraceFile.binary(path, columns, column);
+		traces.add(trace);
+		return trace;
 	}
 
 }
@@ -0,0 +1,150 @@
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import simulator.EventQueue;
+import simulator.EventQueueStrategy;
+import simulator.Simulator;
+import simulator.SimulatorMetrics;
+import store.event.StoreCloseEvent;
+import store.event.StoreStartEvent;
+import store.experiment.StoreParameters;
+import store.experiment.StoreResult;
+import store.state.StoreMetrics;
+import store.state.StoreState;
+
+/**
+ * Checks the live metrics of {@link SimulatorMetrics} and {@link StoreMetrics}
+ * through the platform MBean server, the way JConsole sees them. Both beans
+ * are registered, a few runs of the store of {@link MainDriver} feed them,
+ * and every attribute is read back through
+ * {@link ManagementFactory#getPlatformMBeanServer()} and compared with the
+ * results of the runs. The simulator totals are also read while a run is in
+ * flight and another is paused. Finally both beans are unregistered and must
+ * be gone.
+ *
+ * Prints every attribute and exits with status 1 if any check fails.
+ *
+ * Usage: {@code MetricsCheckDriver [runs]}
+ */
+public class MetricsCheckDriver {
+
+	private static final String NAME = "MetricsCheckDriver";
+
+	private static boolean ok = true;
+
+	public static void main(String[] args) throws JMException {
+		int runs = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+
+		StoreParameters parameters = new StoreParameters(1234, 5, 2, 10, 1, 0.5, 1, 2, 3, 99,
+				EventQueueStrategy.HEAP);
+		SimulatorMetrics simulatorMetrics = new SimulatorMetrics().register(NAME);
+		StoreMetrics storeMetrics = new StoreMetrics().register(NAME);
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName simulatorName = find(server, "Simulator");
+		ObjectName storeName = find(server, "Store");
+
+		long payed = 0;
+		long denied = 0;
+		try {
+			for (int run = 0; run < runs; run++) {
+				StoreResult result = parameters.withSeed(parameters.getSeed() + run).run(simulatorMetrics,
+						storeMetrics);
+				payed += (long) result.getCustomersPayed();
+				denied += (long) result.getCustomersMissed();
+			}
+
+			long events = (Long) read(server, simulatorName, "EventsDispatched");
+			check("EventsDispatched", events > 0 && events == simulatorMetrics.getEventsDispatched());
+			check("EventsPerSecond", (Double) read(server, simulatorName, "EventsPerSecond") >= 0);
+			// Totals over running simulations, and every run has stopped
+			check("RunningSimulations", (Integer) read(server, simulatorName, "RunningSimulations") == 0);
+			check("PendingEvents", (Long) read(server, simulatorName, "PendingEvents") == 0);
+			read(server, simulatorName, "AllocatedBytesPerEvent");
+			checkInFlight(server, simulatorName, simulatorMetrics);
+
+			// Everybody who entered has payed by the time the simulation stops
+			check("CustomersEntered", (Long) read(server, storeName, "CustomersEntered") == payed);
+			check("CustomersPayed", (Long) read(server, storeName, "CustomersPayed") == payed);
+			check("CustomersDenied", (Long) read(server, storeName, "CustomersDenied") == denied);
+			check("CustomersInStore", (Long) read(server, storeName, "CustomersInStore") == 0);
+			check("QueueLength", (Long) read(server, storeName, "QueueLength") == 0);
+		} finally {
+			simulatorMetrics.unregister();
+			storeMetrics.unregister();
+		}
+		check("unregister " + simulatorName, !server.isRegistered(simulatorName));
+		check("unregister " + storeName, !server.isRegistered(storeName));
+
+		if (!ok) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Read the simulator totals from inside a running simulation, while another
+	 * simulation is paused halfway. Only the running one counts.
+	 */
+	private static void checkInFlight(MBeanServer server, ObjectName simulatorName, SimulatorMetrics metrics)
+			throws JMException {
+		Simulator paused = simulator(metrics, null);
+		paused.runUntil(5);
+
+		EventQueue queue = EventQueueStrategy.HEAP.create();
+		Simulator running = simulator(metrics, queue);
+		boolean[] checked = new boolean[1];
+		running.runWhile(state -> {
+			if (!checked[0] && ((StoreState) state).getElapsedTime() >= 5) {
+				checked[0] = true;
+				try {
+					check("RunningSimulations in flight",
+							(Integer) read(server, simulatorName, "RunningSimulations") == 1);
+					check("PendingEvents in flight",
+							(Long) read(server, simulatorName, "PendingEvents") == queue.getQueueSize());
+				} catch (JMException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+			return true;
+		});
+		check("in flight read", checked[0]);
+		check("RunningSimulations after", (Integer) read(server, simulatorName, "RunningSimulations") == 0);
+		check("PendingEvents after", (Long) read(server, simulatorName, "PendingEvents") == 0);
+	}
+
+	private static Simulator simulator(SimulatorMetrics metrics, EventQueue queue) {
+		EventQueue events = queue != null ? queue : EventQueueStrategy.HEAP.create();
+		StoreState state = new StoreState(1234, 5, 2, 10, 1, 0.5, 1, 2, 3, events);
+		events.addEvent(new StoreStartEvent(state));
+		events.addEvent(new StoreCloseEvent(state, 10));
+		Simulator simulator = new Simulator(state, events);
+		simulator.setMetrics(metrics);
+		return simulator;
+	}
+
+	/**
+	 * Find the one bean of a type registered by this driver.
+	 */
+	private static ObjectName find(MBeanServer server, String type) throws JMException {
+		Set<ObjectName> names = server.queryNames(
+				new ObjectName("simulator:type=" + type + ",name=" + ObjectName.quote(NAME)), null);
+		check(type + " registered", names.size() == 1);
+		return names.isEmpty() ? null : names.iterator().next();
+	}
+
+	private static Object read(MBeanServer server, ObjectName name, String attribute) throws JMException {
+		Object value = server.getAttribute(name, attribute);
+		System.out.printf("%-52s %-24s %s%n", name, attribute, value);
+		return value;
+	}
+
+	private static void check(String what, boolean passed) {
+		if (!passed) {
+			System.out.println("FAILED: " + what);
+			ok = false;
+		}
+	}
+}
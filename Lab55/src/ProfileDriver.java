@@ -0,0 +1,120 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import simulator.DispatchProfile;
+import simulator.Histogram;
+
+/**
+ * Reads a Flight Recorder recording of a simulation run with
+ * {@link DispatchProfile} switched on, and prints how often every kind of
+ * profiling event happened per event or listener class, with its latency
+ * percentiles and a histogram of its latencies in powers of two.
+ *
+ * Record with for example
+ * {@code java -Dsimulator.profile=true -XX:StartFlightRecording=filename=sim.jfr ReplicationDriver}.
+ *
+ * Usage: {@code ProfileDriver <recording>}
+ */
+public class ProfileDriver {
+
+	private static final int BAR_WIDTH = 40;
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: ProfileDriver <recording>");
+			System.exit(2);
+		}
+
+		Map<String, Latencies> latencies = new TreeMap<>();
+		Instant first = null;
+		Instant last = null;
+		try (RecordingFile recording = new RecordingFile(Paths.get(args[0]))) {
+			while (recording.hasMoreEvents()) {
+				RecordedEvent event = recording.readEvent();
+				String type = event.getEventType().getName();
+				String field;
+				if (type.equals("simulator.Notify")) {
+					field = "listenerClass";
+				} else if (type.equals("simulator.RunEvent") || type.equals("simulator.UpdateState")) {
+					field = "eventClass";
+				} else {
+					continue;
+				}
+				RecordedClass recordedClass = event.getClass(field);
+				String key = String.format("%-20s %s", type.substring("simulator.".length()),
+						recordedClass == null ? "?" : recordedClass.getName());
+				latencies.computeIfAbsent(key, k -> new Latencies()).add(event.getDuration());
+
+				if (first == null || event.getStartTime().isBefore(first)) {
+					first = event.getStartTime();
+				}
+				if (last == null || event.getEndTime().isAfter(last)) {
+					last = event.getEndTime();
+				}
+			}
+		}
+		if (latencies.isEmpty()) {
+			System.out.println("No simulator events, was the run started with -Dsimulator.profile=true?");
+			return;
+		}
+
+		double seconds = Duration.between(first, last).toNanos() / 1e9;
+		System.out.printf("%-60s %10s %12s %9s %9s %9s %9s %9s%n", "Type and class", "Count", "Rate/s", "Mean us",
+				"p50 us", "p90 us", "p99 us", "Max us");
+		for (Map.Entry<String, Latencies> entry : latencies.entrySet()) {
+			Histogram h = entry.getValue().histogram;
+			System.out.printf("%-60s %10d %12.1f %9.3f %9.3f %9.3f %9.3f %9.3f%n", entry.getKey(), h.getCount(),
+					seconds > 0 ? h.getCount() / seconds : 0, entry.getValue().sum / h.getCount() / 1e3,
+					h.getPercentile(50) / 1e3, h.getPercentile(90) / 1e3, h.getPercentile(99) / 1e3, h.getMax() / 1e3);
+		}
+
+		for (Map.Entry<String, Latencies> entry : latencies.entrySet()) {
+			System.out.println();
+			System.out.println(entry.getKey());
+			entry.getValue().printBuckets();
+		}
+	}
+
+	/**
+	 * Latencies of one kind of profiling event and class, in nanoseconds.
+	 */
+	private static final class Latencies {
+		private final Histogram histogram = new Histogram(1, 7);
+		// Count of latencies below 2^i ns and from 2^(i - 1) ns
+		private final long[] powers = new long[64];
+		private double sum;
+
+		void add(Duration duration) {
+			long nanos = Math.max(0, duration.toNanos());
+			histogram.add(nanos);
+			powers[64 - Long.numberOfLeadingZeros(nanos)]++;
+			sum += nanos;
+		}
+
+		void printBuckets() {
+			int from = 0;
+			while (powers[from] == 0) {
+				from++;
+			}
+			int to = powers.length - 1;
+			while (powers[to] == 0) {
+				to--;
+			}
+			long most = 0;
+			for (long count : powers) {
+				most = Math.max(most, count);
+			}
+			for (int i = from; i <= to; i++) {
+				int bar = (int) Math.ceil((double) powers[i] * BAR_WIDTH / most);
+				System.out.printf("  < %12.3f us %10d %s%n", Math.scalb(1.0, i) / 1e3, powers[i], "#".repeat(bar));
+			}
+		}
+	}
+}
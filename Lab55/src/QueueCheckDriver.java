@@ -0,0 +1,149 @@
+import java.util.Arrays;
+
+import simulator.Event;
+import simulator.EventQueue;
+import simulator.EventQueueStrategy;
+import simulator.Simulator;
+import store.event.StoreCloseEvent;
+import store.event.StoreStartEvent;
+import store.state.StoreState;
+
+/**
+ * Checks that every {@link EventQueueStrategy} dequeues exactly the same
+ * sequence of events as {@link EventQueueStrategy#HEAP}, the reference. The
+ * store model is run with every strategy for a number of seeds, both the
+ * small store of {@link MainDriver} and a busy store with many pending
+ * events, and the class, execute time and customer of every dequeued event
+ * are compared.
+ *
+ * Prints one line per run and exits with status 1 if any sequence differs.
+ *
+ * Usage: {@code QueueCheckDriver [seeds]}
+ */
+public class QueueCheckDriver {
+
+	public static void main(String[] args) {
+		int seeds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+
+		boolean same = true;
+		for (long seed = 1234; seed < 1234 + seeds; seed++) {
+			// Store of MainDriver
+			same &= check("small", seed, 5, 2, 10, 1, 0.5, 1, 2, 3, 99);
+			// Busy store, thousands of pending events
+			same &= check("busy", seed, 2000, 50, 500, 100, 5, 20, 0.2, 0.5, 600);
+		}
+		if (!same) {
+			System.exit(1);
+		}
+	}
+
+	private static boolean check(String name, long seed, int maxCustomers, int maxRegisters, double timeStoreClose,
+			double arrivalSpeed, double minPickingTime, double maxPickingTime, double minCheckoutTime,
+			double maxCheckoutTime, double timeStop) {
+		DequeueLog reference = null;
+		boolean same = true;
+		for (EventQueueStrategy strategy : EventQueueStrategy.values()) {
+			DequeueLog log = new DequeueLog(strategy.create());
+			StoreState state = new StoreState(seed, maxCustomers, maxRegisters, timeStoreClose, arrivalSpeed,
+					minPickingTime, maxPickingTime, minCheckoutTime, maxCheckoutTime, log);
+			log.addEvent(new StoreStartEvent(state));
+			log.addEvent(new StoreCloseEvent(state, timeStoreClose));
+			new Simulator(state, log).run(timeStop);
+
+			if (reference == null) {
+				reference = log;
+				continue;
+			}
+			int difference = reference.firstDifference(log);
+			if (difference < 0) {
+				System.out.printf("%-6s seed %d %-8s %8d events, same as %s%n", name, seed, strategy, log.size,
+						EventQueueStrategy.HEAP);
+			} else {
+				System.out.printf("%-6s seed %d %-8s differs at event %d: %s, expected %s%n", name, seed, strategy,
+						difference, log.describe(difference), reference.describe(difference));
+				same = false;
+			}
+		}
+		return same;
+	}
+
+	/**
+	 * Event queue that remembers every event dequeued from the queue it wraps.
+	 */
+	private static final class DequeueLog implements EventQueue {
+		private final EventQueue queue;
+		private Class<?>[] classes = new Class<?>[1024];
+		private double[] times = new double[1024];
+		private int[] users = new int[1024];
+		private int size;
+
+		DequeueLog(EventQueue queue) {
+			this.queue = queue;
+		}
+
+		@Override
+		public boolean getEventQueueIsEmpty() {
+			return queue.getEventQueueIsEmpty();
+		}
+
+		@Override
+		public long schedule(Event event) {
+			return queue.schedule(event);
+		}
+
+		@Override
+		public boolean cancel(long handle) {
+			return queue.cancel(handle);
+		}
+
+		@Override
+		public boolean reschedule(long handle, double newTime) {
+			return queue.reschedule(handle, newTime);
+		}
+
+		@Override
+		public void removeEvent() {
+			Event event = queue.getEvent();
+			if (size == times.length) {
+				classes = Arrays.copyOf(classes, size * 2);
+				times = Arrays.copyOf(times, size * 2);
+				users = Arrays.copyOf(users, size * 2);
+			}
+			classes[size] = event.getClass();
+			times[size] = event.getExTime();
+			users[size] = event.getEventUserId();
+			size++;
+			queue.removeEvent();
+		}
+
+		@Override
+		public Event getEvent() {
+			return queue.getEvent();
+		}
+
+		@Override
+		public int getQueueSize() {
+			return queue.getQueueSize();
+		}
+
+		/**
+		 * Get the first event that differs from another log.
+		 *
+		 * @return index of first different event, -1 if the logs are the same
+		 */
+		int firstDifference(DequeueLog other) {
+			int n = Math.min(size, other.size);
+			for (int i = 0; i < n; i++) {
+				if (classes[i] != other.classes[i] || Double.compare(times[i], other.times[i]) != 0
+						|| users[i] != other.users[i]) {
+					return i;
+				}
+			}
+			return size == other.size ? -1 : n;
+		}
+
+		String describe(int i) {
+			return i < size ? classes[i].getSimpleName() + " at " + times[i] + " by " + users[i] : "end";
+		}
+	}
+}
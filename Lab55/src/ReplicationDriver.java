@@ -0,0 +1,80 @@
+import java.util.concurrent.ForkJoinPool;
+
+import simulator.EventQueueStrategy;
+import simulator.SimulatorMetrics;
+import simulator.StoppingRule;
+import store.experiment.StoreParameters;
+import store.experiment.StoreReplications;
+import store.experiment.StoreResult;
+import store.state.CustomerStatistics;
+import store.state.StoreMetrics;
+
+/**
+ * Runs the store of {@link MainDriver} with many seeds in parallel and prints
+ * the mean and 95% confidence interval of every measure, followed by the
+ * per-customer distributions of all replications pooled.
+ *
+ * With a relative half width, replications are added in batches until the
+ * confidence interval of the mean queue time per customer is that narrow,
+ * and the number of replications is the most that will be run.
+ *
+ * Usage: {@code ReplicationDriver [replications] [threads] [relative half width]}
+ */
+public class ReplicationDriver {
+
+	public static void main(String[] args) {
+
+		long TIME_SEED = 1234; // Seed of first replication
+		int MAX_CUSTOMERS = 5; // Maximum number of costumers allowed in store at once
+		int MAX_REGISTERS = 2; // Maximum number of registers available in store
+		int TIME_STORE_CLOSE = 10; // At what time store closes
+		double ARRIVAL_SPEED = 1; // Speed of which costumers arrive at
+		double MIN_PICKING_TIME = 0.5; // Minimum time a costumer can pick items in
+		double MAX_PICKING_TIME = 1; // Maximum time a costumer can pick items in
+		double MIN_CHECKOUT_TIME = 2; // Minimum time a costumer can checkout in
+		double MAX_CHECKOUT_TIME = 3; // Time a costumer can checkout in
+		double TIME_STOP = 99; // At what time simulation stops
+		EventQueueStrategy QUEUE_STRATEGY = EventQueueStrategy.HEAP; // Event queue implementation
+		int STOPPING_MEASURE = StoreResult.MEAN_QUEUE_TIME; // Measure checked by the stopping rule
+		int BATCH_SIZE = 10; // Replications added at a time by the stopping rule
+		boolean JMX = true; // Expose live metrics as platform MBeans, see them with JConsole
+
+		int replications = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		StoppingRule rule = args.length > 2
+				? new StoppingRule(Double.parseDouble(args[2]), BATCH_SIZE, Math.max(replications, BATCH_SIZE))
+				: null;
+
+		StoreParameters parameters = new StoreParameters(TIME_SEED, MAX_CUSTOMERS, MAX_REGISTERS, TIME_STORE_CLOSE,
+				ARRIVAL_SPEED, MIN_PICKING_TIME, MAX_PICKING_TIME, MIN_CHECKOUT_TIME, MAX_CHECKOUT_TIME, TIME_STOP,
+				QUEUE_STRATEGY);
+		// Shared by all replications, so the counts are totals
+		SimulatorMetrics simulatorMetrics = new SimulatorMetrics();
+		StoreMetrics storeMetrics = new StoreMetrics();
+		if (JMX) {
+			simulatorMetrics.register("ReplicationDriver");
+			storeMetrics.register("ReplicationDriver");
+		}
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			long start = System.nanoTime();
+			StoreReplications runner = new StoreReplications(parameters, pool);
+			if (JMX) {
+				runner.setMetrics(simulatorMetrics, storeMetrics);
+			}
+			StoreResult[] results = rule == null ? runner.run(replications) : runner.runUntil(STOPPING_MEASURE, rule);
+			long elapsed = System.nanoTime() - start;
+
+			System.out.print(StoreReplications.format(StoreReplications.summarize(results)));
+			CustomerStatistics customers = StoreReplications.pool(results);
+			System.out.println("Queue time per customer: " + customers.getQueueTimes());
+			System.out.println("Time in store per customer: " + customers.getStoreTimes());
+			System.out.printf("%d replications on %d threads in %.1f ms%n", results.length, threads, elapsed / 1e6);
+		} finally {
+			pool.shutdown();
+			simulatorMetrics.unregister();
+			storeMetrics.unregister();
+		}
+	}
+
+}
@@ -0,0 +1,97 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+
+import simulator.EventQueueStrategy;
+import simulator.SimulatorMetrics;
+import simulator.StoppingRule;
+import store.experiment.ParameterSweep;
+import store.experiment.StoreParameters;
+import store.experiment.StoreResult;
+import store.experiment.SweepDesign;
+import store.experiment.SweepFactor;
+import store.state.StoreMetrics;
+
+/**
+ * Sweeps the store of {@link MainDriver} over registers, capacity, arrival
+ * speed and service times and writes one CSV row per point. Run it again with
+ * the same file to resume an interrupted sweep.
+ *
+ * With a relative half width, every point runs replications until the
+ * confidence interval of the mean queue time per customer is that narrow,
+ * and the number of replications is the most a point will run.
+ *
+ * Usage:
+ * {@code SweepDriver <file> [grid|lhs] [replications] [threads] [relative half width]}
+ */
+public class SweepDriver {
+
+	public static void main(String[] args) throws IOException {
+
+		long TIME_SEED = 1234; // Seed of first replication of every point
+		int MAX_CUSTOMERS = 5; // Maximum number of costumers allowed in store at once
+		int MAX_REGISTERS = 2; // Maximum number of registers available in store
+		int TIME_STORE_CLOSE = 10; // At what time store closes
+		double ARRIVAL_SPEED = 1; // Speed of which costumers arrive at
+		double MIN_PICKING_TIME = 0.5; // Minimum time a costumer can pick items in
+		double MAX_PICKING_TIME = 1; // Maximum time a costumer can pick items in
+		double MIN_CHECKOUT_TIME = 2; // Minimum time a costumer can checkout in
+		double MAX_CHECKOUT_TIME = 3; // Time a costumer can checkout in
+		double TIME_STOP = 99; // At what time simulation stops
+		EventQueueStrategy QUEUE_STRATEGY = EventQueueStrategy.HEAP; // Event queue implementation
+		int STOPPING_MEASURE = StoreResult.MEAN_QUEUE_TIME; // Measure checked by the stopping rule
+		int BATCH_SIZE = 10; // Replications added at a time by the stopping rule
+		boolean JMX = true; // Expose live metrics as platform MBeans, see them with JConsole
+
+		// Factors to sweep, with grid levels and hypercube ranges
+		SweepFactor[] FACTORS = { SweepFactor.MAX_REGISTERS, SweepFactor.MAX_CUSTOMERS, SweepFactor.ARRIVAL_SPEED,
+				SweepFactor.MAX_PICKING_TIME, SweepFactor.MAX_CHECKOUT_TIME };
+		double[][] GRID_LEVELS = { { 1, 2, 3, 4 }, { 5, 10, 20 }, { 0.5, 1, 2, 4 }, { 1, 2 }, { 3, 5 } };
+		double[] LOWER = { 1, 5, 0.5, 1, 3 };
+		double[] UPPER = { 4, 20, 4, 2, 5 };
+		int LHS_POINTS = 100;
+
+		if (args.length < 1) {
+			System.err.println("Usage: SweepDriver <file> [grid|lhs] [replications] [threads] [relative half width]");
+			System.exit(1);
+		}
+		Path output = Paths.get(args[0]);
+		boolean latinHypercube = args.length > 1 && args[1].equals("lhs");
+		int replications = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+		int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+		StoppingRule rule = args.length > 4
+				? new StoppingRule(Double.parseDouble(args[4]), BATCH_SIZE, Math.max(replications, BATCH_SIZE))
+				: null;
+
+		StoreParameters base = new StoreParameters(TIME_SEED, MAX_CUSTOMERS, MAX_REGISTERS, TIME_STORE_CLOSE,
+				ARRIVAL_SPEED, MIN_PICKING_TIME, MAX_PICKING_TIME, MIN_CHECKOUT_TIME, MAX_CHECKOUT_TIME, TIME_STOP,
+				QUEUE_STRATEGY);
+		SweepDesign design = latinHypercube
+				? SweepDesign.latinHypercube(FACTORS, LOWER, UPPER, LHS_POINTS, TIME_SEED)
+				: SweepDesign.grid(FACTORS, GRID_LEVELS);
+
+		// Shared by all replications, so the counts are totals
+		SimulatorMetrics simulatorMetrics = new SimulatorMetrics();
+		StoreMetrics storeMetrics = new StoreMetrics();
+		if (JMX) {
+			simulatorMetrics.register("SweepDriver");
+			storeMetrics.register("SweepDriver");
+		}
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			ParameterSweep sweep = rule == null ? new ParameterSweep(base, design, replications, pool)
+					: new ParameterSweep(base, design, STOPPING_MEASURE, rule, pool);
+			if (JMX) {
+				sweep.setMetrics(simulatorMetrics, storeMetrics);
+			}
+			int run = sweep.run(output);
+			System.out.printf("Ran %d of %d points, results in %s%n", run, design.size(), output);
+		} finally {
+			pool.shutdown();
+			simulatorMetrics.unregister();
+			storeMetrics.unregister();
+		}
+	}
+
+}
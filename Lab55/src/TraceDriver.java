@@ -0,0 +1,46 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import simulator.EventQueueStrategy;
+import store.state.StoreState;
+import store.view.StoreView;
+import store.view.TraceReader;
+
+/**
+ * Converts a binary trace written by {@link store.view.TraceWriter} back to
+ * the text of {@link StoreView}, as if the view had watched the simulation.
+ *
+ * Usage: {@code TraceDriver <trace> [text file]}
+ */
+public class TraceDriver {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: TraceDriver <trace> [text file]");
+			System.exit(2);
+		}
+		TraceReader reader = new TraceReader(Paths.get(args[0]));
+
+		// The view only reads the parameters and per-customer statistics of the state
+		StoreState state = new StoreState(reader.getSeed(), reader.getMaxCustomers(), reader.getMaxRegisters(),
+				reader.getTimeStoreClose(), reader.getArrivalSpeed(), reader.getMinPickingTime(),
+				reader.getMaxPickingTime(), reader.getMinCheckoutTime(), reader.getMaxCheckoutTime(),
+				EventQueueStrategy.HEAP.create());
+		state.getCustomerStatistics().merge(reader.getCustomerStatistics());
+		Writer sink = args.length > 1 ? Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.UTF_8)
+				: new BufferedWriter(new OutputStreamWriter(System.out));
+		StoreView view = new StoreView(state, sink);
+		for (int chunk = 0; chunk < reader.getChunkCount(); chunk++) {
+			view.onRecords(reader.readChunk(chunk));
+		}
+		view.onEnd();
+		if (args.length > 1) {
+			sink.close();
+		}
+	}
+}
@@ -0,0 +1,151 @@
+import java.util.Random;
+import java.util.function.DoubleSupplier;
+
+import store.time.VariateBuffer;
+import store.time.Xoshiro256;
+
+/**
+ * Checks and times the buffered variates of {@link VariateBuffer}, the
+ * ziggurat exponentials and the uniforms scaled in bulk, against drawing one
+ * variate at a time as the random streams of the store did before, with
+ * {@code -Math.log(u) / lambda} and {@code lower + u * (upper - lower)}.
+ *
+ * Buffers of different block sizes must give exactly the same variates for a
+ * seed, and the mean, variance and tail of the buffered variates must agree
+ * with the distribution. Then every way of drawing is timed over a number of
+ * rounds, the first half of them only warming up.
+ *
+ * Prints the nanoseconds per variate of every way of drawing, and exits with
+ * status 1 if any check fails.
+ *
+ * Usage: {@code VariateCheckDriver [draws] [rounds]}
+ */
+public class VariateCheckDriver {
+
+	private static final long SEED = 1234;
+	private static final double LAMBDA = 2;
+	private static final double LOWER = 2;
+	private static final double UPPER = 3;
+
+	private static boolean ok = true;
+	// Sum of all timed variates, printed so the draws can't be left out
+	private static double sink;
+
+	public static void main(String[] args) {
+		int draws = args.length > 0 ? Integer.parseInt(args[0]) : 4_000_000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+		for (int size : new int[] { 1, 7, 1000 }) {
+			checkSame("exponential block " + size,
+					VariateBuffer.exponential(LAMBDA, new Xoshiro256(SEED), VariateBuffer.DEFAULT_SIZE),
+					VariateBuffer.exponential(LAMBDA, new Xoshiro256(SEED), size), draws);
+			checkSame("uniform block " + size,
+					VariateBuffer.uniform(LOWER, UPPER, new Xoshiro256(SEED), VariateBuffer.DEFAULT_SIZE),
+					VariateBuffer.uniform(LOWER, UPPER, new Xoshiro256(SEED), size), draws);
+		}
+
+		// Exponential: mean 1 / lambda, variance 1 / lambda^2, P(X > x) = exp(-lambda x).
+		// The tail beyond 7.7 / lambda is past the last ziggurat layer.
+		VariateBuffer exponential = VariateBuffer.exponential(LAMBDA, new Xoshiro256(SEED),
+				VariateBuffer.DEFAULT_SIZE);
+		checkMoments("exponential", exponential::next, draws, 1 / LAMBDA, 1 / (LAMBDA * LAMBDA), 8,
+				new double[] { 1 / LAMBDA, 3 / LAMBDA, 7.7 / LAMBDA });
+		// Uniform: mean (lower + upper) / 2, variance (upper - lower)^2 / 12, 9 / 5 kurtosis
+		VariateBuffer uniform = VariateBuffer.uniform(LOWER, UPPER, new Xoshiro256(SEED), VariateBuffer.DEFAULT_SIZE);
+		double width = UPPER - LOWER;
+		checkMoments("uniform", uniform::next, draws, (LOWER + UPPER) / 2, width * width / 12, 1.8, new double[0]);
+		if (!ok) {
+			System.exit(1);
+		}
+
+		Xoshiro256 xoshiro = new Xoshiro256(SEED);
+		Random random = new Random(SEED);
+		String[] names = { "exponential, VariateBuffer", "exponential, Xoshiro256 and log",
+				"exponential, Random and log", "uniform, VariateBuffer", "uniform, Xoshiro256",
+				"uniform, Random" };
+		DoubleSupplier[] ways = { exponential::next, () -> -Math.log(1 - xoshiro.nextDouble()) / LAMBDA,
+				() -> -Math.log(random.nextDouble()) / LAMBDA, uniform::next,
+				() -> LOWER + xoshiro.nextDouble() * width, () -> LOWER + random.nextDouble() * width };
+
+		// Alternate so every way sees the same warm-up and the same state of the JIT
+		double[] nanos = new double[ways.length];
+		for (int round = 0; round < rounds; round++) {
+			for (int i = 0; i < ways.length; i++) {
+				long start = System.nanoTime();
+				sink += draw(ways[i], draws);
+				long elapsed = System.nanoTime() - start;
+				if (round >= rounds / 2) {
+					nanos[i] += elapsed;
+				}
+			}
+		}
+		double measured = (double) (rounds - rounds / 2) * draws;
+		System.out.printf("%-34s %10s%n", "Variates", "ns/draw");
+		for (int i = 0; i < ways.length; i++) {
+			System.out.printf("%-34s %10.2f%n", names[i], nanos[i] / measured);
+		}
+		System.out.printf("(sum %.6g)%n", sink);
+	}
+
+	private static double draw(DoubleSupplier variates, int draws) {
+		double sum = 0;
+		for (int i = 0; i < draws; i++) {
+			sum += variates.getAsDouble();
+		}
+		return sum;
+	}
+
+	private static void checkSame(String name, VariateBuffer expected, VariateBuffer actual, int draws) {
+		for (int i = 0; i < draws; i++) {
+			double e = expected.next();
+			double a = actual.next();
+			if (Double.compare(e, a) != 0) {
+				System.out.printf("%-24s differs at variate %d: %s, expected %s%n", name, i, a, e);
+				ok = false;
+				return;
+			}
+		}
+		System.out.printf("%-24s %d variates, same as block %d%n", name, draws, VariateBuffer.DEFAULT_SIZE);
+	}
+
+	/**
+	 * Check the mean, variance and tail fractions of variates within six
+	 * standard errors.
+	 *
+	 * @param kurtosis kurtosis of the distribution, for the standard error of
+	 *                 the variance
+	 * @param tails    points at which to compare the fraction of variates above
+	 */
+	private static void checkMoments(String name, DoubleSupplier variates, int draws, double mean,
+			double variance, double kurtosis, double[] tails) {
+		double sum = 0;
+		double squares = 0;
+		long[] above = new long[tails.length];
+		for (int i = 0; i < draws; i++) {
+			double x = variates.getAsDouble();
+			sum += x;
+			squares += (x - mean) * (x - mean);
+			for (int j = 0; j < tails.length; j++) {
+				if (x > tails[j]) {
+					above[j]++;
+				}
+			}
+		}
+		double sampleMean = sum / draws;
+		double sampleVariance = squares / draws;
+		check(name, "mean", sampleMean, mean, Math.sqrt(variance / draws));
+		check(name, "variance", sampleVariance, variance, variance * Math.sqrt((kurtosis - 1) / draws));
+		for (int j = 0; j < tails.length; j++) {
+			double p = Math.exp(-LAMBDA * tails[j]);
+			check(name, String.format("P(X > %.2f)", tails[j]), (double) above[j] / draws, p,
+					Math.sqrt(p * (1 - p) / draws));
+		}
+	}
+
+	private static void check(String name, String what, double actual, double expected, double error) {
+		boolean passed = Math.abs(actual - expected) <= 6 * error;
+		System.out.printf("%-24s %-14s %12.6f, expected %12.6f +/- %.6f%s%n", name, what, actual, expected,
+				6 * error, passed ? "" : "  FAILED");
+		ok &= passed;
+	}
+}
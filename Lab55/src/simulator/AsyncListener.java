@@ -0,0 +1,283 @@
+package simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Listener that hands records over to another listener running on a thread
+ * of its own, so slow listeners such as views that format every record do not
+ * hold up the simulation.
+ *
+ * Records pass through a pre-allocated single-producer single-consumer ring
+ * buffer without locks. What happens when the buffer is full is decided by
+ * {@link BackPressure}. When the simulation ends, every record in the buffer
+ * is delivered before the wrapped listener's {@link SimListener#onEnd()} is
+ * called, and {@link #onEnd()} does not return until that has happened.
+ *
+ * The ring holds references to the records handed to {@link #onRecords(List)}.
+ * A subclass can keep the records in slots of its own instead, for example as
+ * primitive columns filled in place, so the simulation thread builds no record
+ * at all: it takes a slot with {@link #claim()}, fills it and hands it over
+ * with {@link #release()}, and the listener thread builds the record with
+ * {@link #read(int)}.
+ *
+ * @param <R> type of record
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public class AsyncListener<R> implements SimListener<R> {
+
+	/**
+	 * What the simulation thread does when the buffer is full.
+	 */
+	public enum BackPressure {
+		/**
+		 * Wait for the listener to catch up. Nothing is lost.
+		 */
+		BLOCK,
+		/**
+		 * Drop the record and count it.
+		 */
+		DROP,
+		/**
+		 * Once the buffer is more than half full, keep only every n-th record
+		 * until it has drained, and drop records when it is full. Dropped records
+		 * are counted.
+		 */
+		SAMPLE
+	}
+
+	private static final int MAX_BATCH = 256;
+	private static final long PARK_NANOS = 50_000;
+
+	private final SimListener<? super R> listener;
+	private final BackPressure backPressure;
+	private final int sampleInterval;
+	// Records, null when a subclass keeps them in slots of its own
+	private final Object[] buffer;
+	private final int mask;
+
+	// Next slot to write, only written by the simulation thread.
+	private final AtomicLong tail = new AtomicLong();
+	// Next slot to read, only written by the listener thread.
+	private final AtomicLong head = new AtomicLong();
+	private long sampleCount;
+	// Only written by the simulation thread, read by any thread.
+	private final AtomicLong dropped = new AtomicLong();
+
+	private final Thread consumer;
+	private volatile boolean ended;
+	private volatile Throwable failure;
+
+	/**
+	 * Create a listener that waits when the buffer is full.
+	 *
+	 * @param listener listener to run on a thread of its own
+	 * @param capacity number of records the buffer holds, rounded up to a power
+	 *                 of two
+	 */
+	public AsyncListener(SimListener<? super R> listener, int capacity) {
+		this(listener, capacity, BackPressure.BLOCK, 1);
+	}
+
+	/**
+	 * Create a new listener.
+	 *
+	 * @param listener       listener to run on a thread of its own
+	 * @param capacity       number of records the buffer holds, rounded up to a
+	 *                       power of two
+	 * @param backPressure   what to do when the buffer is full
+	 * @param sampleInterval keep every n-th record under
+	 *                       {@link BackPressure#SAMPLE}
+	 */
+	public AsyncListener(SimListener<? super R> listener, int capacity, BackPressure backPressure,
+			int sampleInterval) {
+		this(listener, capacity, backPressure, sampleInterval, true);
+		start();
+	}
+
+	/**
+	 * Create a listener for a subclass, which starts the listener thread with
+	 * {@link #start()} once it has been constructed.
+	 *
+	 * @param listener       listener to run on a thread of its own
+	 * @param capacity       number of records the buffer holds, rounded up to a
+	 *                       power of two
+	 * @param backPressure   what to do when the buffer is full
+	 * @param sampleInterval keep every n-th record under
+	 *                       {@link BackPressure#SAMPLE}
+	 * @param keepRecords    true to keep references to the records, false if
+	 *                       the subclass keeps them in slots of its own and
+	 *                       overrides {@link #read(int)}
+	 */
+	protected AsyncListener(SimListener<? super R> listener, int capacity, BackPressure backPressure,
+			int sampleInterval, boolean keepRecords) {
+		if (capacity < 2 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("Capacity out of range: " + capacity);
+		}
+		if (sampleInterval < 1) {
+			throw new IllegalArgumentException("Sample interval must be positive: " + sampleInterval);
+		}
+		this.listener = listener;
+		this.backPressure = backPressure;
+		this.sampleInterval = sampleInterval;
+		int size = Integer.highestOneBit(capacity - 1) << 1;
+		this.buffer = keepRecords ? new Object[size] : null;
+		this.mask = size - 1;
+		this.consumer = new Thread(this::consume, "sim-listener");
+		this.consumer.setDaemon(true);
+	}
+
+	/**
+	 * Start the listener thread.
+	 */
+	protected final void start() {
+		consumer.start();
+	}
+
+	@Override
+	public void onRecords(List<? extends R> records) {
+		for (R record : records) {
+			int slot = claim();
+			if (slot >= 0) {
+				buffer[slot] = record;
+				release();
+			}
+		}
+	}
+
+	/**
+	 * Deliver all remaining records, then end the wrapped listener, and wait
+	 * for both to finish.
+	 */
+	@Override
+	public void onEnd() {
+		ended = true;
+		LockSupport.unpark(consumer);
+		boolean interrupted = false;
+		while (consumer.isAlive()) {
+			try {
+				consumer.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		checkFailure();
+	}
+
+	/**
+	 * Get the number of records that were not delivered because the buffer was
+	 * full.
+	 *
+	 * @return number of dropped records
+	 */
+	public long getDropped() {
+		return dropped.get();
+	}
+
+	/**
+	 * Get the number of slots in the ring.
+	 *
+	 * @return capacity rounded up to a power of two
+	 */
+	protected final int getSlots() {
+		return mask + 1;
+	}
+
+	/**
+	 * Take the slot for the next record on the simulation thread, waiting or
+	 * dropping the record when the buffer is full as the back pressure says.
+	 *
+	 * @return slot to fill and hand over with {@link #release()}, or -1 if the
+	 *         record is dropped
+	 */
+	protected final int claim() {
+		long t = tail.get();
+		long used = t - head.get();
+		if (backPressure == BackPressure.SAMPLE && used > mask / 2 && sampleCount++ % sampleInterval != 0) {
+			drop();
+			return -1;
+		}
+		while (used > mask) {
+			if (backPressure != BackPressure.BLOCK) {
+				drop();
+				return -1;
+			}
+			checkFailure();
+			LockSupport.parkNanos(PARK_NANOS);
+			used = t - head.get();
+		}
+		return (int) (t & mask);
+	}
+
+	/**
+	 * Hand the slot taken by {@link #claim()} over to the listener thread.
+	 */
+	protected final void release() {
+		// Everything written to the slot happens before the listener reads it.
+		tail.lazySet(tail.get() + 1);
+	}
+
+	/**
+	 * Get the record in a slot on the listener thread. The slot is reused once
+	 * this method returns.
+	 *
+	 * @param slot slot released by the simulation thread
+	 * @return record of slot
+	 */
+	@SuppressWarnings("unchecked")
+	protected R read(int slot) {
+		R record = (R) buffer[slot];
+		buffer[slot] = null;
+		return record;
+	}
+
+	private void drop() {
+		// Single writer, so an ordered write is enough.
+		dropped.lazySet(dropped.get() + 1);
+	}
+
+	private void consume() {
+		List<R> batch = new ArrayList<>(MAX_BATCH);
+		long h = head.get();
+		try {
+			while (true) {
+				boolean end = ended;
+				long t = tail.get();
+				if (h == t) {
+					if (end) {
+						break;
+					}
+					LockSupport.parkNanos(PARK_NANOS);
+					continue;
+				}
+				while (h < t && batch.size() < MAX_BATCH) {
+					batch.add(read((int) (h & mask)));
+					h++;
+				}
+				// Free the slots before the slow part.
+				head.lazySet(h);
+				listener.onRecords(batch);
+				batch.clear();
+			}
+			listener.onEnd();
+		} catch (Throwable e) {
+			failure = e;
+		}
+	}
+
+	private void checkFailure() {
+		Throwable e = failure;
+		if (e != null) {
+			throw new IllegalStateException("Listener failed", e);
+		}
+	}
+}
@@ -0,0 +1,290 @@
+package simulator;
+
+/**
+ * Event queue implemented as a calendar queue (R. Brown, 1988).
+ *
+ * Time is divided into "days" of a fixed width, and the calendar has one
+ * bucket per day of the "year". An event is placed in the bucket of its day
+ * modulo the number of buckets, and every bucket is kept sorted. Dequeuing
+ * walks the calendar day by day from the current position, so with a well
+ * chosen bucket width the hold time is amortized O(1). The calendar doubles
+ * or halves the number of buckets when the queue grows or shrinks and then
+ * re-estimates the bucket width from the events closest to the front.
+ *
+ * Cancelled and rescheduled events are dropped lazily. Their old entries stay
+ * in the buckets until they reach the front or the calendar is resized, and
+ * are recognised by no longer carrying the event's current sequence number.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public class CalendarEventQueue implements EventQueue {
+	private static final int MIN_BUCKETS = 2;
+	private static final int WIDTH_SAMPLE_SIZE = 25;
+
+	private final EventHandles handles;
+	private EventEntries[] buckets;
+	private int mask;
+	private double width;
+	private int size;
+	/**
+	 * Number of entries in the buckets, including entries that are no longer
+	 * current.
+	 */
+	private int entries;
+	private long nextSequence;
+
+	/**
+	 * Number of the day currently being dequeued. No event in the calendar
+	 * belongs to an earlier day.
+	 */
+	private long currentDay;
+
+	/**
+	 * Create a new instance of CalendarEventQueue
+	 */
+	public CalendarEventQueue() {
+		this.handles = new EventHandles();
+		this.width = 1.0;
+		this.buckets = createBuckets(MIN_BUCKETS);
+		this.mask = MIN_BUCKETS - 1;
+	}
+
+	@Override
+	public boolean getEventQueueIsEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Adds an event to the event queue in amortized O(1).
+	 *
+	 * @param event
+	 * @return handle of scheduled event
+	 */
+	@Override
+	public long schedule(Event event) {
+		long handle = handles.register(event);
+		enqueue(event, event.getExTime());
+		size++;
+		return handle;
+	}
+
+	/**
+	 * Removes the event first in line in amortized O(1).
+	 */
+	@Override
+	public void removeEvent() {
+		pollEvent();
+	}
+
+	/**
+	 * Removes and returns the event first in line in amortized O(1).
+	 */
+	@Override
+	public Event pollEvent() {
+		EventEntries bucket = buckets[locateFirst()];
+		Event event = bucket.firstEvent();
+		bucket.removeFirst();
+		entries--;
+		size--;
+		handles.unregister(event);
+		if (entries < buckets.length / 2 && buckets.length > MIN_BUCKETS) {
+			resize(buckets.length / 2);
+		}
+		return event;
+	}
+
+	/**
+	 * Cancels a scheduled event in O(1).
+	 */
+	@Override
+	public boolean cancel(long handle) {
+		Event event = handles.lookup(handle);
+		if (event == null) {
+			return false;
+		}
+		handles.unregister(event);
+		size--;
+		event.release();
+		return true;
+	}
+
+	/**
+	 * Moves a scheduled event to a new time in amortized O(1).
+	 */
+	@Override
+	public boolean reschedule(long handle, double newTime) {
+		Event event = handles.lookup(handle);
+		if (event == null) {
+			return false;
+		}
+		event.executeTime = newTime;
+		enqueue(event, newTime);
+		return true;
+	}
+
+	/**
+	 *
+	 * @return the event first in line.
+	 */
+	@Override
+	public Event getEvent() {
+		return buckets[locateFirst()].firstEvent();
+	}
+
+	@Override
+	public int getQueueSize() {
+		return size;
+	}
+
+	/**
+	 * Add a new current entry for an event, leaving any earlier entry of it
+	 * behind.
+	 */
+	private void enqueue(Event event, double time) {
+		long sequence = nextSequence++;
+		event.queueSequence = sequence;
+		insert(time, sequence, event);
+		entries++;
+		if (entries > 2 * buckets.length) {
+			resize(buckets.length * 2);
+		}
+	}
+
+	private void insert(double time, long sequence, Event event) {
+		long day = day(time);
+		if (entries == 0 || day < currentDay) {
+			currentDay = day;
+		}
+		buckets[(int) (day & mask)].insertSorted(time, sequence, event);
+	}
+
+	/**
+	 * Find the bucket holding the first event and move the current day up to the
+	 * day of that event, dropping entries that are no longer current on the way.
+	 *
+	 * @return index of bucket whose first entry is the first event in the queue
+	 */
+	private int locateFirst() {
+		if (size == 0) {
+			throw new RuntimeException("Queue is empty");
+		}
+		while (true) {
+			int index = locateFirstEntry();
+			EventEntries bucket = buckets[index];
+			if (bucket.firstEvent().queueSequence == bucket.firstSequence()) {
+				return index;
+			}
+			bucket.removeFirst();
+			entries--;
+		}
+	}
+
+	/**
+	 * Find the bucket holding the first entry, current or not.
+	 */
+	private int locateFirstEntry() {
+		for (int i = 0; i < buckets.length; i++) {
+			int index = (int) (currentDay & mask);
+			EventEntries bucket = buckets[index];
+			if (!bucket.isEmpty() && day(bucket.firstTime()) <= currentDay) {
+				return index;
+			}
+			currentDay++;
+		}
+		// A whole year without events, fall back to a direct search.
+		int first = -1;
+		for (int i = 0; i < buckets.length; i++) {
+			EventEntries bucket = buckets[i];
+			if (!bucket.isEmpty() && (first < 0 || EventEntries.less(bucket.firstTime(),
+					bucket.firstSequence(), buckets[first].firstTime(), buckets[first].firstSequence()))) {
+				first = i;
+			}
+		}
+		currentDay = day(buckets[first].firstTime());
+		return first;
+	}
+
+	private long day(double time) {
+		return (long) Math.floor(time / width);
+	}
+
+	private void resize(int bucketCount) {
+		double newWidth = estimateWidth();
+		EventEntries[] old = buckets;
+		buckets = createBuckets(bucketCount);
+		mask = bucketCount - 1;
+		width = newWidth;
+
+		// Only current entries are carried over.
+		entries = 0;
+		for (EventEntries bucket : old) {
+			for (int i = 0; i < bucket.size(); i++) {
+				Event event = bucket.event(i);
+				if (event.queueSequence == bucket.sequence(i)) {
+					insert(bucket.time(i), bucket.sequence(i), event);
+					entries++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Estimate a bucket width from the average separation of the events closest
+	 * to the front of the queue, ignoring unusually large gaps.
+	 */
+	private double estimateWidth() {
+		int samples = Math.min(entries, WIDTH_SAMPLE_SIZE);
+		if (samples < 2) {
+			return width;
+		}
+		double[] front = smallestTimes(samples);
+		double total = front[samples - 1] - front[0];
+		double average = total / (samples - 1);
+		double sum = 0;
+		int count = 0;
+		for (int i = 1; i < samples; i++) {
+			double gap = front[i] - front[i - 1];
+			if (gap <= 2 * average) {
+				sum += gap;
+				count++;
+			}
+		}
+		double separation = count > 0 ? sum / count : average;
+		return separation > 0 ? 3 * separation : width;
+	}
+
+	/**
+	 * Get the {@code n} smallest event times in the queue, in ascending order.
+	 */
+	private double[] smallestTimes(int n) {
+		double[] smallest = new double[n];
+		int found = 0;
+		for (EventEntries bucket : buckets) {
+			for (int i = 0; i < bucket.size(); i++) {
+				double time = bucket.time(i);
+				if (found == n && time >= smallest[n - 1]) {
+					// Buckets are sorted, the rest of this one is larger too.
+					break;
+				}
+				int j = found < n ? found++ : n - 1;
+				while (j > 0 && smallest[j - 1] > time) {
+					smallest[j] = smallest[j - 1];
+					j--;
+				}
+				smallest[j] = time;
+			}
+		}
+		return smallest;
+	}
+
+	private static EventEntries[] createBuckets(int count) {
+		EventEntries[] buckets = new EventEntries[count];
+		for (int i = 0; i < count; i++) {
+			buckets[i] = new EventEntries();
+		}
+		return buckets;
+	}
+}
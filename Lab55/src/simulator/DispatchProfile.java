@@ -0,0 +1,84 @@
+package simulator;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events that time every part of dispatching a
+ * simulation event: running it, updating the state, and delivering records
+ * to listeners. Read a recording with {@code ProfileDriver}.
+ *
+ * Profiling is switched on by starting the JVM with
+ * {@code -Dsimulator.profile=true}, and recorded with for example
+ * {@code -XX:StartFlightRecording=filename=sim.jfr}. The switch is a constant,
+ * so when it is off the JIT compiler removes the profiling code and
+ * dispatching costs exactly what it did without it.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public final class DispatchProfile {
+
+	/**
+	 * Whether the simulator emits profiling events, read once when the class is
+	 * loaded.
+	 */
+	public static final boolean ENABLED = Boolean.getBoolean("simulator.profile");
+
+	private DispatchProfile() {
+	}
+
+	/**
+	 * Time spent in {@link Event#runEvent()} of one event.
+	 */
+	@Name("simulator.RunEvent")
+	@Label("Run Event")
+	@Category("Simulator")
+	@Description("Time spent running one simulation event")
+	@StackTrace(false)
+	public static final class Run extends jdk.jfr.Event {
+		@Label("Event Class")
+		public Class<?> eventClass;
+
+		@Label("Simulation Time")
+		public double simulationTime;
+	}
+
+	/**
+	 * Time spent in {@link SimState#updateState(Event)} after one event,
+	 * including publishing its record to listeners.
+	 */
+	@Name("simulator.UpdateState")
+	@Label("Update State")
+	@Category("Simulator")
+	@Description("Time spent updating the state after one simulation event, including notifying listeners")
+	@StackTrace(false)
+	public static final class Update extends jdk.jfr.Event {
+		@Label("Event Class")
+		public Class<?> eventClass;
+
+		@Label("Simulation Time")
+		public double simulationTime;
+	}
+
+	/**
+	 * Time spent delivering one batch of records to a listener.
+	 */
+	@Name("simulator.Notify")
+	@Label("Notify Listener")
+	@Category("Simulator")
+	@Description("Time spent delivering one batch of records to a listener")
+	@StackTrace(false)
+	public static final class Notify extends jdk.jfr.Event {
+		@Label("Listener Class")
+		public Class<?> listenerClass;
+
+		@Label("Records")
+		public int records;
+	}
+}
@@ -0,0 +1,146 @@
+package simulator;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Distribution of a series of non-negative observations, such as the time
+ * every customer spends waiting, computed online. The mean and standard
+ * deviation are exact ({@link SummaryStatistic}) and percentiles come from a
+ * {@link Histogram}, so memory is fixed however many observations there are.
+ * Distributions of replications run in parallel merge cheaply.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public final class Distribution {
+
+	/**
+	 * Unit of the histogram, far below any time that matters in a simulation.
+	 */
+	public static final double UNIT = 1e-6;
+
+	/**
+	 * Precision of the histogram, percentiles are within 1% of the true value.
+	 */
+	public static final int PRECISION_BITS = 7;
+
+	private final SummaryStatistic moments;
+	private final Histogram histogram;
+
+	/**
+	 * Create an empty distribution.
+	 */
+	public Distribution() {
+		this(new SummaryStatistic(), new Histogram(UNIT, PRECISION_BITS));
+	}
+
+	private Distribution(SummaryStatistic moments, Histogram histogram) {
+		this.moments = moments;
+		this.histogram = histogram;
+	}
+
+	/**
+	 * Add an observation.
+	 *
+	 * @param value observed value, not negative
+	 */
+	public void add(double value) {
+		histogram.add(value);
+		moments.add(value);
+	}
+
+	/**
+	 * Add all observations of another distribution to this one.
+	 *
+	 * @param other distribution to merge, left unchanged
+	 */
+	public void merge(Distribution other) {
+		histogram.merge(other.histogram);
+		moments.merge(other.moments);
+	}
+
+	public long getCount() {
+		return moments.getCount();
+	}
+
+	/**
+	 * Get the sum of all observations.
+	 *
+	 * @return sum, 0 if there are none
+	 */
+	public double getSum() {
+		return moments.getCount() > 0 ? moments.getMean() * moments.getCount() : 0;
+	}
+
+	public double getMean() {
+		return moments.getMean();
+	}
+
+	public double getStandardDeviation() {
+		return moments.getStandardDeviation();
+	}
+
+	public double getMin() {
+		return moments.getMin();
+	}
+
+	public double getMax() {
+		return moments.getMax();
+	}
+
+	/**
+	 * Get the value below which a percentage of the observations lie.
+	 *
+	 * @param percentile percentage, 0 to 100
+	 * @return value at percentile, within 1%, NaN if there are no observations
+	 */
+	public double getPercentile(double percentile) {
+		return histogram.getPercentile(percentile);
+	}
+
+	/**
+	 * Write the distribution.
+	 *
+	 * @param out where to write
+	 * @throws IOException if writing fails
+	 */
+	public void write(DataOutput out) throws IOException {
+		out.writeLong(moments.getCount());
+		out.writeDouble(moments.getMean());
+		out.writeDouble(moments.getM2());
+		out.writeDouble(moments.getMin());
+		out.writeDouble(moments.getMax());
+		histogram.write(out);
+	}
+
+	/**
+	 * Read a distribution written by {@link #write(DataOutput)}.
+	 *
+	 * @param in where to read
+	 * @return distribution read
+	 * @throws IOException if reading fails
+	 */
+	public static Distribution read(DataInput in) throws IOException {
+		SummaryStatistic moments = new SummaryStatistic();
+		long count = in.readLong();
+		double mean = in.readDouble();
+		double m2 = in.readDouble();
+		double min = in.readDouble();
+		double max = in.readDouble();
+		if (count > 0) {
+			moments.restore(count, mean, m2, min, max);
+		}
+		return new Distribution(moments, Histogram.read(in));
+	}
+
+	@Override
+	public String toString() {
+		return String.format("mean %.4f, sd %.4f, p50 %.4f, p95 %.4f, p99 %.4f, max %.4f (n=%d)", getMean(),
+				getStandardDeviation(), getPercentile(50), getPercentile(95), getPercentile(99), getMax(),
+				getCount());
+	}
+}
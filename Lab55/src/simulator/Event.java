@@ -11,12 +11,35 @@ package simulator;
  */
 public abstract class Event {
 
+	/**
+	 * User id of events that are not performed by a numbered user.
+	 */
+	public static final int NO_USER = -1;
+
 	protected double executeTime;
 	protected SimState state;
 	protected String eventDescription;
 	protected String eventUserDescription;
+	/**
+	 * Number of the user who performed the event, for users that are only a
+	 * number, so no description has to be made for every event.
+	 */
+	protected int eventUserId = NO_USER;
 	protected EventQueue eventQueue;
-	
+
+	/**
+	 * Pool this event is returned to after it has been dispatched, or null if
+	 * the event is not pooled.
+	 */
+	EventPool<?> pool;
+	boolean released;
+
+	/**
+	 * Slot in the handle table and current sequence number of this event, used
+	 * by queues that drop cancelled events lazily. -1 when not in such a queue.
+	 */
+	int queueSlot = -1;
+	long queueSequence = -1;
 	
 	public Event(SimState state) {
 		this.state = state;
@@ -29,6 +52,7 @@ public abstract class Event {
 	 * @return time for event to execute
 	 */
 	public double getExTime() {
+		checkNotReleased();
 		return executeTime;
 	}
 	
@@ -38,22 +62,59 @@ public abstract class Event {
 	 * @return event description
 	 */
 	public String getEventDescription() {
+		checkNotReleased();
 		return eventDescription;
 	}
 	
 	public String getEventUserDescription() {
+		checkNotReleased();
 		return eventUserDescription;
 	}
 
+	/**
+	 * Get the number of the user who performed the event.
+	 * 
+	 * @return user id, or {@link #NO_USER} if the event has a user description
+	 *         or no user
+	 */
+	public int getEventUserId() {
+		checkNotReleased();
+		return eventUserId;
+	}
+
 	/**
 	 * Adds an event to the event queue for the specific state.
 	 * 
 	 * @param event adds this to the event queue
+	 * @return handle of the scheduled event, see {@link EventQueue#cancel(long)}
 	 */
-	public void addEventToQueue(Event event) {
-		this.eventQueue.addEvent(event);
+	public long addEventToQueue(Event event) {
+		checkNotReleased();
+		event.checkNotReleased();
+		return this.eventQueue.schedule(event);
+	}
+
+	/**
+	 * Return this event to its pool once it has been dispatched. Does nothing
+	 * for events that are not pooled.
+	 */
+	public final void release() {
+		if (pool != null) {
+			pool.release(this);
+		}
+	}
+
+	/**
+	 * In {@link EventPool} debug mode, fail if this event is used after it has
+	 * been released.
+	 * 
+	 * @throws IllegalStateException if the event has been released
+	 */
+	protected final void checkNotReleased() {
+		if (EventPool.DEBUG && released) {
+			throw new IllegalStateException("Use of released event: " + getClass().getSimpleName());
+		}
 	}
-	
 
 	/**
 	 * Abstract method which is designed for each event.
@@ -0,0 +1,141 @@
+package simulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Delivers the record of every executed event to the listeners of a
+ * simulation. Every listener can have its own filter, and can have records
+ * delivered in batches instead of one at a time.
+ *
+ * A state should only build records when {@link #hasListeners()} is true, so
+ * a simulation without listeners does no work at all for them.
+ *
+ * @param <R> type of record
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public class EventBus<R> {
+	private static final Predicate<Object> ALL = record -> true;
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private Subscription<R>[] subscriptions = new Subscription[0];
+	private boolean ended;
+
+	/**
+	 * Subscribe to every record, one at a time.
+	 *
+	 * @param listener listener to add
+	 */
+	public void subscribe(SimListener<? super R> listener) {
+		subscribe(listener, ALL, 1);
+	}
+
+	/**
+	 * Subscribe to the records that pass a filter, delivered in batches.
+	 *
+	 * @param listener  listener to add
+	 * @param filter    records to deliver
+	 * @param batchSize number of records per batch, the last batch may be
+	 *                  smaller
+	 */
+	public void subscribe(SimListener<? super R> listener, Predicate<? super R> filter, int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+		}
+		subscriptions = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+		subscriptions[subscriptions.length - 1] = new Subscription<>(listener, filter, batchSize);
+	}
+
+	/**
+	 * Determine if anyone listens, and records need to be published at all.
+	 *
+	 * @return true if there are listeners, otherwise false
+	 */
+	public boolean hasListeners() {
+		return subscriptions.length > 0;
+	}
+
+	/**
+	 * Publish the record of an executed event.
+	 *
+	 * @param record record to publish
+	 */
+	public void publish(R record) {
+		for (Subscription<R> subscription : subscriptions) {
+			subscription.add(record);
+		}
+	}
+
+	/**
+	 * Deliver all batches that are not full yet.
+	 */
+	public void flush() {
+		for (Subscription<R> subscription : subscriptions) {
+			subscription.deliver();
+		}
+	}
+
+	/**
+	 * Deliver the remaining records and tell all listeners that the simulation
+	 * has ended. Only the first call has any effect.
+	 */
+	public void end() {
+		if (ended) {
+			return;
+		}
+		ended = true;
+		flush();
+		for (Subscription<R> subscription : subscriptions) {
+			subscription.listener.onEnd();
+		}
+	}
+
+	private static final class Subscription<R> {
+		private final SimListener<? super R> listener;
+		private final Predicate<? super R> filter;
+		private final int batchSize;
+		private final List<R> batch;
+
+		Subscription(SimListener<? super R> listener, Predicate<? super R> filter, int batchSize) {
+			this.listener = listener;
+			this.filter = filter;
+			this.batchSize = batchSize;
+			this.batch = new ArrayList<>(Math.min(batchSize, 1024));
+		}
+
+		void add(R record) {
+			if (filter.test(record)) {
+				batch.add(record);
+				if (batch.size() >= batchSize) {
+					deliver();
+				}
+			}
+		}
+
+		void deliver() {
+			if (batch.isEmpty()) {
+				return;
+			}
+			if (DispatchProfile.ENABLED) {
+				DispatchProfile.Notify notify = new DispatchProfile.Notify();
+				notify.begin();
+				listener.onRecords(batch);
+				notify.end();
+				if (notify.shouldCommit()) {
+					notify.listenerClass = listener.getClass();
+					notify.records = batch.size();
+					notify.commit();
+				}
+			} else {
+				listener.onRecords(batch);
+			}
+			batch.clear();
+		}
+	}
+}
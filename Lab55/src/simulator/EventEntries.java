@@ -0,0 +1,213 @@
+package simulator;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of queue entries stored as parallel arrays. Each entry is an
+ * event together with its execute time and insertion sequence number, the
+ * pair {@code (time, sequence)} is unique and defines the dequeue order.
+ *
+ * Entries are read and removed from the front, so the list keeps a head index
+ * instead of shifting the arrays on every removal.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+final class EventEntries {
+	private static final int DEFAULT_CAPACITY = 4;
+	private static final int INSERTION_SORT_THRESHOLD = 16;
+
+	private double[] times;
+	private long[] sequences;
+	private Event[] events;
+	private int head;
+	private int tail;
+
+	EventEntries() {
+		this.times = new double[DEFAULT_CAPACITY];
+		this.sequences = new long[DEFAULT_CAPACITY];
+		this.events = new Event[DEFAULT_CAPACITY];
+	}
+
+	int size() {
+		return tail - head;
+	}
+
+	boolean isEmpty() {
+		return tail == head;
+	}
+
+	double time(int i) {
+		return times[head + i];
+	}
+
+	long sequence(int i) {
+		return sequences[head + i];
+	}
+
+	Event event(int i) {
+		return events[head + i];
+	}
+
+	double firstTime() {
+		return times[head];
+	}
+
+	long firstSequence() {
+		return sequences[head];
+	}
+
+	Event firstEvent() {
+		return events[head];
+	}
+
+	/**
+	 * Append an entry to the end of the list.
+	 */
+	void add(double time, long sequence, Event event) {
+		ensureRoomAtTail();
+		times[tail] = time;
+		sequences[tail] = sequence;
+		events[tail] = event;
+		tail++;
+	}
+
+	/**
+	 * Insert an entry keeping the list sorted, assuming it already is.
+	 */
+	void insertSorted(double time, long sequence, Event event) {
+		ensureRoomAtTail();
+		int low = head;
+		int high = tail;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (less(times[mid], sequences[mid], time, sequence)) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		int moved = tail - low;
+		if (moved > 0) {
+			System.arraycopy(times, low, times, low + 1, moved);
+			System.arraycopy(sequences, low, sequences, low + 1, moved);
+			System.arraycopy(events, low, events, low + 1, moved);
+		}
+		times[low] = time;
+		sequences[low] = sequence;
+		events[low] = event;
+		tail++;
+	}
+
+	void removeFirst() {
+		events[head] = null;
+		head++;
+		if (head == tail) {
+			head = 0;
+			tail = 0;
+		}
+	}
+
+	/**
+	 * Move all entries of this list to the end of another list.
+	 */
+	void transferTo(EventEntries other) {
+		for (int i = head; i < tail; i++) {
+			other.add(times[i], sequences[i], events[i]);
+		}
+		clear();
+	}
+
+	void clear() {
+		Arrays.fill(events, head, tail, null);
+		head = 0;
+		tail = 0;
+	}
+
+	/**
+	 * Sort the entries by time and sequence number. Keys are unique, so the
+	 * result does not depend on the sorting algorithm being stable.
+	 */
+	void sort() {
+		sort(head, tail - 1);
+	}
+
+	static boolean less(double timeA, long sequenceA, double timeB, long sequenceB) {
+		return timeA < timeB || (timeA == timeB && sequenceA < sequenceB);
+	}
+
+	private void sort(int low, int high) {
+		while (high - low >= INSERTION_SORT_THRESHOLD) {
+			int mid = (low + high) >>> 1;
+			double pivotTime = times[mid];
+			long pivotSequence = sequences[mid];
+			int i = low;
+			int j = high;
+			while (i <= j) {
+				while (less(times[i], sequences[i], pivotTime, pivotSequence)) {
+					i++;
+				}
+				while (less(pivotTime, pivotSequence, times[j], sequences[j])) {
+					j--;
+				}
+				if (i <= j) {
+					swap(i++, j--);
+				}
+			}
+			// Recurse into the smaller half to bound the stack depth.
+			if (j - low < high - i) {
+				sort(low, j);
+				low = i;
+			} else {
+				sort(i, high);
+				high = j;
+			}
+		}
+		for (int i = low + 1; i <= high; i++) {
+			for (int j = i; j > low && less(times[j], sequences[j], times[j - 1], sequences[j - 1]); j--) {
+				swap(j, j - 1);
+			}
+		}
+	}
+
+	private void swap(int a, int b) {
+		double time = times[a];
+		times[a] = times[b];
+		times[b] = time;
+		long sequence = sequences[a];
+		sequences[a] = sequences[b];
+		sequences[b] = sequence;
+		Event event = events[a];
+		events[a] = events[b];
+		events[b] = event;
+	}
+
+	private void ensureRoomAtTail() {
+		if (tail < times.length) {
+			return;
+		}
+		int size = size();
+		if (head > 0 && size < times.length / 2) {
+			// Plenty of room at the front, compact instead of growing.
+			System.arraycopy(times, head, times, 0, size);
+			System.arraycopy(sequences, head, sequences, 0, size);
+			System.arraycopy(events, head, events, 0, size);
+			Arrays.fill(events, size, tail, null);
+		} else {
+			int capacity = Math.max(DEFAULT_CAPACITY, times.length * 2);
+			double[] newTimes = new double[capacity];
+			long[] newSequences = new long[capacity];
+			Event[] newEvents = new Event[capacity];
+			System.arraycopy(times, head, newTimes, 0, size);
+			System.arraycopy(sequences, head, newSequences, 0, size);
+			System.arraycopy(events, head, newEvents, 0, size);
+			times = newTimes;
+			sequences = newSequences;
+			events = newEvents;
+		}
+		head = 0;
+		tail = size;
+	}
+}
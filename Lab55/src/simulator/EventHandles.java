@@ -0,0 +1,93 @@
+package simulator;
+
+import java.util.Arrays;
+
+/**
+ * Table of the events currently in a queue, used to turn the handles returned
+ * by {@link EventQueue#schedule(Event)} back into events.
+ *
+ * A handle combines a slot in the table with the generation of that slot.
+ * Slots are reused, but every reuse bumps the generation, so a handle of an
+ * event that has left the queue never finds a different event.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+final class EventHandles {
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private Event[] events;
+	private int[] generations;
+	private int[] freeSlots;
+	private int freeCount;
+	private int slotCount;
+
+	EventHandles() {
+		this.events = new Event[DEFAULT_CAPACITY];
+		this.generations = new int[DEFAULT_CAPACITY];
+		this.freeSlots = new int[DEFAULT_CAPACITY];
+	}
+
+	/**
+	 * Add an event to the table.
+	 *
+	 * @return handle of event
+	 */
+	long register(Event event) {
+		int slot;
+		if (freeCount > 0) {
+			slot = freeSlots[--freeCount];
+		} else {
+			if (slotCount == events.length) {
+				events = Arrays.copyOf(events, slotCount * 2);
+				generations = Arrays.copyOf(generations, slotCount * 2);
+			}
+			slot = slotCount++;
+		}
+		events[slot] = event;
+		event.queueSlot = slot;
+		return encode(slot, ++generations[slot]);
+	}
+
+	/**
+	 * Find the event of a handle.
+	 *
+	 * @return event, or null if the handle is not valid any more
+	 */
+	Event lookup(long handle) {
+		int slot = slot(handle);
+		if (slot < 0 || slot >= slotCount || generations[slot] != generation(handle)) {
+			return null;
+		}
+		return events[slot];
+	}
+
+	/**
+	 * Remove an event from the table. Queue entries of the event are no longer
+	 * current after this.
+	 */
+	void unregister(Event event) {
+		int slot = event.queueSlot;
+		events[slot] = null;
+		if (freeCount == freeSlots.length) {
+			freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+		}
+		freeSlots[freeCount++] = slot;
+		event.queueSlot = -1;
+		event.queueSequence = -1;
+	}
+
+	static long encode(int slot, int generation) {
+		return ((long) generation << 32) | (slot & 0xFFFFFFFFL);
+	}
+
+	static int slot(long handle) {
+		return (int) handle;
+	}
+
+	static int generation(long handle) {
+		return (int) (handle >>> 32);
+	}
+}
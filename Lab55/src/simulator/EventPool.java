@@ -0,0 +1,91 @@
+package simulator;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Pool of reusable events of one type. Events are acquired from the pool,
+ * re-initialized by the caller and handed back with {@link Event#release()}
+ * once the {@link Simulator} has dispatched them, so a long simulation does
+ * not allocate new events for every customer.
+ *
+ * Debug mode is enabled with the system property
+ * {@code -Dsimulator.eventpool.debug=true}. Released events are then never
+ * handed out again, and any use of a released event throws an
+ * {@link IllegalStateException}.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ *
+ * @param <E> Event type in pool
+ */
+public class EventPool<E extends Event> {
+	static final boolean DEBUG = Boolean.getBoolean("simulator.eventpool.debug");
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private final Supplier<? extends E> factory;
+	private Event[] free;
+	private int freeCount;
+
+	/**
+	 * Create a new, empty pool.
+	 *
+	 * @param factory creates a new event when the pool is empty
+	 */
+	public EventPool(Supplier<? extends E> factory) {
+		this.factory = factory;
+		this.free = new Event[DEFAULT_CAPACITY];
+	}
+
+	/**
+	 * Get an event from the pool, or create a new one if the pool is empty. The
+	 * event must be re-initialized before it is used.
+	 *
+	 * @return event ready to be re-initialized
+	 */
+	@SuppressWarnings("unchecked")
+	public E acquire() {
+		E event;
+		if (freeCount > 0) {
+			event = (E) free[--freeCount];
+			free[freeCount] = null;
+		} else {
+			event = factory.get();
+			event.pool = this;
+		}
+		event.released = false;
+		return event;
+	}
+
+	/**
+	 * Get the number of events waiting to be reused.
+	 *
+	 * @return number of free events in pool
+	 */
+	public int getFreeCount() {
+		return freeCount;
+	}
+
+	/**
+	 * Return an event to the pool.
+	 *
+	 * @param event event acquired from this pool
+	 * @throws IllegalStateException if the event already has been released
+	 */
+	void release(Event event) {
+		if (event.released) {
+			throw new IllegalStateException("Event released twice: " + event.getClass().getSimpleName());
+		}
+		event.released = true;
+		if (DEBUG) {
+			// Keep released events out of circulation so stale references fail.
+			return;
+		}
+		if (freeCount == free.length) {
+			free = Arrays.copyOf(free, freeCount * 2);
+		}
+		free[freeCount++] = event;
+	}
+}
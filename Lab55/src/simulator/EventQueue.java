@@ -7,122 +7,99 @@
 
 package simulator;
 
-import java.util.ArrayList;
-
-import javax.management.RuntimeErrorException;
-
-
-
-
 /**
+ * Queue of pending events. Every implementation orders events by
+ * {@link Event#getExTime()} and, for equal times, by the order in which they
+ * were added, so all strategies dequeue the same sequence of events.
+ *
+ * Scheduled events can be cancelled or moved to a new time through the handle
+ * returned by {@link #schedule(Event)}. A rescheduled event is ordered after
+ * events already scheduled at its new time.
+ *
  * @author Nour Aldein Bahtite
  * @author Philip Eriksson
  * @author Rickard Bemm
  * @author André Christofferson
+ * @see EventQueueStrategy
  */
-public class EventQueue {
-	private ArrayList<Event> eventQueue;
-	protected SimState state;
+public interface EventQueue {
 
 	/**
-	 * Create a new instance of EventQueue
-	 * @param state
+	 * Handle that never refers to a scheduled event.
 	 */
-	public EventQueue() {
-		this.eventQueue = new ArrayList<Event>();
-	}
-	
-	public boolean getEventQueueIsEmpty() {
-		return eventQueue.size() == 0;
-	}
+	long NO_HANDLE = -1;
+
+	/**
+	 * Determine if the queue does not contain any events.
+	 *
+	 * @return true if queue is empty, otherwise false
+	 */
+	boolean getEventQueueIsEmpty();
 
 	/**
 	 * Adds an event to the event queue
-	 * 
+	 *
 	 * @param event
 	 */
-	public void addEvent(Event event) {
-		eventQueue.add(event);
-	}
-	
-	public void removeEvent() {
-		eventQueue.remove(0);
+	default void addEvent(Event event) {
+		schedule(event);
 	}
 
 	/**
-	 * 
-	 * @return the event first in line.
+	 * Adds an event to the event queue
+	 *
+	 * @param event
+	 * @return handle of scheduled event, valid until the event leaves the queue
 	 */
-	public Event getEvent() {
-		if (eventQueue.size() == 0) {
-			throw new RuntimeException("Queue is empty");
-		}
-		// Sorts the current array via it's getExTime method.
-		eventQueue = sortEvent(eventQueue);
-		return eventQueue.get(0);
-	}
-	public int getQueueSize() {
-		return eventQueue.size();
-	}
+	long schedule(Event event);
 
-	private static ArrayList<Event> sortEvent(ArrayList<Event> list) {
-		if (list.size() == 1) {
-			return list;
-		}
-		int midPoint = list.size() / 2;
-		int startIndex = 0;
+	/**
+	 * Cancel a scheduled event. The event is removed from the queue without
+	 * being run and is released, see {@link Event#release()}.
+	 *
+	 * @param handle handle of event
+	 * @return true if the event was cancelled, false if it already had left the
+	 *         queue
+	 */
+	boolean cancel(long handle);
 
-		ArrayList<Event> tempLeft = new ArrayList<Event>();
-		ArrayList<Event> tempRight = new ArrayList<Event>();
+	/**
+	 * Move a scheduled event to a new time.
+	 *
+	 * @param handle  handle of event
+	 * @param newTime new execute time of event
+	 * @return true if the event was moved, false if it already had left the
+	 *         queue
+	 */
+	boolean reschedule(long handle, double newTime);
 
-		while (startIndex < midPoint) {
-			tempLeft.add(list.get(startIndex));
-			startIndex++;
-		}
-		while (midPoint < list.size()) {
-			tempRight.add(list.get(midPoint));
-			midPoint++;
-		}
-		/// Blir lite dumt med namnen här men va fan, kommer på nå
-		/// bättre ngn dag.
-		tempLeft = sortEvent(tempLeft);
-		tempRight = sortEvent(tempRight);
+	/**
+	 * Removes the event first in line.
+	 */
+	void removeEvent();
 
-		return merge(tempLeft, tempRight);
+	/**
+	 *
+	 * @return the event first in line.
+	 */
+	Event getEvent();
 
+	/**
+	 * Removes and returns the event first in line.
+	 *
+	 * @return the event first in line.
+	 */
+	default Event pollEvent() {
+		Event event = getEvent();
+		removeEvent();
+		return event;
 	}
 
-	private static ArrayList<Event> merge(ArrayList<Event> left, ArrayList<Event> right) {
-
-		ArrayList<Event> resultingList = new ArrayList<Event>();
-
-		int leftPointer, rightPointer;
-		leftPointer = rightPointer = 0;
-
-		while (leftPointer < left.size() || rightPointer < right.size()) {
-			if (leftPointer < left.size() && rightPointer < right.size()) {
-				if (left.get(leftPointer).getExTime() <= right.get(rightPointer).getExTime()) {
-					resultingList.add(left.get(leftPointer));
-					leftPointer++;
-				} else {
-					resultingList.add(right.get(rightPointer));
-					rightPointer++;
-				}
-			}
-			/// Getting events from the original array if there are any left.
-			else if (leftPointer < left.size()) {
-				resultingList.add(left.get(leftPointer));
-				leftPointer++;
-			} else if (rightPointer < right.size()) {
-				resultingList.add(right.get(rightPointer));
-				rightPointer++;
-
-			}
-
-		}
-
-		return resultingList;
-
-	}
+	/**
+	 * Get the number of pending events.
+	 *
+	 * @return number of events in queue
+	 */
+	int getQueueSize();
 
 }
@@ -0,0 +1,53 @@
+package simulator;
+
+/**
+ * The available {@link EventQueue} implementations. All strategies dequeue
+ * events in exactly the same order, they only differ in how they scale.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public enum EventQueueStrategy {
+
+	/**
+	 * Binary heap, O(log n) per operation. Good default for small and medium
+	 * sized queues.
+	 */
+	HEAP {
+		@Override
+		public EventQueue create() {
+			return new HeapEventQueue();
+		}
+	},
+
+	/**
+	 * Brown's calendar queue, amortized O(1) hold time when event times are
+	 * reasonably evenly spread.
+	 */
+	CALENDAR {
+		@Override
+		public EventQueue create() {
+			return new CalendarEventQueue();
+		}
+	},
+
+	/**
+	 * Ladder queue, amortized O(1) hold time that is robust against skewed
+	 * event time distributions.
+	 */
+	LADDER {
+		@Override
+		public EventQueue create() {
+			return new LadderEventQueue();
+		}
+	};
+
+	/**
+	 * Create a new, empty event queue of this strategy.
+	 *
+	 * @return new event queue
+	 */
+	public abstract EventQueue create();
+}
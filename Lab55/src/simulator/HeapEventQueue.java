@@ -0,0 +1,140 @@
+/**
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+
+package simulator;
+
+import java.util.Arrays;
+
+/**
+ * Priority queue of pending events, implemented as an indexed binary
+ * min-heap. Events are ordered by {@link Event#getExTime()} and, for equal
+ * times, by the order in which they were added, so the queue is deterministic
+ * and events scheduled at the same time are executed first-in-first-out.
+ *
+ * Every event knows its position in the heap, so scheduled events can be
+ * cancelled or rescheduled in O(log n).
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public class HeapEventQueue implements EventQueue {
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private final IndexedHeap heap;
+	// Columns indexed by heap row.
+	private Event[] events;
+	private int[] generations;
+
+	/**
+	 * Create a new instance of HeapEventQueue
+	 */
+	public HeapEventQueue() {
+		this.heap = new IndexedHeap();
+		this.events = new Event[DEFAULT_CAPACITY];
+		this.generations = new int[DEFAULT_CAPACITY];
+	}
+
+	@Override
+	public boolean getEventQueueIsEmpty() {
+		return heap.isEmpty();
+	}
+
+	/**
+	 * Adds an event to the event queue in O(log n).
+	 *
+	 * @param event
+	 * @return handle of scheduled event
+	 */
+	@Override
+	public long schedule(Event event) {
+		int row = heap.insert(event.getExTime());
+		if (row >= events.length) {
+			events = Arrays.copyOf(events, row * 2);
+			generations = Arrays.copyOf(generations, row * 2);
+		}
+		events[row] = event;
+		return EventHandles.encode(row, ++generations[row]);
+	}
+
+	/**
+	 * Removes the event first in line in O(log n).
+	 */
+	@Override
+	public void removeEvent() {
+		int row = heap.first();
+		heap.remove(row);
+		events[row] = null;
+	}
+
+	/**
+	 *
+	 * @return the event first in line.
+	 */
+	@Override
+	public Event getEvent() {
+		return events[heap.first()];
+	}
+
+	/**
+	 * Removes and returns the event first in line in O(log n).
+	 */
+	@Override
+	public Event pollEvent() {
+		int row = heap.first();
+		Event event = events[row];
+		heap.remove(row);
+		events[row] = null;
+		return event;
+	}
+
+	@Override
+	public int getQueueSize() {
+		return heap.size();
+	}
+
+	/**
+	 * Cancels a scheduled event in O(log n).
+	 */
+	@Override
+	public boolean cancel(long handle) {
+		int row = find(handle);
+		if (row < 0) {
+			return false;
+		}
+		Event event = events[row];
+		heap.remove(row);
+		events[row] = null;
+		event.release();
+		return true;
+	}
+
+	/**
+	 * Moves a scheduled event to a new time in O(log n).
+	 */
+	@Override
+	public boolean reschedule(long handle, double newTime) {
+		int row = find(handle);
+		if (row < 0) {
+			return false;
+		}
+		events[row].executeTime = newTime;
+		heap.update(row, newTime);
+		return true;
+	}
+
+	private int find(long handle) {
+		int row = EventHandles.slot(handle);
+		if (row < 0 || row >= events.length || events[row] == null
+				|| generations[row] != EventHandles.generation(handle)) {
+			return -1;
+		}
+		return row;
+	}
+
+}
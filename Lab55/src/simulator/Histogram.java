@@ -0,0 +1,198 @@
+package simulator;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Histogram of non-negative values with buckets whose width grows with the
+ * values, so every value is known to within a fixed relative error no matter
+ * how large it is, in the style of HdrHistogram.
+ *
+ * Values are counted in multiples of a unit. Counts below
+ * {@code 2^precisionBits} units get a bucket each. Above that, every power of
+ * two range is split into {@code 2^(precisionBits - 1)} buckets of equal
+ * width, so a bucket is at most a {@code 2^-(precisionBits - 1)} fraction of
+ * the values in it wide. Memory is fixed and nothing is allocated per value.
+ * Histograms with the same unit and precision merge by adding their counts.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public final class Histogram {
+
+	private final double unit;
+	private final int precisionBits;
+	private final int halfSubBuckets;
+	private final long[] counts;
+	private long count;
+	private double min = Double.POSITIVE_INFINITY;
+	private double max = Double.NEGATIVE_INFINITY;
+
+	/**
+	 * Create an empty histogram.
+	 *
+	 * @param unit          smallest difference between values that is told
+	 *                      apart
+	 * @param precisionBits bits of precision, 1 to 16, 7 gives buckets at most
+	 *                      1/64 of their values wide
+	 */
+	public Histogram(double unit, int precisionBits) {
+		if (!(unit > 0) || Double.isInfinite(unit)) {
+			throw new IllegalArgumentException("Unit must be positive: " + unit);
+		}
+		if (precisionBits < 1 || precisionBits > 16) {
+			throw new IllegalArgumentException("Precision out of range: " + precisionBits);
+		}
+		this.unit = unit;
+		this.precisionBits = precisionBits;
+		this.halfSubBuckets = 1 << (precisionBits - 1);
+		this.counts = new long[index(Long.MAX_VALUE) + 1];
+	}
+
+	/**
+	 * Add a value.
+	 *
+	 * @param value value to add, not negative
+	 */
+	public void add(double value) {
+		if (!(value >= 0)) {
+			throw new IllegalArgumentException("Value must not be negative: " + value);
+		}
+		// Saturates at Long.MAX_VALUE for values too large to count in units.
+		counts[index((long) (value / unit))]++;
+		count++;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+
+	/**
+	 * Add all values of another histogram to this one.
+	 *
+	 * @param other histogram with the same unit and precision, left unchanged
+	 */
+	public void merge(Histogram other) {
+		if (other.unit != unit || other.precisionBits != precisionBits) {
+			throw new IllegalArgumentException("Histograms have different units or precision");
+		}
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] += other.counts[i];
+		}
+		count += other.count;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public double getMin() {
+		return count > 0 ? min : Double.NaN;
+	}
+
+	public double getMax() {
+		return count > 0 ? max : Double.NaN;
+	}
+
+	/**
+	 * Get the value below which a percentage of the values lie, as the middle of
+	 * the bucket it falls in, kept within the smallest and largest value added.
+	 *
+	 * @param percentile percentage, 0 to 100
+	 * @return value at percentile, NaN if the histogram is empty
+	 */
+	public double getPercentile(double percentile) {
+		if (!(percentile >= 0 && percentile <= 100)) {
+			throw new IllegalArgumentException("Percentile out of range: " + percentile);
+		}
+		if (count == 0) {
+			return Double.NaN;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+		int i = 0;
+		while (seen + counts[i] < rank) {
+			seen += counts[i++];
+		}
+		double middle = (lowest(i) + (lowest(i + 1) - lowest(i)) / 2.0) * unit;
+		return Math.max(min, Math.min(max, middle));
+	}
+
+	/**
+	 * Write the histogram, leaving out empty buckets.
+	 *
+	 * @param out where to write
+	 * @throws IOException if writing fails
+	 */
+	public void write(DataOutput out) throws IOException {
+		out.writeDouble(unit);
+		out.writeByte(precisionBits);
+		out.writeDouble(min);
+		out.writeDouble(max);
+		int used = 0;
+		for (long c : counts) {
+			if (c != 0) {
+				used++;
+			}
+		}
+		out.writeInt(used);
+		for (int i = 0; i < counts.length; i++) {
+			if (counts[i] != 0) {
+				out.writeInt(i);
+				out.writeLong(counts[i]);
+			}
+		}
+	}
+
+	/**
+	 * Read a histogram written by {@link #write(DataOutput)}.
+	 *
+	 * @param in where to read
+	 * @return histogram read
+	 * @throws IOException if reading fails or the histogram is malformed
+	 */
+	public static Histogram read(DataInput in) throws IOException {
+		Histogram histogram;
+		try {
+			histogram = new Histogram(in.readDouble(), in.readByte());
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Malformed histogram", e);
+		}
+		histogram.min = in.readDouble();
+		histogram.max = in.readDouble();
+		int used = in.readInt();
+		for (int j = 0; j < used; j++) {
+			int i = in.readInt();
+			long c = in.readLong();
+			if (i < 0 || i >= histogram.counts.length || c < 0) {
+				throw new IOException("Malformed histogram bucket " + i);
+			}
+			histogram.counts[i] = c;
+			histogram.count += c;
+		}
+		return histogram;
+	}
+
+	/**
+	 * Get the bucket of a value in units. The top bit of the value, or of the
+	 * first bucket if it is below it, picks the power of two range and the next
+	 * {@code precisionBits - 1} bits the bucket within the range.
+	 */
+	private int index(long units) {
+		int top = 63 - Long.numberOfLeadingZeros(units | (2 * halfSubBuckets - 1));
+		int shift = top - (precisionBits - 1);
+		return shift * halfSubBuckets + (int) (units >>> shift);
+	}
+
+	/**
+	 * Get the smallest value in units that falls in a bucket, the inverse of
+	 * {@link #index(long)}.
+	 */
+	private double lowest(int index) {
+		int shift = Math.max(0, index / halfSubBuckets - 1);
+		return Math.scalb((double) (index - shift * halfSubBuckets), shift);
+	}
+}
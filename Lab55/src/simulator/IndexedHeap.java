@@ -0,0 +1,222 @@
+package simulator;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap over integer row ids, ordered by a time and, for equal
+ * times, by the order in which rows were inserted or last updated. Each row
+ * knows its position in the heap, so any row can be removed or moved to a new
+ * time in O(log n) and nothing is allocated once the arrays have grown to
+ * their working size.
+ *
+ * The heap only stores keys, callers keep whatever the rows represent in
+ * their own arrays indexed by row id. Row ids of removed rows are reused.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public final class IndexedHeap {
+	private static final int DEFAULT_CAPACITY = 16;
+	private static final int NOT_IN_HEAP = -1;
+
+	// Heap of row ids.
+	private int[] heap;
+	private int size;
+
+	// Columns indexed by row id.
+	private double[] times;
+	private long[] sequences;
+	private int[] positions;
+
+	// Unused row ids, as a stack.
+	private int[] freeRows;
+	private int freeCount;
+	private int rowCount;
+
+	private long nextSequence;
+
+	/**
+	 * Create a new, empty heap.
+	 */
+	public IndexedHeap() {
+		this.heap = new int[DEFAULT_CAPACITY];
+		this.times = new double[DEFAULT_CAPACITY];
+		this.sequences = new long[DEFAULT_CAPACITY];
+		this.positions = new int[DEFAULT_CAPACITY];
+		this.freeRows = new int[DEFAULT_CAPACITY];
+	}
+
+	/**
+	 * Get number of rows in heap.
+	 *
+	 * @return size of heap where 0 is empty
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Determine if heap is empty.
+	 *
+	 * @return true if heap is empty, otherwise false
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Get the number of row ids handed out so far. Every row id is smaller than
+	 * this, so callers can size their own columns by it.
+	 *
+	 * @return upper bound for row ids
+	 */
+	public int rowCapacity() {
+		return rowCount;
+	}
+
+	/**
+	 * Insert a new row.
+	 *
+	 * @param time key of new row
+	 * @return row id of new row
+	 */
+	public int insert(double time) {
+		int row;
+		if (freeCount > 0) {
+			row = freeRows[--freeCount];
+		} else {
+			if (rowCount == times.length) {
+				int capacity = rowCount * 2;
+				times = Arrays.copyOf(times, capacity);
+				sequences = Arrays.copyOf(sequences, capacity);
+				positions = Arrays.copyOf(positions, capacity);
+				heap = Arrays.copyOf(heap, capacity);
+			}
+			row = rowCount++;
+		}
+		times[row] = time;
+		sequences[row] = nextSequence++;
+		siftUp(size++, row);
+		return row;
+	}
+
+	/**
+	 * Get the first row, the one with the smallest time.
+	 *
+	 * @return row id of first row
+	 * @throws RuntimeException if the heap is empty
+	 */
+	public int first() {
+		if (size == 0) {
+			throw new RuntimeException("Queue is empty");
+		}
+		return heap[0];
+	}
+
+	/**
+	 * Get key of a row.
+	 *
+	 * @param row row id
+	 * @return time of row
+	 */
+	public double time(int row) {
+		return times[row];
+	}
+
+	/**
+	 * Determine if a row id currently is in use.
+	 *
+	 * @param row row id
+	 * @return true if row is in heap, otherwise false
+	 */
+	public boolean contains(int row) {
+		return row >= 0 && row < rowCount && positions[row] != NOT_IN_HEAP;
+	}
+
+	/**
+	 * Remove a row. Its row id may be reused by the next insert.
+	 *
+	 * @param row row id of row in heap
+	 */
+	public void remove(int row) {
+		int position = positions[row];
+		positions[row] = NOT_IN_HEAP;
+		if (freeCount == freeRows.length) {
+			freeRows = Arrays.copyOf(freeRows, freeCount * 2);
+		}
+		freeRows[freeCount++] = row;
+
+		int last = heap[--size];
+		if (position == size) {
+			return;
+		}
+		// Put the last row in the hole and restore the heap in whichever
+		// direction is needed.
+		if (position > 0 && less(last, heap[(position - 1) >>> 1])) {
+			siftUp(position, last);
+		} else {
+			siftDown(position, last);
+		}
+	}
+
+	/**
+	 * Move a row to a new time. The row is ordered after rows already at that
+	 * time, as if it had been removed and inserted again.
+	 *
+	 * @param row  row id of row in heap
+	 * @param time new key of row
+	 */
+	public void update(int row, double time) {
+		int position = positions[row];
+		times[row] = time;
+		sequences[row] = nextSequence++;
+		if (position > 0 && less(row, heap[(position - 1) >>> 1])) {
+			siftUp(position, row);
+		} else {
+			siftDown(position, row);
+		}
+	}
+
+	private boolean less(int a, int b) {
+		double timeA = times[a];
+		double timeB = times[b];
+		return timeA < timeB || (timeA == timeB && sequences[a] < sequences[b]);
+	}
+
+	private void siftUp(int position, int row) {
+		while (position > 0) {
+			int parent = (position - 1) >>> 1;
+			int parentRow = heap[parent];
+			if (!less(row, parentRow)) {
+				break;
+			}
+			heap[position] = parentRow;
+			positions[parentRow] = position;
+			position = parent;
+		}
+		heap[position] = row;
+		positions[row] = position;
+	}
+
+	private void siftDown(int position, int row) {
+		int half = size >>> 1;
+		while (position < half) {
+			int child = 2 * position + 1;
+			int right = child + 1;
+			if (right < size && less(heap[right], heap[child])) {
+				child = right;
+			}
+			int childRow = heap[child];
+			if (!less(childRow, row)) {
+				break;
+			}
+			heap[position] = childRow;
+			positions[childRow] = position;
+			position = child;
+		}
+		heap[position] = row;
+		positions[row] = position;
+	}
+}
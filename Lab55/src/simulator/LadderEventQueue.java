@@ -0,0 +1,297 @@
+package simulator;
+
+/**
+ * Event queue implemented as a ladder queue (W. T. Tang, R. S. M. Goh and
+ * I. L.-J. Thng, 2005).
+ *
+ * The queue has three tiers. New events far in the future are appended
+ * unsorted to <i>top</i>. When the events closer to the front run out, top is
+ * spread over the buckets of a <i>rung</i>, and a bucket that holds too many
+ * events is in turn spread over a finer rung below it. Only small buckets are
+ * ever sorted, into <i>bottom</i>, which is where events are dequeued from.
+ * Every event is moved a bounded number of times, which gives amortized O(1)
+ * hold time even when event times are unevenly distributed.
+ *
+ * Cancelled and rescheduled events are dropped lazily. Their old entries move
+ * down the ladder like any other and are discarded when they reach the front
+ * of bottom, recognised by no longer carrying the event's current sequence
+ * number.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public class LadderEventQueue implements EventQueue {
+	/**
+	 * Buckets with more events than this are spread over a new rung instead of
+	 * being sorted into bottom.
+	 */
+	private static final int THRESHOLD = 50;
+	private static final int MAX_RUNGS = 8;
+
+	private final EventEntries top;
+	private double topMin;
+	private double topMax;
+	/**
+	 * Events at or after this time go to top.
+	 */
+	private double topStart;
+
+	private final Rung[] rungs;
+	private int rungCount;
+
+	private final EventEntries bottom;
+
+	private final EventHandles handles;
+	private int size;
+	private long nextSequence;
+
+	/**
+	 * Create a new instance of LadderEventQueue
+	 */
+	public LadderEventQueue() {
+		this.handles = new EventHandles();
+		this.top = new EventEntries();
+		this.bottom = new EventEntries();
+		this.rungs = new Rung[MAX_RUNGS];
+		this.topStart = Double.NEGATIVE_INFINITY;
+		resetTopBounds();
+	}
+
+	@Override
+	public boolean getEventQueueIsEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Adds an event to the event queue in amortized O(1).
+	 *
+	 * @param event
+	 * @return handle of scheduled event
+	 */
+	@Override
+	public long schedule(Event event) {
+		long handle = handles.register(event);
+		enqueue(event, event.getExTime());
+		size++;
+		return handle;
+	}
+
+	/**
+	 * Removes the event first in line in amortized O(1).
+	 */
+	@Override
+	public void removeEvent() {
+		pollEvent();
+	}
+
+	/**
+	 * Removes and returns the event first in line in amortized O(1).
+	 */
+	@Override
+	public Event pollEvent() {
+		prepareBottom();
+		Event event = bottom.firstEvent();
+		bottom.removeFirst();
+		size--;
+		handles.unregister(event);
+		return event;
+	}
+
+	/**
+	 * Cancels a scheduled event in O(1).
+	 */
+	@Override
+	public boolean cancel(long handle) {
+		Event event = handles.lookup(handle);
+		if (event == null) {
+			return false;
+		}
+		handles.unregister(event);
+		size--;
+		event.release();
+		return true;
+	}
+
+	/**
+	 * Moves a scheduled event to a new time in amortized O(1).
+	 */
+	@Override
+	public boolean reschedule(long handle, double newTime) {
+		Event event = handles.lookup(handle);
+		if (event == null) {
+			return false;
+		}
+		event.executeTime = newTime;
+		enqueue(event, newTime);
+		return true;
+	}
+
+	/**
+	 *
+	 * @return the event first in line.
+	 */
+	@Override
+	public Event getEvent() {
+		prepareBottom();
+		return bottom.firstEvent();
+	}
+
+	@Override
+	public int getQueueSize() {
+		return size;
+	}
+
+	/**
+	 * Add a new current entry for an event, leaving any earlier entry of it
+	 * behind.
+	 */
+	private void enqueue(Event event, double time) {
+		long sequence = nextSequence++;
+		event.queueSequence = sequence;
+		insert(time, sequence, event);
+	}
+
+	private void insert(double time, long sequence, Event event) {
+		if (time >= topStart) {
+			top.add(time, sequence, event);
+			topMin = Math.min(topMin, time);
+			topMax = Math.max(topMax, time);
+			return;
+		}
+		for (int i = 0; i < rungCount; i++) {
+			Rung rung = rungs[i];
+			if (!rung.isExhausted() && time >= rung.currentStart()) {
+				rung.add(time, sequence, event);
+				return;
+			}
+		}
+		bottom.insertSorted(time, sequence, event);
+	}
+
+	/**
+	 * Make sure the first entry in bottom is the first event in the queue,
+	 * dropping entries that are no longer current.
+	 */
+	private void prepareBottom() {
+		if (size == 0) {
+			throw new RuntimeException("Queue is empty");
+		}
+		while (true) {
+			fillBottom();
+			if (bottom.firstEvent().queueSequence == bottom.firstSequence()) {
+				return;
+			}
+			bottom.removeFirst();
+		}
+	}
+
+	/**
+	 * Make sure bottom holds the first entries in the queue, spreading top and
+	 * rung buckets out as needed.
+	 */
+	private void fillBottom() {
+		while (bottom.isEmpty()) {
+			if (rungCount == 0) {
+				spreadTop();
+				continue;
+			}
+			Rung rung = rungs[rungCount - 1];
+			if (rung.count == 0) {
+				rungCount--;
+				continue;
+			}
+			EventEntries bucket = rung.advanceToNonEmpty();
+			double bucketStart = rung.currentStart();
+			rung.count -= bucket.size();
+			rung.current++;
+			if (bucket.size() > THRESHOLD && rungCount < MAX_RUNGS) {
+				Rung child = new Rung(bucketStart, rung.width / THRESHOLD, THRESHOLD);
+				for (int i = 0; i < bucket.size(); i++) {
+					child.add(bucket.time(i), bucket.sequence(i), bucket.event(i));
+				}
+				bucket.clear();
+				rungs[rungCount++] = child;
+			} else {
+				bucket.transferTo(bottom);
+				bottom.sort();
+			}
+		}
+	}
+
+	/**
+	 * Move the events in top to a new first rung, or directly to bottom when
+	 * they cannot be spread out.
+	 */
+	private void spreadTop() {
+		int count = top.size();
+		if (count == 1 || topMax == topMin) {
+			top.transferTo(bottom);
+			bottom.sort();
+			topStart = topMax;
+		} else {
+			double width = (topMax - topMin) / count;
+			Rung rung = new Rung(topMin, width, count + 1);
+			for (int i = 0; i < count; i++) {
+				rung.add(top.time(i), top.sequence(i), top.event(i));
+			}
+			top.clear();
+			rungs[rungCount++] = rung;
+			topStart = rung.end();
+		}
+		resetTopBounds();
+	}
+
+	private void resetTopBounds() {
+		topMin = Double.POSITIVE_INFINITY;
+		topMax = Double.NEGATIVE_INFINITY;
+	}
+
+	/**
+	 * A rung of equally wide, unsorted buckets.
+	 */
+	private static final class Rung {
+		private final double start;
+		private final double width;
+		private final EventEntries[] buckets;
+		private int current;
+		private int count;
+
+		Rung(double start, double width, int bucketCount) {
+			this.start = start;
+			this.width = width;
+			this.buckets = new EventEntries[bucketCount];
+			for (int i = 0; i < bucketCount; i++) {
+				buckets[i] = new EventEntries();
+			}
+		}
+
+		double currentStart() {
+			return start + current * width;
+		}
+
+		boolean isExhausted() {
+			return current == buckets.length;
+		}
+
+		double end() {
+			return start + buckets.length * width;
+		}
+
+		void add(double time, long sequence, Event event) {
+			int index = (int) ((time - start) / width);
+			// Guard against rounding at the bucket edges.
+			index = Math.max(current, Math.min(buckets.length - 1, index));
+			buckets[index].add(time, sequence, event);
+			count++;
+		}
+
+		EventEntries advanceToNonEmpty() {
+			while (buckets[current].isEmpty()) {
+				current++;
+			}
+			return buckets[current];
+		}
+	}
+}
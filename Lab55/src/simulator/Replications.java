@@ -0,0 +1,164 @@
+package simulator;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntFunction;
+import java.util.function.LongFunction;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Runs independent replications of a simulation on a {@link ForkJoinPool}.
+ *
+ * Every replication builds its own state and event queue from its seed, so
+ * replications share no mutable state and can run on any number of threads.
+ * The results are returned in seed order, so they do not depend on how the
+ * work was scheduled.
+ *
+ * Replications can also be added in batches until a {@link StoppingRule} is
+ * satisfied. The next batch is started before the current one is checked, so
+ * no worker waits on the check, and is cancelled if it turns out not to be
+ * needed.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public final class Replications {
+
+	private Replications() {
+	}
+
+	/**
+	 * Run one replication per seed.
+	 *
+	 * @param pool        pool to run on
+	 * @param seeds       seed of every replication
+	 * @param replication runs a replication with a seed and returns its result
+	 * @param results     array for the results, with the same length as
+	 *                    {@code seeds}
+	 * @return {@code results}
+	 */
+	public static <R> R[] run(ForkJoinPool pool, long[] seeds, LongFunction<? extends R> replication, R[] results) {
+		if (results.length != seeds.length) {
+			throw new IllegalArgumentException("Expected " + seeds.length + " result slots, got " + results.length);
+		}
+		pool.invoke(new Batch<>(null, seeds, replication, results, 0, seeds.length));
+		return results;
+	}
+
+	/**
+	 * Run replications with consecutive seeds, a batch at a time, until
+	 * {@code rule} is satisfied for a measure of the results.
+	 *
+	 * @param pool        pool to run on
+	 * @param firstSeed   seed of first replication
+	 * @param replication runs a replication with a seed and returns its result
+	 * @param measure     measure the rule is checked on
+	 * @param rule        when to stop
+	 * @param array       creates result arrays
+	 * @return results of all completed batches, in seed order
+	 */
+	public static <R> R[] runUntil(ForkJoinPool pool, long firstSeed, LongFunction<? extends R> replication,
+			ToDoubleFunction<? super R> measure, StoppingRule rule, IntFunction<R[]> array) {
+		SummaryStatistic statistic = new SummaryStatistic();
+		R[] results = array.apply(rule.getMaxRuns());
+		int completed = 0;
+
+		Batch<R> current = submit(pool, firstSeed, replication, array, completed, rule);
+		int submitted = size(current);
+		Batch<R> ahead = submit(pool, firstSeed, replication, array, submitted, rule);
+		submitted += size(ahead);
+		while (current != null) {
+			current.join();
+			for (R result : current.results) {
+				statistic.add(measure.applyAsDouble(result));
+			}
+			System.arraycopy(current.results, 0, results, completed, current.results.length);
+			completed += current.results.length;
+
+			if (rule.isSatisfied(statistic)) {
+				if (ahead != null) {
+					ahead.cancel(false);
+				}
+				break;
+			}
+			current = ahead;
+			ahead = submit(pool, firstSeed, replication, array, submitted, rule);
+			submitted += size(ahead);
+		}
+		return Arrays.copyOf(results, completed);
+	}
+
+	/**
+	 * Start the batch following {@code submitted} runs, or return null if the
+	 * cap on runs has been reached.
+	 */
+	private static <R> Batch<R> submit(ForkJoinPool pool, long firstSeed, LongFunction<? extends R> replication,
+			IntFunction<R[]> array, int submitted, StoppingRule rule) {
+		int size = Math.min(rule.getBatchSize(), rule.getMaxRuns() - submitted);
+		if (size == 0) {
+			return null;
+		}
+		Batch<R> batch = new Batch<>(null, seeds(firstSeed + submitted, size), replication, array.apply(size), 0,
+				size);
+		pool.execute(batch);
+		return batch;
+	}
+
+	private static int size(Batch<?> batch) {
+		return batch == null ? 0 : batch.to - batch.from;
+	}
+
+	/**
+	 * Get consecutive seeds starting at {@code firstSeed}.
+	 *
+	 * @param firstSeed seed of first replication
+	 * @param count     number of replications
+	 * @return seeds
+	 */
+	public static long[] seeds(long firstSeed, int count) {
+		long[] seeds = new long[count];
+		for (int i = 0; i < count; i++) {
+			seeds[i] = firstSeed + i;
+		}
+		return seeds;
+	}
+
+	/**
+	 * Replications in a range of seeds, split in halves until single
+	 * replications are left so idle workers can steal the other half. Once the
+	 * whole batch is cancelled, replications that have not started are skipped.
+	 */
+	private static final class Batch<R> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final Batch<R> root;
+		private final long[] seeds;
+		private final LongFunction<? extends R> replication;
+		private final R[] results;
+		private final int from;
+		private final int to;
+
+		Batch(Batch<R> root, long[] seeds, LongFunction<? extends R> replication, R[] results, int from, int to) {
+			this.root = root == null ? this : root;
+			this.seeds = seeds;
+			this.replication = replication;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new Batch<>(root, seeds, replication, results, from, middle),
+						new Batch<>(root, seeds, replication, results, middle, to));
+			} else if (to > from && !root.isCancelled()) {
+				results[from] = replication.apply(seeds[from]);
+			}
+		}
+	}
+}
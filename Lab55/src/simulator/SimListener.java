@@ -0,0 +1,31 @@
+package simulator;
+
+import java.util.List;
+
+/**
+ * Listener for the records a simulation publishes on an {@link EventBus},
+ * one record per executed event.
+ *
+ * @param <R> type of record
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public interface SimListener<R> {
+
+	/**
+	 * Receive a batch of records, in the order the events were executed. The
+	 * records may be kept, but the list is reused once this method returns.
+	 *
+	 * @param records records since the last batch
+	 */
+	void onRecords(List<? extends R> records);
+
+	/**
+	 * Called once when the simulation has ended, after the last batch.
+	 */
+	default void onEnd() {
+	}
+}
@@ -1,7 +1,5 @@
 package simulator;
 
-import java.util.Observable;
-
 /**
  * 
  * @author Nour Aldein Bahtite
@@ -11,7 +9,7 @@ import java.util.Observable;
  *
  * @version 1.0
  */
-public abstract class SimState extends Observable {
+public abstract class SimState {
 	protected double elapsedTime;
 	protected boolean simulatorIsRunning;
 	protected EventQueue eventQueue;
@@ -25,8 +23,6 @@ public abstract class SimState extends Observable {
 	}
 	
 	public final void stopSimulator() {
-		setChanged();
-		notifyObservers();
 		simulatorIsRunning = false;
 	}
 	
@@ -45,4 +41,20 @@ public abstract class SimState extends Observable {
 	
 	
 	abstract public void runSim();
+
+	/**
+	 * Called once when the simulation has finished, after the state has been
+	 * updated for the last event.
+	 */
+	public void endSim() {
+	}
+
+	/**
+	 * Called when the simulation is stopped at a time instead of by an event,
+	 * see {@link Simulator#run(double)}, before {@link #endSim()}.
+	 *
+	 * @param time time the simulation stops at
+	 */
+	public void stoppedAt(double time) {
+	}
 }
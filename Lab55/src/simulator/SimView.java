@@ -1,18 +1,18 @@
 package simulator;
 
-import java.util.Observable;
-import java.util.Observer;
-
 /**
- * Abstract class used as template for viewing the results of the simulator
- * with the Observer and Observable design pattern.
+ * Abstract class used as template for viewing the results of the simulator.
+ * A view listens to the records published on the {@link EventBus} of the
+ * simulated state.
+ *
+ * @param <R> type of record
  * 
  * @author Nour Aldein Bahtite
  * @author Philip Eriksson
  * @author Rickard Bemm
  * @author André Christofferson
  */
-public abstract class SimView implements Observer {
+public abstract class SimView<R> implements SimListener<R> {
 	
 	/**
 	 * Method used to save simulation results in console.
@@ -27,7 +27,4 @@ public abstract class SimView implements Observer {
 	 */
 	public abstract void printFile(String filePath, boolean overwrite);
 
-	@Override
-	public abstract void update(Observable o, Object arg);
-
 }
\ No newline at end of file
@@ -1,6 +1,17 @@
 package simulator;
 
+import java.util.function.Predicate;
+
 /**
+ * Runs a simulation by dispatching the events of a queue in order.
+ *
+ * A simulation can be run to the end with {@link #run()}, to a stop time with
+ * {@link #run(double)} without a stop event in the queue, or in chunks with
+ * {@link #runUntil(double)}, {@link #step(int)}, {@link #runFor(long)} and
+ * {@link #runWhile(Predicate)}. Chunks can be mixed freely and every call
+ * continues where the previous one stopped. The simulation is started on the
+ * first call and is finished when the state stops it or no events remain.
+ *
  * @author Nour Aldein Bahtite
  * @author Philip Eriksson
  * @author Rickard Bemm
@@ -8,12 +19,18 @@ package simulator;
  */
 public class Simulator {
 
+	private static final Predicate<SimState> ALWAYS = state -> true;
+
 	private SimState state;
 	private EventQueue queue;
+	private boolean started;
+	private boolean ended;
+	private long eventsDispatched;
+	private SimulatorMetrics.Recorder recorder;
 
 	/**
 	 * Create a new instance of Simulator
-	 * 
+	 *
 	 * @param state A simulator state
 	 */
 	public Simulator(SimState state, EventQueue queue) {
@@ -22,15 +39,172 @@ public class Simulator {
 	}
 
 	/**
-	 * Run simulator
+	 * Feed live metrics from this simulator from now on.
+	 *
+	 * @param metrics metrics to feed, possibly shared with other simulators, or
+	 *                null to stop
+	 */
+	public void setMetrics(SimulatorMetrics metrics) {
+		this.recorder = metrics == null ? null : metrics.recorder();
+	}
+
+	/**
+	 * Run simulator until it is finished.
 	 */
 	public void run(){
-		state.runSim();
+		dispatch(Long.MAX_VALUE, Double.POSITIVE_INFINITY, ALWAYS, true);
+	}
+
+	/**
+	 * Run the simulation until a stop time and finish it there. Events up to
+	 * and including the time are run like {@link #runUntil(double)}, then the
+	 * simulation is stopped even if events remain, and the state is told with
+	 * {@link SimState#stoppedAt(double)} unless it already stopped by itself.
+	 *
+	 * @param stopTime time the simulation stops at
+	 * @return number of events run
+	 */
+	public long run(double stopTime) {
+		long count = dispatch(Long.MAX_VALUE, stopTime, ALWAYS, false);
+		if (!ended) {
+			ended = true;
+			if (state.simulatorIsRunning) {
+				state.stopSimulator();
+				state.stoppedAt(stopTime);
+			}
+			state.endSim();
+		}
+		return count;
+	}
+
+	/**
+	 * Run all events with an execute time up to and including {@code time}.
+	 *
+	 * @param time time to run until
+	 * @return number of events run
+	 */
+	public long runUntil(double time) {
+		return dispatch(Long.MAX_VALUE, time, ALWAYS, true);
+	}
+
+	/**
+	 * Run the next {@code n} events.
+	 *
+	 * @param n number of events to run
+	 * @return number of events run, less than {@code n} if the simulation
+	 *         finished
+	 */
+	public int step(int n) {
+		return (int) dispatch(n, Double.POSITIVE_INFINITY, ALWAYS, true);
+	}
+
+	/**
+	 * Run at most {@code maxEvents} events.
+	 *
+	 * @param maxEvents event budget
+	 * @return number of events run
+	 */
+	public long runFor(long maxEvents) {
+		return dispatch(maxEvents, Double.POSITIVE_INFINITY, ALWAYS, true);
+	}
+
+	/**
+	 * Run events as long as {@code condition} holds. The condition is tested on
+	 * the state before every event.
+	 *
+	 * @param condition condition to run while
+	 * @return number of events run
+	 */
+	public long runWhile(Predicate<SimState> condition) {
+		return dispatch(Long.MAX_VALUE, Double.POSITIVE_INFINITY, condition, true);
+	}
+
+	/**
+	 * Determine if the simulation has been stopped or has run out of events.
+	 *
+	 * @return true if no more events will be run, otherwise false
+	 */
+	public boolean isFinished() {
+		return started && (!state.simulatorIsRunning || queue.getEventQueueIsEmpty());
+	}
+
+	/**
+	 * Get the total number of events run so far.
+	 *
+	 * @return number of events run
+	 */
+	public long getEventsDispatched() {
+		return eventsDispatched;
+	}
+
+	private long dispatch(long maxEvents, double endTime, Predicate<SimState> condition, boolean finish) {
+		if (!started) {
+			started = true;
+			state.runSim();
+		}
+
+		SimulatorMetrics.Recorder recorder = this.recorder;
+		if (recorder != null) {
+			recorder.start();
+		}
+		long count = 0;
+		try {
+			while (count < maxEvents && !isFinished() && condition.test(state)) {
+				if (endTime != Double.POSITIVE_INFINITY && queue.getEvent().getExTime() > endTime) {
+					break;
+				}
+				// Take the event out of the queue before running it, events it
+				// schedules may end up first in line.
+				Event event = queue.pollEvent();
+				if (DispatchProfile.ENABLED) {
+					runProfiled(event);
+				} else {
+					event.runEvent();
+					state.updateState(event);
+				}
+				if (recorder != null) {
+					recorder.dispatched(queue.getQueueSize());
+				}
+				// Dispatched exactly once, so a pooled event can now be reused.
+				event.release();
+				count++;
+			}
+		} finally {
+			if (recorder != null) {
+				recorder.stop();
+			}
+		}
+		eventsDispatched += count;
+		if (finish && !ended && isFinished()) {
+			ended = true;
+			state.endSim();
+		}
+		return count;
+	}
+
+	/**
+	 * Run an event and update the state, timing both with Flight Recorder
+	 * events.
+	 */
+	private void runProfiled(Event event) {
+		DispatchProfile.Run run = new DispatchProfile.Run();
+		run.begin();
+		event.runEvent();
+		run.end();
+		if (run.shouldCommit()) {
+			run.eventClass = event.getClass();
+			run.simulationTime = event.getExTime();
+			run.commit();
+		}
 
-		while (state.simulatorIsRunning) {
-			queue.getEvent().runEvent();
-			state.updateState(queue.getEvent());
-			queue.removeEvent();
+		DispatchProfile.Update update = new DispatchProfile.Update();
+		update.begin();
+		state.updateState(event);
+		update.end();
+		if (update.shouldCommit()) {
+			update.eventClass = event.getClass();
+			update.simulationTime = event.getExTime();
+			update.commit();
 		}
 	}
 
@@ -0,0 +1,213 @@
+package simulator;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Live metrics of running simulations, exposed as a platform MBean so they can
+ * be watched with JConsole or any other JMX client while a long run or sweep
+ * is going on.
+ *
+ * One instance can be shared by simulations running on many threads at once,
+ * and every attribute is then a total over all of them: the events dispatched
+ * by every simulation, and the simulations dispatching events and the events
+ * they have pending right now. Nothing belongs to a single simulation, so
+ * nothing reports whichever simulation happened to run last. Simulations only
+ * ever write through {@link LongAdder}s, and readers only sum them, so reading
+ * the metrics never holds up a simulation.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public class SimulatorMetrics implements SimulatorMetricsMXBean {
+
+	// Events between samples of the allocation counter of a thread
+	private static final int ALLOCATION_SAMPLE_INTERVAL = 4096;
+
+	private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+	private final LongAdder events = new LongAdder();
+	private final LongAdder allocatedBytes = new LongAdder();
+	private final LongAdder allocationEvents = new LongAdder();
+	private final LongAdder running = new LongAdder();
+	private final LongAdder pending = new LongAdder();
+
+	// Only used by readers, under the lock of this object
+	private long rateEvents;
+	private long rateNanos = System.nanoTime();
+
+	private ObjectName name;
+
+	/**
+	 * Register the metrics with the platform MBean server as
+	 * {@code simulator:type=Simulator,name=<name>}.
+	 *
+	 * @param name name of the metrics, unique among registered metrics
+	 * @return this
+	 */
+	public synchronized SimulatorMetrics register(String name) {
+		this.name = register(this, "Simulator", name);
+		return this;
+	}
+
+	/**
+	 * Remove the metrics from the platform MBean server, if they are registered.
+	 */
+	public synchronized void unregister() {
+		unregister(name);
+		name = null;
+	}
+
+	@Override
+	public long getEventsDispatched() {
+		return events.sum();
+	}
+
+	@Override
+	public synchronized double getEventsPerSecond() {
+		long now = System.nanoTime();
+		long total = events.sum();
+		double rate = now > rateNanos ? (total - rateEvents) * 1e9 / (now - rateNanos) : 0;
+		rateEvents = total;
+		rateNanos = now;
+		return rate;
+	}
+
+	@Override
+	public int getRunningSimulations() {
+		return running.intValue();
+	}
+
+	@Override
+	public long getPendingEvents() {
+		return pending.sum();
+	}
+
+	@Override
+	public double getAllocatedBytesPerEvent() {
+		long sampled = allocationEvents.sum();
+		return sampled > 0 ? (double) allocatedBytes.sum() / sampled : Double.NaN;
+	}
+
+	/**
+	 * Create a recorder for one simulation. Recorders are not thread safe, but
+	 * any number of them can feed the same metrics.
+	 *
+	 * @return new recorder
+	 */
+	public Recorder recorder() {
+		return new Recorder();
+	}
+
+	/**
+	 * Register an MBean with the platform MBean server.
+	 *
+	 * @param bean bean to register
+	 * @param type type key of the object name
+	 * @param name name key of the object name
+	 * @return object name the bean was registered as
+	 */
+	public static ObjectName register(Object bean, String type, String name) {
+		try {
+			ObjectName objectName = new ObjectName("simulator:type=" + type + ",name=" + ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(bean, objectName);
+			return objectName;
+		} catch (JMException e) {
+			throw new IllegalStateException("Could not register " + type + " metrics " + name, e);
+		}
+	}
+
+	/**
+	 * Remove an MBean from the platform MBean server.
+	 *
+	 * @param name object name of bean, or null
+	 */
+	public static void unregister(ObjectName name) {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		if (name == null || !server.isRegistered(name)) {
+			return;
+		}
+		try {
+			server.unregisterMBean(name);
+		} catch (JMException e) {
+			throw new IllegalStateException("Could not unregister " + name, e);
+		}
+	}
+
+	private static com.sun.management.ThreadMXBean threads() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean extended = (com.sun.management.ThreadMXBean) threads;
+			if (extended.isThreadAllocatedMemorySupported() && extended.isThreadAllocatedMemoryEnabled()) {
+				return extended;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Feeds the metrics from the thread running a simulation. The allocation
+	 * counter of the thread is read every few thousand events and when a run
+	 * stops, so a run can move between threads from one call to the next.
+	 *
+	 * The pending events of the simulation are added to the total as they
+	 * change and taken out again when it stops dispatching events.
+	 */
+	public final class Recorder {
+		private long sinceSample;
+		private long allocatedAtSample;
+		// Pending events of this simulation in the total
+		private int pendingEvents;
+
+		/**
+		 * Start measuring on the current thread, before dispatching events.
+		 */
+		public void start() {
+			sinceSample = 0;
+			allocatedAtSample = THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+			running.increment();
+		}
+
+		/**
+		 * Count a dispatched event.
+		 *
+		 * @param pendingEvents events still pending
+		 */
+		public void dispatched(int pendingEvents) {
+			events.increment();
+			if (pendingEvents != this.pendingEvents) {
+				pending.add(pendingEvents - this.pendingEvents);
+				this.pendingEvents = pendingEvents;
+			}
+			if (++sinceSample == ALLOCATION_SAMPLE_INTERVAL) {
+				sample();
+			}
+		}
+
+		/**
+		 * Stop measuring, after dispatching events.
+		 */
+		public void stop() {
+			sample();
+			pending.add(-pendingEvents);
+			pendingEvents = 0;
+			running.decrement();
+		}
+
+		private void sample() {
+			if (THREADS != null && sinceSample > 0) {
+				long allocated = THREADS.getCurrentThreadAllocatedBytes();
+				allocatedBytes.add(allocated - allocatedAtSample);
+				allocationEvents.add(sinceSample);
+				allocatedAtSample = allocated;
+			}
+			sinceSample = 0;
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package simulator;
+
+/**
+ * Management interface of {@link SimulatorMetrics}, as seen from a JMX client
+ * such as JConsole. Every attribute is a total over all simulations feeding
+ * the metrics.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public interface SimulatorMetricsMXBean {
+
+	/**
+	 * Get the number of events dispatched so far.
+	 *
+	 * @return number of events
+	 */
+	long getEventsDispatched();
+
+	/**
+	 * Get the number of events dispatched per second of wall clock time since
+	 * the previous call, or since the metrics were created on the first call.
+	 *
+	 * @return events per second
+	 */
+	double getEventsPerSecond();
+
+	/**
+	 * Get the number of simulations dispatching events right now.
+	 *
+	 * @return number of running simulations
+	 */
+	int getRunningSimulations();
+
+	/**
+	 * Get the number of events pending in all simulations dispatching events
+	 * right now.
+	 *
+	 * @return total number of pending events
+	 */
+	long getPendingEvents();
+
+	/**
+	 * Get the average number of bytes allocated on the heap per event by the
+	 * threads running simulations.
+	 *
+	 * @return bytes per event, NaN if the JVM can't tell or nothing has been
+	 *         measured yet
+	 */
+	double getAllocatedBytesPerEvent();
+}
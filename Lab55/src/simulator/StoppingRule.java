@@ -0,0 +1,72 @@
+package simulator;
+
+/**
+ * Rule for when to stop adding replications: as soon as the 95% confidence
+ * interval of a measure is narrow relative to its mean, or when a cap on the
+ * number of runs is reached. Replications are added in batches and the rule
+ * is only checked between batches, so the result does not depend on how many
+ * threads run them.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public final class StoppingRule {
+	private final double relativeHalfWidth;
+	private final int batchSize;
+	private final int maxRuns;
+
+	/**
+	 * Create a new rule.
+	 *
+	 * @param relativeHalfWidth largest accepted half width of the confidence
+	 *                          interval, as a fraction of the mean
+	 * @param batchSize         number of replications added at a time, at least
+	 *                          2, which is also the least number of runs
+	 * @param maxRuns           largest number of runs
+	 */
+	public StoppingRule(double relativeHalfWidth, int batchSize, int maxRuns) {
+		if (!(relativeHalfWidth > 0)) {
+			throw new IllegalArgumentException("Relative half width must be positive: " + relativeHalfWidth);
+		}
+		if (batchSize < 2 || maxRuns < batchSize) {
+			throw new IllegalArgumentException("Need 2 <= batch size <= max runs, got " + batchSize + " and " + maxRuns);
+		}
+		this.relativeHalfWidth = relativeHalfWidth;
+		this.batchSize = batchSize;
+		this.maxRuns = maxRuns;
+	}
+
+	/**
+	 * Determine if a measure is known precisely enough. A measure that is
+	 * exactly the same in every run is, even if its mean is 0.
+	 *
+	 * @param statistic statistic of the measure over all runs so far
+	 * @return true if no more runs are needed, otherwise false
+	 */
+	public boolean isSatisfied(SummaryStatistic statistic) {
+		if (statistic.getCount() < batchSize) {
+			return false;
+		}
+		return statistic.getHalfWidth() <= relativeHalfWidth * Math.abs(statistic.getMean());
+	}
+
+	public double getRelativeHalfWidth() {
+		return relativeHalfWidth;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public int getMaxRuns() {
+		return maxRuns;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("stop at relative half width %s in batches of %d, at most %d runs", relativeHalfWidth,
+				batchSize, maxRuns);
+	}
+}
@@ -0,0 +1,154 @@
+package simulator;
+
+/**
+ * Running mean and variance of a series of observations, computed with
+ * Welford's algorithm so it stays accurate for long series. Statistics of
+ * separate series can be merged (Chan et al.), which is how results of
+ * replications run in parallel are combined.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public class SummaryStatistic {
+
+	/**
+	 * Two-sided 0.975 quantiles of Student's t distribution for 1 to 30 degrees
+	 * of freedom.
+	 */
+	private static final double[] T_975 = { 12.706204736, 4.302652730, 3.182446305, 2.776445105, 2.570581836,
+			2.446911851, 2.364624252, 2.306004135, 2.262157163, 2.228138852, 2.200985160, 2.178812830, 2.160368656,
+			2.144786688, 2.131449546, 2.119905299, 2.109815578, 2.100922040, 2.093024054, 2.085963447, 2.079613845,
+			2.073873068, 2.068657610, 2.063898562, 2.059538553, 2.055529439, 2.051830516, 2.048407142, 2.045229642,
+			2.042272456 };
+	private static final double Z_975 = 1.959963984540054;
+
+	private long count;
+	private double mean;
+	private double m2;
+	private double min = Double.POSITIVE_INFINITY;
+	private double max = Double.NEGATIVE_INFINITY;
+
+	/**
+	 * Add an observation.
+	 *
+	 * @param value observed value
+	 */
+	public void add(double value) {
+		count++;
+		double delta = value - mean;
+		mean += delta / count;
+		m2 += delta * (value - mean);
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+
+	/**
+	 * Add all observations of another statistic to this one.
+	 *
+	 * @param other statistic to merge, left unchanged
+	 */
+	public void merge(SummaryStatistic other) {
+		if (other.count == 0) {
+			return;
+		}
+		if (count == 0) {
+			count = other.count;
+			mean = other.mean;
+			m2 = other.m2;
+			min = other.min;
+			max = other.max;
+			return;
+		}
+		long total = count + other.count;
+		double delta = other.mean - mean;
+		mean += delta * other.count / total;
+		m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+		count = total;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+	}
+
+	/**
+	 * Set the statistic from its parts, as read back by {@link Distribution}.
+	 */
+	void restore(long count, double mean, double m2, double min, double max) {
+		this.count = count;
+		this.mean = mean;
+		this.m2 = m2;
+		this.min = min;
+		this.max = max;
+	}
+
+	/**
+	 * Get the sum of squared differences from the mean.
+	 */
+	double getM2() {
+		return m2;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public double getMean() {
+		return count > 0 ? mean : Double.NaN;
+	}
+
+	/**
+	 * Get the sample variance.
+	 *
+	 * @return sample variance, NaN for less than two observations
+	 */
+	public double getVariance() {
+		return count > 1 ? m2 / (count - 1) : Double.NaN;
+	}
+
+	public double getStandardDeviation() {
+		return Math.sqrt(getVariance());
+	}
+
+	public double getMin() {
+		return count > 0 ? min : Double.NaN;
+	}
+
+	public double getMax() {
+		return count > 0 ? max : Double.NaN;
+	}
+
+	/**
+	 * Get the half width of the 95% confidence interval of the mean, based on
+	 * Student's t distribution.
+	 *
+	 * @return half width of confidence interval, NaN for less than two
+	 *         observations
+	 */
+	public double getHalfWidth() {
+		if (count < 2) {
+			return Double.NaN;
+		}
+		return t975(count - 1) * Math.sqrt(getVariance() / count);
+	}
+
+	/**
+	 * Get the 0.975 quantile of Student's t distribution, from a table for up to
+	 * 30 degrees of freedom and a Cornish-Fisher expansion above that.
+	 */
+	private static double t975(long degreesOfFreedom) {
+		if (degreesOfFreedom <= T_975.length) {
+			return T_975[(int) degreesOfFreedom - 1];
+		}
+		double n = degreesOfFreedom;
+		double z = Z_975;
+		double z2 = z * z;
+		return z + z * (z2 + 1) / (4 * n) + z * ((5 * z2 + 16) * z2 + 3) / (96 * n * n)
+				+ z * (((3 * z2 + 19) * z2 + 17) * z2 - 15) / (384 * n * n * n);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%.4f +/- %.4f (n=%d, sd=%.4f)", getMean(), getHalfWidth(), count,
+				getStandardDeviation());
+	}
+}
@@ -0,0 +1,117 @@
+package simulator;
+
+/**
+ * Time-weighted statistic of a state variable that changes at discrete times,
+ * such as the length of a queue. The variable is told about every change as
+ * it happens, and its value is taken to hold until the next change, so the
+ * area under it, its time average and its maximum are exact. Every change
+ * costs the same no matter how long the simulation has run, and nothing is
+ * stored per change.
+ *
+ * The area is summed with Neumaier's compensated summation, so it stays
+ * accurate over very many changes.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public final class TimeWeightedStatistic {
+	private final double start;
+	private double time;
+	private double value;
+	private double area;
+	private double compensation;
+	private double max;
+
+	/**
+	 * Create a statistic of a variable that is 0 from time 0.
+	 */
+	public TimeWeightedStatistic() {
+		this(0, 0);
+	}
+
+	/**
+	 * Create a statistic of a variable.
+	 *
+	 * @param start time the variable is first known
+	 * @param value value at {@code start}
+	 */
+	public TimeWeightedStatistic(double start, double value) {
+		this.start = start;
+		this.time = start;
+		this.value = value;
+		this.max = value;
+	}
+
+	/**
+	 * Change the value of the variable.
+	 *
+	 * @param time  time of change, not before the previous change
+	 * @param value new value
+	 */
+	public void set(double time, double value) {
+		if (time < this.time) {
+			throw new IllegalArgumentException("Change at " + time + " before previous change at " + this.time);
+		}
+		accumulate((time - this.time) * this.value);
+		this.time = time;
+		this.value = value;
+		max = Math.max(max, value);
+	}
+
+	/**
+	 * Change the value of the variable by an amount.
+	 *
+	 * @param time  time of change, not before the previous change
+	 * @param delta amount to add
+	 */
+	public void add(double time, double delta) {
+		set(time, value + delta);
+	}
+
+	public double getValue() {
+		return value;
+	}
+
+	/**
+	 * Get the largest value the variable has had.
+	 *
+	 * @return maximum value
+	 */
+	public double getMax() {
+		return max;
+	}
+
+	/**
+	 * Get the area under the variable from the start until a time.
+	 *
+	 * @param time time to integrate until, times before the last change count as
+	 *             the last change
+	 * @return area under the variable
+	 */
+	public double getArea(double time) {
+		return area + compensation + Math.max(0, time - this.time) * value;
+	}
+
+	/**
+	 * Get the time average of the variable from the start until a time.
+	 *
+	 * @param time time to average until
+	 * @return time average, or the current value if no time has passed
+	 */
+	public double getMean(double time) {
+		double duration = Math.max(time, this.time) - start;
+		return duration > 0 ? getArea(time) / duration : value;
+	}
+
+	private void accumulate(double term) {
+		double sum = area + term;
+		if (Math.abs(area) >= Math.abs(term)) {
+			compensation += (area - sum) + term;
+		} else {
+			compensation += (term - sum) + area;
+		}
+		area = sum;
+	}
+}
@@ -1,7 +1,6 @@
 package store.event;
 
 import simulator.Event;
-import store.state.Customer;
 import store.state.StoreState;
 
 /**
@@ -15,63 +14,70 @@ import store.state.StoreState;
 public class CheckOutEvent extends Event {
 	
 	
-	private String eventDescription = "Checkout";
-	private String eventUserDescription;
-	private boolean isPeopleInQueue;
-	Customer customer;
+	private static final String DESCRIPTION = "Checkout";
+	private final StoreEventFactory events;
+	int customer;
 
 	/**
-	 * Constructor if there are avaliable registers and the que is empty.
+	 * Constructor used by the event pool, one of the {@code init} methods must be
+	 * called before the event is used.
 	 * 
-	 * @param state    current store state
-	 * @param time     event execute time
-	 * @param customer event for this customer
+	 * @param state  current store state
+	 * @param events factory for follow-up events
 	 */
-	public CheckOutEvent(StoreState state, double time, Customer customer) {
+	CheckOutEvent(StoreState state, StoreEventFactory events) {
 		super(state);
-		super.eventDescription = eventDescription;
-		state.closeOneRegister();
+		this.events = events;
+	}
+
+	/**
+	 * Initialize the event if there are avaliable registers and the que is empty.
+	 * 
+	 * @param now      time the customer goes to the register
+	 * @param time     event execute time
+	 * @param customer event for this customer, its row in the customer table
+	 * @return this event
+	 */
+	CheckOutEvent init(double now, double time, int customer) {
+		super.eventDescription = DESCRIPTION;
+		((StoreState) state).closeOneRegister(now);
+		((StoreState) state).customerAtRegister(customer, now);
 		this.executeTime = time;
 		this.customer = customer;
-		super.eventUserDescription = customer.toString();
-		this.isPeopleInQueue = false;
+		super.eventUserId = ((StoreState) state).getCustomerId(customer);
+		return this;
 	}
 
 
 	/**
 	 * 
-	 * Constructor for if there are customers in the que that are waiting to pay.
+	 * Initialize the event if there are customers in the que that are waiting to
+	 * pay.
 	 * 
 	 * 
-	 * @param state current store state
-	 * @param time  event execute time
+	 * @param now  time the customer leaves the queue
+	 * @param time event execute time
+	 * @return this event
 	 */
-	public CheckOutEvent(StoreState state, double time) {
-		super(state);
-		state.closeOneRegister();
+	CheckOutEvent init(double now, double time) {
+		super.eventDescription = null;
+		super.eventUserId = NO_USER;
+		((StoreState) state).closeOneRegister(now);
 		this.executeTime = time;
 		// Gets the first custommer in the queue and deletes it from the queue.
-		this.customer = state.getFirst();
-		this.isPeopleInQueue = true;
-
+		this.customer = ((StoreState) state).getFirst(now);
+		return this;
 	}
 
 	@Override
 	public void runEvent() {
-		double newExecuteTime = state.getElapsedTime() + ((StoreState)state).getTimeNextCustomerCheckout();
-		if (isPeopleInQueue) {
-			// Open up a new register.
-			((StoreState)state).openNewRegister();
-			// Checks to see if there are anymore customers in the queue.
-			if (!((StoreState)state).getCheckOutQueueIsEmpty()) {
-				addEventToQueue(new CheckOutEvent((StoreState)state, newExecuteTime));
-
-			}
-
-		} else {
-			((StoreState)state).openNewRegister();
-			// No new event since there are no people in the queue.
+		double newExecuteTime = executeTime + ((StoreState)state).getTimeNextCustomerCheckout();
+		((StoreState)state).customerPayed(customer, executeTime);
+		// The register is free again.
+		((StoreState)state).openNewRegister(executeTime);
+		// The first customer in the queue, if any, takes it over.
+		if (!((StoreState)state).getCheckOutQueueIsEmpty()) {
+			addEventToQueue(events.checkOutFromQueue(executeTime, newExecuteTime));
 		}
-
 	}
 }
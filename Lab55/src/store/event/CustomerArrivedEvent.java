@@ -1,7 +1,8 @@
 package store.event;
 
 import simulator.Event;
-import store.state.Customer;
+import simulator.EventQueue;
+import store.state.StoreRecord;
 import store.state.StoreState;
 
 /**
@@ -14,17 +15,34 @@ import store.state.StoreState;
  */
 public class CustomerArrivedEvent extends Event {
 
-	private String eventDescription = "Arrive";
-	private String eventUserDescription;
-	Customer customer;
+	private static final String DESCRIPTION = StoreRecord.ARRIVE;
+	private final StoreEventFactory events;
+	int customerId;
 
-	public CustomerArrivedEvent(StoreState state, double time) {
+	/**
+	 * Constructor used by the event pool, {@link #init(double)} must be called
+	 * before the event is used.
+	 * 
+	 * @param state  current store state
+	 * @param events factory for follow-up events
+	 */
+	CustomerArrivedEvent(StoreState state, StoreEventFactory events) {
 		super(state);
-		super.eventDescription = eventDescription;
-		this.executeTime = time;
-		this.customer = state.createNewCustomer();
-		super.eventUserDescription = customer.toString();
+		super.eventDescription = DESCRIPTION;
+		this.events = events;
+	}
 
+	/**
+	 * Initialize the event for a new customer.
+	 * 
+	 * @param time event execute time
+	 * @return this event
+	 */
+	CustomerArrivedEvent init(double time) {
+		this.executeTime = time;
+		this.customerId = ((StoreState) state).createNewCustomerId();
+		super.eventUserId = customerId;
+		return this;
 	}
 
 	/**
@@ -41,16 +59,29 @@ public class CustomerArrivedEvent extends Event {
 	public void runEvent() {
 		if (((StoreState) state).storeIsOpen()) {
 
-			double newTimeCustomer = ((StoreState) state).getElapsedTime() + ((StoreState) state).getTimeNextCustomer();
+			double newTimeCustomer = executeTime + ((StoreState) state).getTimeNextCustomer(executeTime);
 			if (((StoreState) state).getCustomersInTotal() >= ((StoreState) state).getMaxCustomers()) {
 				((StoreState) state).increaseCustomerDeniedByOne();
-				addEventToQueue(new CustomerArrivedEvent((StoreState) state, newTimeCustomer));
+				scheduleArrival(newTimeCustomer);
 			} else {
-				double newPickTime = state.getElapsedTime() + ((StoreState) state).getTimeCustomerPick();
-				addEventToQueue(new CustomerArrivedEvent((StoreState) state, newTimeCustomer));
-				addEventToQueue(new PickEvent((StoreState) state, newPickTime, customer));
+				double newPickTime = executeTime + ((StoreState) state).getTimeCustomerPick();
+				int customer = ((StoreState) state).customerEntered(customerId, executeTime);
+				scheduleArrival(newTimeCustomer);
+				addEventToQueue(events.pick(newPickTime, customer));
 			}
 		}
 	}
 
+	/**
+	 * Schedule the next customer, unless nobody arrives any more because the
+	 * arrival rate stays 0.
+	 */
+	private void scheduleArrival(double time) {
+		if (time < Double.POSITIVE_INFINITY) {
+			((StoreState) state).setNextArrival(addEventToQueue(events.customerArrived(time)));
+		} else {
+			((StoreState) state).setNextArrival(EventQueue.NO_HANDLE);
+		}
+	}
+
 }
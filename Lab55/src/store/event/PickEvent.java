@@ -1,7 +1,6 @@
 package store.event;
 
 import simulator.Event;
-import store.state.Customer;
 import store.state.StoreState;
 
 /**
@@ -14,39 +13,50 @@ import store.state.StoreState;
  */
 public class PickEvent extends Event {
 
-	public String eventDescription = "Pick";
-	private String eventUserDescription;
-	Customer customer;
-	
-	public PickEvent(StoreState state, double time, Customer customer) {
+	private static final String DESCRIPTION = "Pick";
+	private final StoreEventFactory events;
+	int customer;
+
+	/**
+	 * Constructor used by the event pool, {@link #init(double, int)} must
+	 * be called before the event is used.
+	 * 
+	 * @param state  current store state
+	 * @param events factory for follow-up events
+	 */
+	PickEvent(StoreState state, StoreEventFactory events) {
 		super(state);
-		super.eventDescription = eventDescription;
-		super.eventUserDescription = eventUserDescription;
+		super.eventDescription = DESCRIPTION;
+		this.events = events;
+	}
+
+	/**
+	 * Initialize the event for a customer who is picking items.
+	 * 
+	 * @param time     event execute time
+	 * @param customer event for this customer, its row in the customer table
+	 * @return this event
+	 */
+	PickEvent init(double time, int customer) {
 		this.executeTime = time;
 		this.customer = customer;
-		this.eventUserDescription = customer.toString();
+		return this;
 	}
 
-	
-	
 	@Override
 	public void runEvent() {
 		// Checks if there are available registers to pay in and if the que is
 		// empty.
-		try {
-			double checkOutTime = ((StoreState)state).getElapsedTime() + ((StoreState)state).getTimeNextCustomer();
-			if (((StoreState)state).getRegistersOpen() > 0 && ((StoreState)state).getCheckOutQueueIsEmpty()) {
-				// Adds a checkout event with no people in the queue and there
-				// are Available registers.
-				addEventToQueue(new CheckOutEvent((StoreState)state, checkOutTime, customer));
-			} else {
-				// Adds a checkout event where there are customers already in the queue.
-				// and places the customer who wants to buy in the back of the FIFO queue.
-				((StoreState)state).addCustomerInPayoutLine(customer);
-				addEventToQueue(new CheckOutEvent((StoreState)state, checkOutTime));
-			}
-		} catch (Exception e) {
-			System.out.println("Ojj, nu vare något galet.");
+		((StoreState)state).customerPicked(customer, executeTime);
+		double checkOutTime = executeTime + ((StoreState)state).getTimeNextCustomerCheckout();
+		if (((StoreState)state).getRegistersOpen() > 0 && ((StoreState)state).getCheckOutQueueIsEmpty()) {
+			// Adds a checkout event with no people in the queue and there
+			// are Available registers.
+			addEventToQueue(events.checkOut(executeTime, checkOutTime, customer));
+		} else {
+			// Every register is busy, so the customer waits in the back of the
+			// FIFO queue until a customer at a register has payed.
+			((StoreState)state).addCustomerInPayoutLine(customer, executeTime);
 		}
 	}
 
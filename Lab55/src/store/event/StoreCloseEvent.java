@@ -1,6 +1,7 @@
 package store.event;
 
 import simulator.Event;
+import simulator.EventQueue;
 import store.state.StoreState;
 
 /**
@@ -20,8 +21,14 @@ public class StoreCloseEvent extends Event {
 		this.executeTime = time;
 	}
 
+	/**
+	 * Close the store and cancel the arrival of the next customer, who would not
+	 * be let in anyway.
+	 */
 	public void runEvent() {
-		((StoreState) state).closeStore();
+		((StoreState) state).closeStore(executeTime);
+		eventQueue.cancel(((StoreState) state).getNextArrival());
+		((StoreState) state).setNextArrival(EventQueue.NO_HANDLE);
 	}
 
 }
@@ -0,0 +1,298 @@
+package store.event;
+
+import java.util.Arrays;
+
+import simulator.DispatchProfile;
+import simulator.IndexedHeap;
+import simulator.SimulatorMetrics;
+import simulator.StopEvent;
+import store.state.StoreRecord;
+import store.state.StoreState;
+
+/**
+ * Alternative to running the store model with {@link simulator.Simulator},
+ * where pending events are not objects at all. Each pending event is a row in
+ * primitive columns (kind and customer) indexed by the row ids of an
+ * {@link IndexedHeap} that holds the execute times. Events are dispatched with
+ * a {@code switch} that calls into {@link StoreState} directly, with the same
+ * logic as the event classes in this package, so both produce exactly the same
+ * trace for the same seed.
+ *
+ * Nothing is allocated per event once the columns have grown to the largest
+ * number of pending events, as long as nothing listens to the state.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ *
+ */
+public class StoreEngine {
+
+	// Event kinds
+	private static final byte START = 0;
+	private static final byte ARRIVE = 1;
+	private static final byte PICK = 2;
+	private static final byte CHECKOUT = 3;
+	private static final byte CHECKOUT_FROM_QUEUE = 4;
+	private static final byte CLOSE = 5;
+	private static final byte STOP = 6;
+
+	// Event descriptions, indexed by kind, as reported by the event classes.
+	private static final String[] DESCRIPTIONS = { "Open", StoreRecord.ARRIVE, "Pick", "Checkout", null, null, null };
+	// Event class each kind stands in for, in profiling events.
+	private static final Class<?>[] CLASSES = { StoreStartEvent.class, CustomerArrivedEvent.class, PickEvent.class,
+			CheckOutEvent.class, CheckOutEvent.class, StoreCloseEvent.class, StopEvent.class };
+	private static final String[] USER_DESCRIPTIONS = { "-", null, null, null, null, "Close", null };
+
+	private final StoreState state;
+	private final IndexedHeap pending;
+	private byte[] kinds;
+	// Customer id of arrivals, row in the customer table of other events.
+	private int[] customers;
+	// Row of the next customer arrival, cancelled when the store closes.
+	private int nextArrival = -1;
+	private SimulatorMetrics.Recorder recorder;
+
+	/**
+	 * Create a new engine for a store. The state's own event queue is not used.
+	 *
+	 * @param state store state to run
+	 */
+	public StoreEngine(StoreState state) {
+		this.state = state;
+		this.pending = new IndexedHeap();
+		this.kinds = new byte[16];
+		this.customers = new int[16];
+	}
+
+	/**
+	 * Schedule the store to open at time 0, like {@link StoreStartEvent}.
+	 */
+	public void scheduleStart() {
+		schedule(START, 0.0, StoreState.NO_CUSTOMER);
+	}
+
+	/**
+	 * Schedule the store to close, like {@link StoreCloseEvent}.
+	 *
+	 * @param time time store closes at
+	 */
+	public void scheduleClose(double time) {
+		schedule(CLOSE, time, StoreState.NO_CUSTOMER);
+	}
+
+	/**
+	 * Schedule the simulation to stop, like {@link simulator.StopEvent}.
+	 *
+	 * @param time time simulation stops at
+	 */
+	public void scheduleStop(double time) {
+		schedule(STOP, time, StoreState.NO_CUSTOMER);
+	}
+
+	/**
+	 * Get the number of pending events.
+	 *
+	 * @return number of pending events
+	 */
+	public int getPendingEvents() {
+		return pending.size();
+	}
+
+	/**
+	 * Feed live metrics from this engine from now on, like
+	 * {@link simulator.Simulator#setMetrics(SimulatorMetrics)}.
+	 *
+	 * @param metrics metrics to feed, possibly shared with other engines, or null
+	 *                to stop
+	 */
+	public void setMetrics(SimulatorMetrics metrics) {
+		this.recorder = metrics == null ? null : metrics.recorder();
+	}
+
+	/**
+	 * Run the simulation until it is stopped.
+	 */
+	public void run() {
+		dispatchUntil(Double.POSITIVE_INFINITY);
+		state.endSim();
+	}
+
+	/**
+	 * Run the simulation until a stop time and finish it there, without a stop
+	 * event, like {@link simulator.Simulator#run(double)}.
+	 *
+	 * @param stopTime time the simulation stops at
+	 */
+	public void run(double stopTime) {
+		dispatchUntil(stopTime);
+		if (state.simulatorIsRunning()) {
+			state.stopSimulator();
+			state.stoppedAt(stopTime);
+		}
+		state.endSim();
+	}
+
+	/**
+	 * Dispatch events up to and including a time, until the state is stopped
+	 * or no events remain.
+	 */
+	private void dispatchUntil(double endTime) {
+		state.runSim();
+		SimulatorMetrics.Recorder recorder = this.recorder;
+		if (recorder != null) {
+			recorder.start();
+		}
+
+		try {
+			while (state.simulatorIsRunning() && pending.size() > 0 && pending.time(pending.first()) <= endTime) {
+				int row = pending.first();
+				double time = pending.time(row);
+				byte kind = kinds[row];
+				int customer = customers[row];
+				pending.remove(row);
+				if (row == nextArrival) {
+					nextArrival = -1;
+				}
+
+				if (DispatchProfile.ENABLED) {
+					dispatchProfiled(kind, time, customer);
+				} else {
+					dispatch(kind, time, customer);
+					updateState(kind, time, customer);
+				}
+				if (recorder != null) {
+					recorder.dispatched(pending.size());
+				}
+			}
+		} finally {
+			if (recorder != null) {
+				recorder.stop();
+			}
+		}
+	}
+
+	private void updateState(byte kind, double time, int customer) {
+		if (USER_DESCRIPTIONS[kind] != null) {
+			state.updateState(time, DESCRIPTIONS[kind], USER_DESCRIPTIONS[kind]);
+		} else {
+			int customerId = StoreState.NO_CUSTOMER;
+			if (kind == ARRIVE) {
+				customerId = customer;
+			} else if (kind == CHECKOUT) {
+				// Still readable, nobody has entered since the customer payed.
+				customerId = state.getCustomerId(customer);
+			}
+			state.updateState(time, DESCRIPTIONS[kind], customerId);
+		}
+	}
+
+	/**
+	 * Dispatch an event and update the state like
+	 * {@link simulator.Simulator}, timing both with Flight Recorder events.
+	 */
+	private void dispatchProfiled(byte kind, double time, int customer) {
+		DispatchProfile.Run run = new DispatchProfile.Run();
+		run.begin();
+		dispatch(kind, time, customer);
+		run.end();
+		if (run.shouldCommit()) {
+			run.eventClass = CLASSES[kind];
+			run.simulationTime = time;
+			run.commit();
+		}
+
+		DispatchProfile.Update update = new DispatchProfile.Update();
+		update.begin();
+		updateState(kind, time, customer);
+		update.end();
+		if (update.shouldCommit()) {
+			update.eventClass = CLASSES[kind];
+			update.simulationTime = time;
+			update.commit();
+		}
+	}
+
+	private void dispatch(byte kind, double time, int customer) {
+		switch (kind) {
+		case START:
+			state.openStore(time);
+			scheduleArrival(time + state.getTimeNextCustomer(time));
+			break;
+		case ARRIVE:
+			if (state.storeIsOpen()) {
+				double newTimeCustomer = time + state.getTimeNextCustomer(time);
+				if (state.getCustomersInTotal() >= state.getMaxCustomers()) {
+					state.increaseCustomerDeniedByOne();
+					scheduleArrival(newTimeCustomer);
+				} else {
+					double newPickTime = time + state.getTimeCustomerPick();
+					int entered = state.customerEntered(customer, time);
+					scheduleArrival(newTimeCustomer);
+					schedule(PICK, newPickTime, entered);
+				}
+			}
+			break;
+		case PICK:
+			state.customerPicked(customer, time);
+			double checkOutTime = time + state.getTimeNextCustomerCheckout();
+			if (state.getRegistersOpen() > 0 && state.getCheckOutQueueIsEmpty()) {
+				state.closeOneRegister(time);
+				state.customerAtRegister(customer, time);
+				schedule(CHECKOUT, checkOutTime, customer);
+			} else {
+				// Every register is busy, wait until one is free.
+				state.addCustomerInPayoutLine(customer, time);
+			}
+			break;
+		case CHECKOUT:
+		case CHECKOUT_FROM_QUEUE:
+			double newExecuteTime = time + state.getTimeNextCustomerCheckout();
+			state.customerPayed(customer, time);
+			state.openNewRegister(time);
+			// The first customer in the queue, if any, takes over the register.
+			if (!state.getCheckOutQueueIsEmpty()) {
+				scheduleCheckOutFromQueue(time, newExecuteTime);
+			}
+			break;
+		case CLOSE:
+			state.closeStore(time);
+			if (nextArrival >= 0) {
+				pending.remove(nextArrival);
+				nextArrival = -1;
+			}
+			break;
+		case STOP:
+			state.stopSimulator();
+			break;
+		default:
+			throw new IllegalStateException("Unknown event kind " + kind);
+		}
+	}
+
+	private void scheduleArrival(double time) {
+		if (time == Double.POSITIVE_INFINITY) {
+			// Nobody arrives any more, like CustomerArrivedEvent.
+			nextArrival = -1;
+			return;
+		}
+		nextArrival = schedule(ARRIVE, time, state.createNewCustomerId());
+	}
+
+	private void scheduleCheckOutFromQueue(double now, double time) {
+		state.closeOneRegister(now);
+		schedule(CHECKOUT_FROM_QUEUE, time, state.getFirst(now));
+	}
+
+	private int schedule(byte kind, double time, int customer) {
+		int row = pending.insert(time);
+		if (row >= kinds.length) {
+			kinds = Arrays.copyOf(kinds, row * 2);
+			customers = Arrays.copyOf(customers, row * 2);
+		}
+		kinds[row] = kind;
+		customers[row] = customer;
+		return row;
+	}
+}
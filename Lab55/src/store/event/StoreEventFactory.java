@@ -0,0 +1,78 @@
+package store.event;
+
+import simulator.EventPool;
+import store.state.StoreState;
+
+/**
+ * Creates the per-customer events of a store simulation from pools, so the
+ * events are reused instead of allocated once they have been dispatched.
+ * Each simulation has its own factory, created by {@link StoreStartEvent}.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ *
+ */
+public class StoreEventFactory {
+
+	private final EventPool<CustomerArrivedEvent> arrivedEvents;
+	private final EventPool<PickEvent> pickEvents;
+	private final EventPool<CheckOutEvent> checkOutEvents;
+
+	/**
+	 * Create a new factory with empty pools.
+	 *
+	 * @param state store state the events belong to
+	 */
+	public StoreEventFactory(StoreState state) {
+		this.arrivedEvents = new EventPool<CustomerArrivedEvent>(() -> new CustomerArrivedEvent(state, this));
+		this.pickEvents = new EventPool<PickEvent>(() -> new PickEvent(state, this));
+		this.checkOutEvents = new EventPool<CheckOutEvent>(() -> new CheckOutEvent(state, this));
+	}
+
+	/**
+	 * Get an event for a new customer arriving at the store.
+	 *
+	 * @param time event execute time
+	 * @return arrive event
+	 */
+	public CustomerArrivedEvent customerArrived(double time) {
+		return arrivedEvents.acquire().init(time);
+	}
+
+	/**
+	 * Get an event for a customer who is done picking items.
+	 *
+	 * @param time     event execute time
+	 * @param customer event for this customer, its row in the customer table
+	 * @return pick event
+	 */
+	public PickEvent pick(double time, int customer) {
+		return pickEvents.acquire().init(time, customer);
+	}
+
+	/**
+	 * Get a checkout event for a customer who goes straight to a free register.
+	 *
+	 * @param now      time the customer goes to the register
+	 * @param time     event execute time
+	 * @param customer event for this customer, its row in the customer table
+	 * @return checkout event
+	 */
+	public CheckOutEvent checkOut(double now, double time, int customer) {
+		return checkOutEvents.acquire().init(now, time, customer);
+	}
+
+	/**
+	 * Get a checkout event for the first customer in the checkout queue, who
+	 * leaves the queue now.
+	 *
+	 * @param now  time the customer leaves the queue
+	 * @param time event execute time
+	 * @return checkout event
+	 */
+	public CheckOutEvent checkOutFromQueue(double now, double time) {
+		return checkOutEvents.acquire().init(now, time);
+	}
+}
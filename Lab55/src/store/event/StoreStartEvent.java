@@ -13,9 +13,11 @@ import store.state.StoreState;
  */
 public class StoreStartEvent extends StartEvent {
 	private String eventUserDescription = "-";
+	private final StoreEventFactory events;
 
 	public StoreStartEvent(StoreState state) {
 		super(state);
+		this.events = new StoreEventFactory(state);
 		super.eventDescription = "Open";
 		super.eventUserDescription = eventUserDescription;
 		this.executeTime = 0.0;
@@ -25,9 +27,12 @@ public class StoreStartEvent extends StartEvent {
 
 	@Override
 	public void runEvent() {
-		((StoreState) state).openStore();
-		double nextExecuteTime = state.getElapsedTime() + ((StoreState) state).getTimeNextCustomer();
-		addEventToQueue(new CustomerArrivedEvent((StoreState) state, nextExecuteTime));
+		((StoreState) state).openStore(executeTime);
+		double nextExecuteTime = executeTime + ((StoreState) state).getTimeNextCustomer(executeTime);
+		// Nobody arrives when the arrival rate stays 0.
+		if (nextExecuteTime < Double.POSITIVE_INFINITY) {
+			((StoreState) state).setNextArrival(addEventToQueue(events.customerArrived(nextExecuteTime)));
+		}
 	}
 
 }
@@ -0,0 +1,289 @@
+package store.experiment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import simulator.Replications;
+import simulator.SimulatorMetrics;
+import simulator.StoppingRule;
+import simulator.SummaryStatistic;
+import store.state.StoreMetrics;
+
+/**
+ * Runs every point of a {@link SweepDesign} on a {@link ForkJoinPool} and
+ * writes one CSV row per point to a file, in the order points finish.
+ *
+ * Every row is flushed as soon as it is written, so an interrupted sweep
+ * loses at most the points that were running. Running the same sweep again
+ * with the same file skips the points already in it.
+ *
+ * Every point runs the same replications, with consecutive seeds from the
+ * seed of the base configuration, so points are compared under common random
+ * numbers. With a {@link StoppingRule} every point instead runs only as many
+ * replications as it needs to pin down one measure, so points that converge
+ * quickly leave more of the pool to the ones that do not.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public class ParameterSweep {
+	private final StoreParameters base;
+	private final SweepDesign design;
+	private final int replications;
+	private final int measure;
+	private final StoppingRule rule;
+	private final ForkJoinPool pool;
+	private volatile SimulatorMetrics simulatorMetrics;
+	private volatile StoreMetrics storeMetrics;
+
+	/**
+	 * Create a new sweep.
+	 *
+	 * @param base         configuration with the values of the parameters that
+	 *                     are not swept
+	 * @param design       points to run
+	 * @param replications number of replications per point
+	 * @param pool         pool to run points on
+	 */
+	public ParameterSweep(StoreParameters base, SweepDesign design, int replications, ForkJoinPool pool) {
+		this.base = base;
+		this.design = design;
+		this.replications = replications;
+		this.measure = -1;
+		this.rule = null;
+		this.pool = pool;
+	}
+
+	/**
+	 * Create a new sweep where every point runs replications until a measure is
+	 * known precisely enough.
+	 *
+	 * @param base    configuration with the values of the parameters that are
+	 *                not swept
+	 * @param design  points to run
+	 * @param measure index in {@link StoreResult#MEASURES} of the measure to
+	 *                check
+	 * @param rule    when to stop adding replications to a point
+	 * @param pool    pool to run points on
+	 */
+	public ParameterSweep(StoreParameters base, SweepDesign design, int measure, StoppingRule rule,
+			ForkJoinPool pool) {
+		this.base = base;
+		this.design = design;
+		this.replications = rule.getMaxRuns();
+		this.measure = measure;
+		this.rule = rule;
+		this.pool = pool;
+	}
+
+	/**
+	 * Feed live metrics from every simulation run from now on.
+	 *
+	 * @param simulatorMetrics metrics of the simulators, or null
+	 * @param storeMetrics     metrics of the stores, or null
+	 */
+	public void setMetrics(SimulatorMetrics simulatorMetrics, StoreMetrics storeMetrics) {
+		this.simulatorMetrics = simulatorMetrics;
+		this.storeMetrics = storeMetrics;
+	}
+
+	/**
+	 * Run all points that are not already in the output file.
+	 *
+	 * @param output result file, created if it does not exist
+	 * @return number of points run
+	 * @throws IOException if the file can't be read or written, or was written
+	 *                     by another sweep
+	 */
+	public int run(Path output) throws IOException {
+		BitSet done = new BitSet(design.size());
+		boolean resume = Files.exists(output) && Files.size(output) > 0;
+		if (resume) {
+			truncateIncompleteLine(output);
+			resume = Files.size(output) > 0;
+		}
+		if (resume) {
+			readCompleted(output, done);
+		}
+
+		int[] pending = new int[design.size() - done.cardinality()];
+		for (int point = done.nextClearBit(0), i = 0; point < design.size(); point = done.nextClearBit(point + 1)) {
+			pending[i++] = point;
+		}
+
+		try (Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+				StandardOpenOption.APPEND)) {
+			if (!resume) {
+				writer.write(header());
+				writer.write(System.lineSeparator());
+				writer.write(columns());
+				writer.write(System.lineSeparator());
+				writer.flush();
+			}
+			if (pending.length > 0) {
+				pool.invoke(new Points(pending, 0, pending.length, writer));
+			}
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		return pending.length;
+	}
+
+	/**
+	 * Mark the points that already have a complete row in the output file.
+	 */
+	private void readCompleted(Path output, BitSet done) throws IOException {
+		List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+		if (!lines.get(0).equals(header())) {
+			throw new IOException(output + " was written by another sweep: " + lines.get(0));
+		}
+		int columnCount = columns().split(",").length;
+		for (int i = 2; i < lines.size(); i++) {
+			String[] fields = lines.get(i).split(",");
+			if (fields.length == columnCount) {
+				try {
+					done.set(Integer.parseInt(fields[0]));
+				} catch (NumberFormatException e) {
+					// A row cut short, run the point again.
+				}
+			}
+		}
+	}
+
+	/**
+	 * Cut the row that was being written when a sweep was interrupted off the
+	 * end of the output file, so the file ends with a complete line and the
+	 * point of that row is run again.
+	 */
+	private static void truncateIncompleteLine(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer buffer = ByteBuffer.allocate(4096);
+			long end = channel.size();
+			while (end > 0) {
+				int length = (int) Math.min(buffer.capacity(), end);
+				buffer.clear().limit(length);
+				while (buffer.hasRemaining()) {
+					if (channel.read(buffer, end - length + buffer.position()) < 0) {
+						throw new IOException("Unexpected end of " + file);
+					}
+				}
+				for (int i = length - 1; i >= 0; i--) {
+					if (buffer.get(i) == '\n') {
+						channel.truncate(end - length + i + 1);
+						return;
+					}
+				}
+				end -= length;
+			}
+			// Not even the header is complete
+			channel.truncate(0);
+		}
+	}
+
+	private String header() {
+		String runs = rule == null ? replications + " replications"
+				: StoreResult.MEASURES[measure].toLowerCase() + " " + rule;
+		return String.format("# sweep of %d points, design %016x, %s from seed %d", design.size(),
+				design.fingerprint(), runs, base.getSeed());
+	}
+
+	private String columns() {
+		StringBuilder columns = new StringBuilder("point");
+		for (SweepFactor factor : design.getFactors()) {
+			columns.append(',').append(factor.name().toLowerCase());
+		}
+		columns.append(",runs");
+		for (String measure : StoreResult.MEASURES) {
+			String name = measure.toLowerCase().replace(' ', '_');
+			columns.append(',').append(name).append("_mean,").append(name).append("_ci");
+		}
+		return columns.toString();
+	}
+
+	/**
+	 * Run all replications of a point and format its row.
+	 */
+	private String runPoint(int point) {
+		StoreParameters parameters = design.apply(base, point);
+		StoreResult[] results;
+		if (rule == null) {
+			results = new StoreResult[replications];
+			for (int i = 0; i < replications; i++) {
+				results[i] = parameters.withSeed(base.getSeed() + i).run(simulatorMetrics, storeMetrics);
+			}
+		} else {
+			// Batches of this point go to the same pool, joining them helps run them.
+			results = Replications.runUntil(pool, base.getSeed(), seed -> parameters.withSeed(seed).run(simulatorMetrics, storeMetrics),
+					result -> result.get(measure), rule, StoreResult[]::new);
+		}
+		SummaryStatistic[] statistics = StoreReplications.summarize(results);
+
+		StringBuilder row = new StringBuilder().append(point);
+		SweepFactor[] factors = design.getFactors();
+		for (int factor = 0; factor < factors.length; factor++) {
+			double value = design.value(point, factor);
+			row.append(',');
+			if (factors[factor].isInteger()) {
+				row.append((long) value);
+			} else {
+				row.append(value);
+			}
+		}
+		row.append(',').append(results.length);
+		for (SummaryStatistic statistic : statistics) {
+			row.append(',').append(statistic.getMean()).append(',').append(statistic.getHalfWidth());
+		}
+		return row.append(System.lineSeparator()).toString();
+	}
+
+	/**
+	 * Points in a range of the pending points, split in halves until single
+	 * points are left so idle workers can steal the other half.
+	 */
+	private final class Points extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final int[] pending;
+		private final int from;
+		private final int to;
+		private final Writer writer;
+
+		Points(int[] pending, int from, int to, Writer writer) {
+			this.pending = pending;
+			this.from = from;
+			this.to = to;
+			this.writer = writer;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new Points(pending, from, middle, writer), new Points(pending, middle, to, writer));
+				return;
+			}
+			String row = runPoint(pending[from]);
+			try {
+				synchronized (writer) {
+					writer.write(row);
+					writer.flush();
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,264 @@
+package store.experiment;
+
+import simulator.EventQueueStrategy;
+import simulator.Simulator;
+import simulator.SimulatorMetrics;
+import store.event.StoreCloseEvent;
+import store.event.StoreStartEvent;
+import store.state.StoreMetrics;
+import store.state.StoreState;
+import store.time.RateFunction;
+
+/**
+ * Configuration of a store simulation, the same parameters as
+ * {@link StoreState} plus when to stop and which event queue to use.
+ * Instances are immutable, so one configuration can be shared by replications
+ * running in parallel.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public final class StoreParameters {
+	private final long seed;
+	private final int maxCustomers;
+	private final int maxRegisters;
+	private final double timeStoreClose;
+	private final double arrivalSpeed;
+	private final double minPickingTime;
+	private final double maxPickingTime;
+	private final double minCheckoutTime;
+	private final double maxCheckoutTime;
+	private final double timeStop;
+	private final EventQueueStrategy queueStrategy;
+	private final RateFunction arrivalRate;
+
+	/**
+	 * Construct a new configuration.
+	 *
+	 * @param seed            Seed to generate random number
+	 * @param maxCustomers    Maximum number of costumers allowed in store at once
+	 * @param maxRegisters    Maximum number of registers available in store
+	 * @param timeStoreClose  At what time store closes
+	 * @param arrivalSpeed    Speed of which costumers arrive at
+	 * @param minPickingTime  Minimum time a costumer can pick items in
+	 * @param maxPickingTime  Maximum time a costumer can pick items in
+	 * @param minCheckoutTime Minimum time a costumer can checkout in
+	 * @param maxCheckoutTime Maximum time a costumer can checkout in
+	 * @param timeStop        At what time simulation stops
+	 * @param queueStrategy   Event queue implementation
+	 */
+	public StoreParameters(long seed, int maxCustomers, int maxRegisters, double timeStoreClose, double arrivalSpeed,
+			double minPickingTime, double maxPickingTime, double minCheckoutTime, double maxCheckoutTime,
+			double timeStop, EventQueueStrategy queueStrategy) {
+		this(seed, maxCustomers, maxRegisters, timeStoreClose, arrivalSpeed, minPickingTime, maxPickingTime,
+				minCheckoutTime, maxCheckoutTime, timeStop, queueStrategy, null);
+	}
+
+	private StoreParameters(long seed, int maxCustomers, int maxRegisters, double timeStoreClose,
+			double arrivalSpeed, double minPickingTime, double maxPickingTime, double minCheckoutTime,
+			double maxCheckoutTime, double timeStop, EventQueueStrategy queueStrategy, RateFunction arrivalRate) {
+		this.seed = seed;
+		this.maxCustomers = maxCustomers;
+		this.maxRegisters = maxRegisters;
+		this.timeStoreClose = timeStoreClose;
+		this.arrivalSpeed = arrivalSpeed;
+		this.minPickingTime = minPickingTime;
+		this.maxPickingTime = maxPickingTime;
+		this.minCheckoutTime = minCheckoutTime;
+		this.maxCheckoutTime = maxCheckoutTime;
+		this.timeStop = timeStop;
+		this.queueStrategy = queueStrategy;
+		this.arrivalRate = arrivalRate;
+	}
+
+	/**
+	 * Get the same configuration with another seed.
+	 *
+	 * @param seed new seed
+	 * @return configuration with {@code seed}
+	 */
+	public StoreParameters withSeed(long seed) {
+		return new StoreParameters(seed, maxCustomers, maxRegisters, timeStoreClose, arrivalSpeed, minPickingTime,
+				maxPickingTime, minCheckoutTime, maxCheckoutTime, timeStop, queueStrategy, arrivalRate);
+	}
+
+	/**
+	 * Get the same configuration with customers arriving at a rate that changes
+	 * with time instead of at the arrival speed, which is then not used.
+	 *
+	 * @param arrivalRate arrival rate, or null to arrive at the arrival speed
+	 * @return configuration with {@code arrivalRate}
+	 */
+	public StoreParameters withArrivalRate(RateFunction arrivalRate) {
+		return new StoreParameters(seed, maxCustomers, maxRegisters, timeStoreClose, arrivalSpeed, minPickingTime,
+				maxPickingTime, minCheckoutTime, maxCheckoutTime, timeStop, queueStrategy, arrivalRate);
+	}
+
+	/**
+	 * Get the same configuration with another value of a sweep factor.
+	 *
+	 * @param factor factor to change
+	 * @param value  new value, rounded for integer factors
+	 * @return changed configuration
+	 */
+	public StoreParameters with(SweepFactor factor, double value) {
+		int maxCustomers = this.maxCustomers;
+		int maxRegisters = this.maxRegisters;
+		double arrivalSpeed = this.arrivalSpeed;
+		double minPickingTime = this.minPickingTime;
+		double maxPickingTime = this.maxPickingTime;
+		double minCheckoutTime = this.minCheckoutTime;
+		double maxCheckoutTime = this.maxCheckoutTime;
+		switch (factor) {
+		case MAX_CUSTOMERS:
+			maxCustomers = (int) Math.round(value);
+			break;
+		case MAX_REGISTERS:
+			maxRegisters = (int) Math.round(value);
+			break;
+		case ARRIVAL_SPEED:
+			arrivalSpeed = value;
+			break;
+		case MIN_PICKING_TIME:
+			minPickingTime = value;
+			break;
+		case MAX_PICKING_TIME:
+			maxPickingTime = value;
+			break;
+		case MIN_CHECKOUT_TIME:
+			minCheckoutTime = value;
+			break;
+		case MAX_CHECKOUT_TIME:
+			maxCheckoutTime = value;
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown factor " + factor);
+		}
+		return new StoreParameters(seed, maxCustomers, maxRegisters, timeStoreClose, arrivalSpeed, minPickingTime,
+				maxPickingTime, minCheckoutTime, maxCheckoutTime, timeStop, queueStrategy, arrivalRate);
+	}
+
+	/**
+	 * Get the value of a sweep factor.
+	 *
+	 * @param factor factor to get
+	 * @return value of factor
+	 */
+	public double get(SweepFactor factor) {
+		switch (factor) {
+		case MAX_CUSTOMERS:
+			return maxCustomers;
+		case MAX_REGISTERS:
+			return maxRegisters;
+		case ARRIVAL_SPEED:
+			return arrivalSpeed;
+		case MIN_PICKING_TIME:
+			return minPickingTime;
+		case MAX_PICKING_TIME:
+			return maxPickingTime;
+		case MIN_CHECKOUT_TIME:
+			return minCheckoutTime;
+		case MAX_CHECKOUT_TIME:
+			return maxCheckoutTime;
+		default:
+			throw new IllegalArgumentException("Unknown factor " + factor);
+		}
+	}
+
+	/**
+	 * Create a new store state, with a new event queue, for this configuration.
+	 *
+	 * @return new store state
+	 */
+	public StoreState createState() {
+		if (arrivalRate != null) {
+			return new StoreState(seed, maxCustomers, maxRegisters, timeStoreClose, arrivalRate, minPickingTime,
+					maxPickingTime, minCheckoutTime, maxCheckoutTime, queueStrategy.create());
+		}
+		return new StoreState(seed, maxCustomers, maxRegisters, timeStoreClose, arrivalSpeed, minPickingTime,
+				maxPickingTime, minCheckoutTime, maxCheckoutTime, queueStrategy.create());
+	}
+
+	/**
+	 * Run one simulation of this configuration, without any view.
+	 *
+	 * @return result of simulation
+	 */
+	public StoreResult run() {
+		return run(null, null);
+	}
+
+	/**
+	 * Run one simulation of this configuration, without any view, feeding live
+	 * metrics.
+	 *
+	 * @param simulatorMetrics metrics of the simulator, or null
+	 * @param storeMetrics     metrics of the store, or null
+	 * @return result of simulation
+	 */
+	public StoreResult run(SimulatorMetrics simulatorMetrics, StoreMetrics storeMetrics) {
+		StoreState state = createState();
+		state.setMetrics(storeMetrics);
+		state.getEventQueue().addEvent(new StoreStartEvent(state));
+		state.getEventQueue().addEvent(new StoreCloseEvent(state, timeStoreClose));
+		Simulator simulator = new Simulator(state, state.getEventQueue());
+		simulator.setMetrics(simulatorMetrics);
+		simulator.run(timeStop);
+		return new StoreResult(state);
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public int getMaxCustomers() {
+		return maxCustomers;
+	}
+
+	public int getMaxRegisters() {
+		return maxRegisters;
+	}
+
+	public double getTimeStoreClose() {
+		return timeStoreClose;
+	}
+
+	public double getArrivalSpeed() {
+		return arrivalSpeed;
+	}
+
+	public double getMinPickingTime() {
+		return minPickingTime;
+	}
+
+	public double getMaxPickingTime() {
+		return maxPickingTime;
+	}
+
+	public double getMinCheckoutTime() {
+		return minCheckoutTime;
+	}
+
+	public double getMaxCheckoutTime() {
+		return maxCheckoutTime;
+	}
+
+	public double getTimeStop() {
+		return timeStop;
+	}
+
+	public EventQueueStrategy getQueueStrategy() {
+		return queueStrategy;
+	}
+
+	/**
+	 * Get the arrival rate that changes with time.
+	 *
+	 * @return arrival rate, or null if customers arrive at the arrival speed
+	 */
+	public RateFunction getArrivalRate() {
+		return arrivalRate;
+	}
+}
@@ -0,0 +1,141 @@
+package store.experiment;
+
+import java.util.concurrent.ForkJoinPool;
+
+import simulator.Replications;
+import simulator.SimulatorMetrics;
+import simulator.StoppingRule;
+import simulator.SummaryStatistic;
+import store.state.CustomerStatistics;
+import store.state.StoreMetrics;
+
+/**
+ * Runs independent replications of a store configuration in parallel, one
+ * seed per replication, and summarizes every measure of {@link StoreResult}
+ * with its mean and 95% confidence interval. The number of replications is
+ * either fixed or decided by a {@link StoppingRule} on one of the measures.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public class StoreReplications {
+	private final StoreParameters parameters;
+	private final ForkJoinPool pool;
+	private volatile SimulatorMetrics simulatorMetrics;
+	private volatile StoreMetrics storeMetrics;
+
+	/**
+	 * Create a runner for a configuration.
+	 *
+	 * @param parameters configuration to replicate, its seed is the seed of the
+	 *                   first replication
+	 * @param pool       pool to run replications on
+	 */
+	public StoreReplications(StoreParameters parameters, ForkJoinPool pool) {
+		this.parameters = parameters;
+		this.pool = pool;
+	}
+
+	/**
+	 * Feed live metrics from every simulation run from now on.
+	 *
+	 * @param simulatorMetrics metrics of the simulators, or null
+	 * @param storeMetrics     metrics of the stores, or null
+	 */
+	public void setMetrics(SimulatorMetrics simulatorMetrics, StoreMetrics storeMetrics) {
+		this.simulatorMetrics = simulatorMetrics;
+		this.storeMetrics = storeMetrics;
+	}
+
+	/**
+	 * Run replications with consecutive seeds.
+	 *
+	 * @param count number of replications
+	 * @return results in seed order
+	 */
+	public StoreResult[] run(int count) {
+		return run(Replications.seeds(parameters.getSeed(), count));
+	}
+
+	/**
+	 * Run one replication per seed.
+	 *
+	 * @param seeds seed of every replication
+	 * @return results in seed order
+	 */
+	public StoreResult[] run(long[] seeds) {
+		return Replications.run(pool, seeds, this::runOne, new StoreResult[seeds.length]);
+	}
+
+	/**
+	 * Run replications with consecutive seeds until a measure is known precisely
+	 * enough.
+	 *
+	 * @param measure index in {@link StoreResult#MEASURES} of the measure to
+	 *                check
+	 * @param rule    when to stop
+	 * @return results in seed order
+	 */
+	public StoreResult[] runUntil(int measure, StoppingRule rule) {
+		return Replications.runUntil(pool, parameters.getSeed(), this::runOne,
+				result -> result.get(measure), rule, StoreResult[]::new);
+	}
+
+	private StoreResult runOne(long seed) {
+		return parameters.withSeed(seed).run(simulatorMetrics, storeMetrics);
+	}
+
+	/**
+	 * Summarize every measure over a set of results.
+	 *
+	 * @param results results of replications
+	 * @return one statistic per measure, in the order of
+	 *         {@link StoreResult#MEASURES}
+	 */
+	public static SummaryStatistic[] summarize(StoreResult[] results) {
+		SummaryStatistic[] statistics = new SummaryStatistic[StoreResult.MEASURES.length];
+		for (int i = 0; i < statistics.length; i++) {
+			statistics[i] = new SummaryStatistic();
+		}
+		for (StoreResult result : results) {
+			for (int i = 0; i < statistics.length; i++) {
+				statistics[i].add(result.get(i));
+			}
+		}
+		return statistics;
+	}
+
+	/**
+	 * Pool the per-customer statistics of a set of results, as if all customers
+	 * had been in the same simulation.
+	 *
+	 * @param results results of replications
+	 * @return merged per-customer statistics
+	 */
+	public static CustomerStatistics pool(StoreResult[] results) {
+		CustomerStatistics pooled = new CustomerStatistics();
+		for (StoreResult result : results) {
+			pooled.merge(result.getCustomerStatistics());
+		}
+		return pooled;
+	}
+
+	/**
+	 * Format a summary as a table, one measure per row.
+	 *
+	 * @param statistics summary from {@link #summarize(StoreResult[])}
+	 * @return table
+	 */
+	public static String format(SummaryStatistic[] statistics) {
+		StringBuilder table = new StringBuilder(
+				String.format("%-24s %12s %12s %12s %6s%n", "Measure", "Mean", "+/- 95% CI", "Variance", "n"));
+		for (int i = 0; i < statistics.length; i++) {
+			SummaryStatistic statistic = statistics[i];
+			table.append(String.format("%-24s %12.4f %12.4f %12.4f %6d%n", StoreResult.MEASURES[i],
+					statistic.getMean(), statistic.getHalfWidth(), statistic.getVariance(), statistic.getCount()));
+		}
+		return table.toString();
+	}
+}
@@ -0,0 +1,116 @@
+package store.experiment;
+
+import simulator.Distribution;
+import store.state.CustomerStatistics;
+import store.state.StoreState;
+
+/**
+ * Outcome of one store simulation.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public final class StoreResult {
+
+	/**
+	 * Names of the measures, in the order of {@link #get(int)}.
+	 */
+	public static final String[] MEASURES = { "Customers payed", "Customers missed", "Checkout idle time",
+			"Queue time", "Mean queue time", "Mean queue length", "Max queue length", "Mean customers in store",
+			"Mean busy registers" };
+
+	// Indices of the measures
+	public static final int CUSTOMERS_PAYED = 0;
+	public static final int CUSTOMERS_MISSED = 1;
+	public static final int CHECKOUT_IDLE_TIME = 2;
+	public static final int QUEUE_TIME = 3;
+	public static final int MEAN_QUEUE_TIME = 4;
+	public static final int MEAN_QUEUE_LENGTH = 5;
+	public static final int MAX_QUEUE_LENGTH = 6;
+	public static final int MEAN_CUSTOMERS_IN_STORE = 7;
+	public static final int MEAN_BUSY_REGISTERS = 8;
+
+	private final double[] values;
+	private final CustomerStatistics customerStatistics;
+
+	/**
+	 * Read the result of a finished simulation.
+	 *
+	 * @param state state of finished simulation
+	 */
+	public StoreResult(StoreState state) {
+		double end = state.getElapsedTime();
+		Distribution queueTimes = state.getCustomerStatistics().getQueueTimes();
+		// Mean over every customer who payed, queued or not
+		double meanQueueTime = queueTimes.getCount() > 0 ? queueTimes.getMean() : 0;
+		this.values = new double[] { state.getCustomersPayed(), state.getCustomersDeniedEntry(),
+				state.getCheckOutFreeTime(), state.getQueueTime(), meanQueueTime, state.getQueueLength().getMean(end),
+				state.getQueueLength().getMax(), state.getCustomersInStore().getMean(end),
+				state.getBusyRegisters().getMean(end) };
+		this.customerStatistics = state.getCustomerStatistics();
+	}
+
+	/**
+	 * Get a measure by index.
+	 *
+	 * @param measure index in {@link #MEASURES}
+	 * @return value of measure
+	 */
+	public double get(int measure) {
+		return values[measure];
+	}
+
+	public double getCustomersPayed() {
+		return values[CUSTOMERS_PAYED];
+	}
+
+	public double getCustomersMissed() {
+		return values[CUSTOMERS_MISSED];
+	}
+
+	public double getCheckoutIdleTime() {
+		return values[CHECKOUT_IDLE_TIME];
+	}
+
+	public double getQueueTime() {
+		return values[QUEUE_TIME];
+	}
+
+	/**
+	 * Get how long a customer who payed waited in the checkout queue on
+	 * average. Unlike {@link #getQueueTime()} it does not grow with the number
+	 * of customers, so replications of different lengths compare.
+	 *
+	 * @return mean queue time per customer, 0 if nobody payed
+	 */
+	public double getMeanQueueTime() {
+		return values[MEAN_QUEUE_TIME];
+	}
+
+	public double getMeanQueueLength() {
+		return values[MEAN_QUEUE_LENGTH];
+	}
+
+	public double getMaxQueueLength() {
+		return values[MAX_QUEUE_LENGTH];
+	}
+
+	public double getMeanCustomersInStore() {
+		return values[MEAN_CUSTOMERS_IN_STORE];
+	}
+
+	public double getMeanBusyRegisters() {
+		return values[MEAN_BUSY_REGISTERS];
+	}
+
+	/**
+	 * Get how long customers queued and were in the store.
+	 *
+	 * @return per-customer statistics
+	 */
+	public CustomerStatistics getCustomerStatistics() {
+		return customerStatistics;
+	}
+}
@@ -0,0 +1,155 @@
+package store.experiment;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The points of a parameter sweep, each a value for every factor. A design is
+ * either a full grid over given levels or a Latin hypercube sample of given
+ * ranges. Designs are deterministic, the same arguments always give the same
+ * points in the same order, which is what lets an interrupted sweep resume.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public final class SweepDesign {
+	private final SweepFactor[] factors;
+	// Indexed by point, then by factor.
+	private final double[][] points;
+
+	private SweepDesign(SweepFactor[] factors, double[][] points) {
+		this.factors = factors;
+		this.points = points;
+	}
+
+	/**
+	 * Create a full grid, every combination of the levels of the factors. The
+	 * last factor varies fastest.
+	 *
+	 * @param factors factors to vary
+	 * @param levels  levels of every factor
+	 * @return grid design
+	 */
+	public static SweepDesign grid(SweepFactor[] factors, double[][] levels) {
+		if (levels.length != factors.length) {
+			throw new IllegalArgumentException("Expected levels for " + factors.length + " factors");
+		}
+		int size = 1;
+		for (double[] factorLevels : levels) {
+			size = Math.multiplyExact(size, factorLevels.length);
+		}
+		double[][] points = new double[size][factors.length];
+		for (int point = 0; point < size; point++) {
+			int rest = point;
+			for (int factor = factors.length - 1; factor >= 0; factor--) {
+				int count = levels[factor].length;
+				points[point][factor] = round(factors[factor], levels[factor][rest % count]);
+				rest /= count;
+			}
+		}
+		return new SweepDesign(factors.clone(), points);
+	}
+
+	/**
+	 * Create a Latin hypercube sample. The range of every factor is divided into
+	 * {@code size} equally wide strata and every stratum is sampled exactly once,
+	 * in a random order per factor.
+	 *
+	 * @param factors factors to vary
+	 * @param lower   lowest value of every factor
+	 * @param upper   highest value of every factor
+	 * @param size    number of points
+	 * @param seed    seed of the sample
+	 * @return Latin hypercube design
+	 */
+	public static SweepDesign latinHypercube(SweepFactor[] factors, double[] lower, double[] upper, int size,
+			long seed) {
+		if (lower.length != factors.length || upper.length != factors.length) {
+			throw new IllegalArgumentException("Expected ranges for " + factors.length + " factors");
+		}
+		SplittableRandom random = new SplittableRandom(seed);
+		double[][] points = new double[size][factors.length];
+		int[] strata = new int[size];
+		for (int factor = 0; factor < factors.length; factor++) {
+			for (int i = 0; i < size; i++) {
+				strata[i] = i;
+			}
+			// Fisher-Yates shuffle
+			for (int i = size - 1; i > 0; i--) {
+				int j = random.nextInt(i + 1);
+				int swap = strata[i];
+				strata[i] = strata[j];
+				strata[j] = swap;
+			}
+			double width = (upper[factor] - lower[factor]) / size;
+			for (int point = 0; point < size; point++) {
+				double value = lower[factor] + (strata[point] + random.nextDouble()) * width;
+				points[point][factor] = round(factors[factor], value);
+			}
+		}
+		return new SweepDesign(factors.clone(), points);
+	}
+
+	private static double round(SweepFactor factor, double value) {
+		return factor.isInteger() ? Math.round(value) : value;
+	}
+
+	/**
+	 * Get the number of points.
+	 *
+	 * @return number of points
+	 */
+	public int size() {
+		return points.length;
+	}
+
+	public SweepFactor[] getFactors() {
+		return factors.clone();
+	}
+
+	/**
+	 * Get the value of a factor at a point.
+	 *
+	 * @param point  index of point
+	 * @param factor index of factor in {@link #getFactors()}
+	 * @return value of factor
+	 */
+	public double value(int point, int factor) {
+		return points[point][factor];
+	}
+
+	/**
+	 * Get the configuration of a point.
+	 *
+	 * @param base  configuration with the values of all other parameters
+	 * @param point index of point
+	 * @return configuration of point
+	 */
+	public StoreParameters apply(StoreParameters base, int point) {
+		StoreParameters parameters = base;
+		for (int factor = 0; factor < factors.length; factor++) {
+			parameters = parameters.with(factors[factor], points[point][factor]);
+		}
+		return parameters;
+	}
+
+	/**
+	 * Get a fingerprint of the factors and every point, used to tell whether a
+	 * result file was written by the same design.
+	 *
+	 * @return fingerprint
+	 */
+	public long fingerprint() {
+		long hash = 1;
+		for (SweepFactor factor : factors) {
+			// Names, since enum hash codes differ between runs.
+			hash = 31 * hash + factor.name().hashCode();
+		}
+		for (double[] point : points) {
+			hash = 31 * hash + Arrays.hashCode(point);
+		}
+		return hash;
+	}
+}
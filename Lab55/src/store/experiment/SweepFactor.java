@@ -0,0 +1,30 @@
+package store.experiment;
+
+/**
+ * Parameters of {@link StoreParameters} that a {@link ParameterSweep} can
+ * vary.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public enum SweepFactor {
+	MAX_CUSTOMERS(true), MAX_REGISTERS(true), ARRIVAL_SPEED(false), MIN_PICKING_TIME(false),
+	MAX_PICKING_TIME(false), MIN_CHECKOUT_TIME(false), MAX_CHECKOUT_TIME(false);
+
+	private final boolean integer;
+
+	SweepFactor(boolean integer) {
+		this.integer = integer;
+	}
+
+	/**
+	 * Determine if the factor only takes integer values.
+	 *
+	 * @return true if values are rounded to integers, otherwise false
+	 */
+	public boolean isInteger() {
+		return integer;
+	}
+}
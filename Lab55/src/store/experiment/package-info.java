@@ -0,0 +1,12 @@
+/**
+ * 
+ */
+/**
+ * 
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ * 
+ */
+package store.experiment;
\ No newline at end of file
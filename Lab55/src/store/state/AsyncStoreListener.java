@@ -0,0 +1,143 @@
+package store.state;
+
+import simulator.AsyncListener;
+import simulator.SimListener;
+
+/**
+ * Listener of the records of a store running on a thread of its own, like
+ * {@link AsyncListener}, that is fed straight from the {@link StoreState}
+ * instead of from the event bus. After every event the numbers of the state
+ * are copied into primitive columns of a pre-allocated ring, times and areas
+ * as doubles, counters as ints and descriptions as byte codes, and the
+ * {@link StoreRecord} is only built on the listener thread. The simulation
+ * thread allocates nothing per event.
+ *
+ * Attach it with {@link StoreState#subscribeAsync(AsyncStoreListener)}.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public final class AsyncStoreListener extends AsyncListener<StoreRecord> {
+
+	// Descriptions have codes 1 to 127, 0 is none
+	private static final int MAX_DESCRIPTIONS = 127;
+
+	private final double[] times;
+	private final double[] checkoutFreeTimes;
+	private final double[] queueTimes;
+	private final int[] customerIds;
+	private final int[] registersOpen;
+	private final int[] customersInTotal;
+	private final int[] customersPayed;
+	private final int[] customersDeniedEntry;
+	private final int[] customersInQueue;
+	private final byte[] events;
+	private final byte[] customers;
+	private final boolean[] storeIsOpen;
+
+	// Only added to by the simulation thread, before the slot that uses the
+	// description is released
+	private final String[] descriptions = new String[MAX_DESCRIPTIONS + 1];
+	private int descriptionCount;
+
+	/**
+	 * Create a listener that waits when the buffer is full.
+	 *
+	 * @param listener listener to run on a thread of its own
+	 * @param capacity number of records the buffer holds, rounded up to a power
+	 *                 of two
+	 */
+	public AsyncStoreListener(SimListener<? super StoreRecord> listener, int capacity) {
+		this(listener, capacity, BackPressure.BLOCK, 1);
+	}
+
+	/**
+	 * Create a new listener.
+	 *
+	 * @param listener       listener to run on a thread of its own
+	 * @param capacity       number of records the buffer holds, rounded up to a
+	 *                       power of two
+	 * @param backPressure   what to do when the buffer is full
+	 * @param sampleInterval keep every n-th record under
+	 *                       {@link BackPressure#SAMPLE}
+	 */
+	public AsyncStoreListener(SimListener<? super StoreRecord> listener, int capacity, BackPressure backPressure,
+			int sampleInterval) {
+		super(listener, capacity, backPressure, sampleInterval, false);
+		int size = getSlots();
+		times = new double[size];
+		checkoutFreeTimes = new double[size];
+		queueTimes = new double[size];
+		customerIds = new int[size];
+		registersOpen = new int[size];
+		customersInTotal = new int[size];
+		customersPayed = new int[size];
+		customersDeniedEntry = new int[size];
+		customersInQueue = new int[size];
+		events = new byte[size];
+		customers = new byte[size];
+		storeIsOpen = new boolean[size];
+		start();
+	}
+
+	/**
+	 * Copy the state after an event into the next slot, on the simulation
+	 * thread.
+	 *
+	 * @param state state after the event
+	 */
+	void publish(StoreState state) {
+		int slot = claim();
+		if (slot < 0) {
+			return;
+		}
+		times[slot] = state.getElapsedTime();
+		checkoutFreeTimes[slot] = state.getCheckoutFreeTime();
+		queueTimes[slot] = state.getQueueTime();
+		customerIds[slot] = state.getCustomerIdWhoPerformedEvent();
+		registersOpen[slot] = state.getRegistersOpen();
+		customersInTotal[slot] = state.getCustomersInTotal();
+		customersPayed[slot] = state.getCustomersPayed();
+		customersDeniedEntry[slot] = state.getCustomersDeniedEntry();
+		customersInQueue[slot] = state.getCustomersInQueue();
+		events[slot] = code(state.getEventDescription());
+		customers[slot] = code(state.getCustomerDescription());
+		storeIsOpen[slot] = state.storeIsOpen();
+		release();
+	}
+
+	@Override
+	protected StoreRecord read(int slot) {
+		return new StoreRecord(times[slot], descriptions[events[slot]], descriptions[customers[slot]],
+				customerIds[slot], storeIsOpen[slot], registersOpen[slot], checkoutFreeTimes[slot],
+				customersInTotal[slot], customersPayed[slot], customersDeniedEntry[slot], queueTimes[slot],
+				customersInQueue[slot]);
+	}
+
+	/**
+	 * Get the code of a description. Descriptions are constants of the events,
+	 * so there are few of them and they are mostly the same instance.
+	 */
+	private byte code(String description) {
+		if (description == null) {
+			return 0;
+		}
+		for (int i = 1; i <= descriptionCount; i++) {
+			if (descriptions[i] == description) {
+				return (byte) i;
+			}
+		}
+		for (int i = 1; i <= descriptionCount; i++) {
+			if (descriptions[i].equals(description)) {
+				return (byte) i;
+			}
+		}
+		if (descriptionCount == MAX_DESCRIPTIONS) {
+			throw new IllegalStateException("More than " + MAX_DESCRIPTIONS + " descriptions: " + description);
+		}
+		descriptions[++descriptionCount] = description;
+		return (byte) descriptionCount;
+	}
+}
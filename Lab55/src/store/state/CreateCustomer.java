@@ -23,11 +23,12 @@ public class CreateCustomer {
 	}
 
 	/**
+	 * Create a new customer, who is only an id until entering the store.
 	 * 
-	 * @return new customer with id++
+	 * @return id of new customer, id++
 	 */
-	public Customer newCustomer() {
-		return new Customer(id++);
+	public int nextId() {
+		return id++;
 	}
 
 }
@@ -0,0 +1,123 @@
+package store.state;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import simulator.Distribution;
+
+/**
+ * Per-customer statistics of a store simulation: how long every customer who
+ * payed waited in the checkout queue and spent in the store, how many
+ * customers had to queue, and when the last customer payed. Statistics of
+ * replications can be merged.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public final class CustomerStatistics {
+	private final Distribution queueTimes;
+	private final Distribution storeTimes;
+	private long customersQueued;
+	private double lastPaymentTime;
+
+	/**
+	 * Create empty statistics.
+	 */
+	public CustomerStatistics() {
+		this(new Distribution(), new Distribution());
+	}
+
+	private CustomerStatistics(Distribution queueTimes, Distribution storeTimes) {
+		this.queueTimes = queueTimes;
+		this.storeTimes = storeTimes;
+	}
+
+	void customerQueued() {
+		customersQueued++;
+	}
+
+	void customerPayed(double time, double queueTime, double storeTime) {
+		queueTimes.add(queueTime);
+		storeTimes.add(storeTime);
+		lastPaymentTime = Math.max(lastPaymentTime, time);
+	}
+
+	/**
+	 * Add the statistics of another simulation to these.
+	 *
+	 * @param other statistics to merge, left unchanged
+	 */
+	public void merge(CustomerStatistics other) {
+		queueTimes.merge(other.queueTimes);
+		storeTimes.merge(other.storeTimes);
+		customersQueued += other.customersQueued;
+		lastPaymentTime = Math.max(lastPaymentTime, other.lastPaymentTime);
+	}
+
+	/**
+	 * Get the time every customer who payed waited in the checkout queue, 0 for
+	 * customers who did not have to queue.
+	 *
+	 * @return distribution of queue times
+	 */
+	public Distribution getQueueTimes() {
+		return queueTimes;
+	}
+
+	/**
+	 * Get the time every customer who payed spent in the store, from entering to
+	 * having payed.
+	 *
+	 * @return distribution of times in store
+	 */
+	public Distribution getStoreTimes() {
+		return storeTimes;
+	}
+
+	/**
+	 * Get the number of customers who were put in the checkout queue.
+	 *
+	 * @return number of queued customers
+	 */
+	public long getCustomersQueued() {
+		return customersQueued;
+	}
+
+	/**
+	 * Get the time the last customer payed, the largest over merged statistics.
+	 *
+	 * @return time of last payment, 0 if nobody payed
+	 */
+	public double getLastPaymentTime() {
+		return lastPaymentTime;
+	}
+
+	/**
+	 * Write the statistics.
+	 *
+	 * @param out where to write
+	 * @throws IOException if writing fails
+	 */
+	public void write(DataOutput out) throws IOException {
+		queueTimes.write(out);
+		storeTimes.write(out);
+		out.writeLong(customersQueued);
+		out.writeDouble(lastPaymentTime);
+	}
+
+	/**
+	 * Read statistics written by {@link #write(DataOutput)}.
+	 *
+	 * @param in where to read
+	 * @return statistics read
+	 * @throws IOException if reading fails
+	 */
+	public static CustomerStatistics read(DataInput in) throws IOException {
+		CustomerStatistics statistics = new CustomerStatistics(Distribution.read(in), Distribution.read(in));
+		statistics.customersQueued = in.readLong();
+		statistics.lastPaymentTime = in.readDouble();
+		return statistics;
+	}
+}
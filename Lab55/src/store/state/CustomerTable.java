@@ -0,0 +1,165 @@
+package store.state;
+
+import java.util.Arrays;
+
+/**
+ * The customers in a store, kept as rows of primitive columns instead of one
+ * object per customer. A customer is a row number, handed out when the
+ * customer enters and reused for another customer once the customer has
+ * left, so the table only grows to the largest number of customers in the
+ * store at once and nothing is allocated per customer after that.
+ *
+ * Every row holds the id of the customer, the time the customer entered, was
+ * done picking items, joined the checkout queue and got to a register. Times
+ * that have not happened yet are {@link Double#NaN}.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public final class CustomerTable {
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private int[] ids;
+	private double[] arrivalTimes;
+	private double[] pickTimes;
+	private double[] queueTimes;
+	private double[] checkoutTimes;
+
+	// Rows of customers who have left, to be reused before new rows
+	private int[] free;
+	private int freeCount;
+	// Rows ever used, every row from here on is unused
+	private int used;
+	private int size;
+
+	/**
+	 * Create an empty table.
+	 */
+	public CustomerTable() {
+		ids = new int[DEFAULT_CAPACITY];
+		arrivalTimes = new double[DEFAULT_CAPACITY];
+		pickTimes = new double[DEFAULT_CAPACITY];
+		queueTimes = new double[DEFAULT_CAPACITY];
+		checkoutTimes = new double[DEFAULT_CAPACITY];
+		free = new int[DEFAULT_CAPACITY];
+		Arrays.fill(arrivalTimes, Double.NaN);
+	}
+
+	/**
+	 * Add a customer who enters the store.
+	 *
+	 * @param id          id of customer
+	 * @param arrivalTime time the customer entered
+	 * @return row of the customer
+	 */
+	public int add(int id, double arrivalTime) {
+		int customer;
+		if (freeCount > 0) {
+			customer = free[--freeCount];
+		} else {
+			if (used == ids.length) {
+				grow();
+			}
+			customer = used++;
+		}
+		ids[customer] = id;
+		arrivalTimes[customer] = arrivalTime;
+		pickTimes[customer] = Double.NaN;
+		queueTimes[customer] = Double.NaN;
+		checkoutTimes[customer] = Double.NaN;
+		size++;
+		return customer;
+	}
+
+	/**
+	 * Remove a customer who has left the store, so the row can be reused. The
+	 * id of the customer can still be read until then.
+	 *
+	 * @param customer row of customer
+	 * @throws IllegalStateException if the customer is not in the table
+	 */
+	public void remove(int customer) {
+		if (!contains(customer)) {
+			throw new IllegalStateException("No customer in row " + customer);
+		}
+		arrivalTimes[customer] = Double.NaN;
+		free[freeCount++] = customer;
+		size--;
+	}
+
+	/**
+	 * Determine if a row holds a customer who is in the store.
+	 *
+	 * @param customer row of customer
+	 * @return true if the customer has been added and not removed
+	 */
+	public boolean contains(int customer) {
+		return customer >= 0 && customer < used && !Double.isNaN(arrivalTimes[customer]);
+	}
+
+	/**
+	 * Get the number of customers in the table.
+	 *
+	 * @return number of customers in the store
+	 */
+	public int size() {
+		return size;
+	}
+
+	public int getId(int customer) {
+		return ids[customer];
+	}
+
+	public double getArrivalTime(int customer) {
+		return arrivalTimes[customer];
+	}
+
+	public double getPickTime(int customer) {
+		return pickTimes[customer];
+	}
+
+	public void setPickTime(int customer, double time) {
+		pickTimes[customer] = time;
+	}
+
+	public double getQueueTime(int customer) {
+		return queueTimes[customer];
+	}
+
+	public void setQueueTime(int customer, double time) {
+		queueTimes[customer] = time;
+	}
+
+	public double getCheckoutTime(int customer) {
+		return checkoutTimes[customer];
+	}
+
+	public void setCheckoutTime(int customer, double time) {
+		checkoutTimes[customer] = time;
+	}
+
+	/**
+	 * Get how long a customer waited in the checkout queue.
+	 *
+	 * @param customer row of customer
+	 * @return time from joining the queue to getting to a register, 0 if the
+	 *         customer did not queue
+	 */
+	public double getWaitingTime(int customer) {
+		double queued = queueTimes[customer];
+		return Double.isNaN(queued) ? 0 : checkoutTimes[customer] - queued;
+	}
+
+	private void grow() {
+		int capacity = ids.length * 2;
+		ids = Arrays.copyOf(ids, capacity);
+		arrivalTimes = Arrays.copyOf(arrivalTimes, capacity);
+		pickTimes = Arrays.copyOf(pickTimes, capacity);
+		queueTimes = Arrays.copyOf(queueTimes, capacity);
+		checkoutTimes = Arrays.copyOf(checkoutTimes, capacity);
+		free = Arrays.copyOf(free, capacity);
+		Arrays.fill(arrivalTimes, used, capacity, Double.NaN);
+	}
+}
@@ -1,32 +1,41 @@
 package store.state;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
 /**
- * This class represent a First-In-First-Out queue.
+ * This class represent a First-In-First-Out queue, stored in a growable ring
+ * buffer whose length is a power of two. Adding and removing does not
+ * allocate once the buffer has grown to its working size, and the items lie
+ * next to each other in memory. See {@link IntFIFO} for queues of primitive
+ * {@code int} values.
  * 
  * @author Nour Aldein Bahtite
  * @author Philip Eriksson
  * @author Rickard Bemm
  * @author André Christofferson
  * 
- * @version 1.0
+ * @version 2.0
  *
  * @param <E> Object type for each item in queue
  */
 public class FIFO<E> implements Iterable<E> {
+	private static final int DEFAULT_CAPACITY = 16;
 
-	private Item first, last;
+	private Object[] items;
+	private int head;
 	private int size = 0;
+	// Changed on every change, so iterators can tell the queue has changed.
+	private int modifications;
 
 	/**
 	 * Construct a new instance of a {@code FIFO} object
 	 */
 	public FIFO() {
-		first = new Item(null);
-		last = first;
+		items = new Object[DEFAULT_CAPACITY];
 	}
 
 	/**
@@ -53,12 +62,12 @@ public class FIFO<E> implements Iterable<E> {
 	 * @param item Item to add
 	 */
 	public void add(E item) {
-		last.next = new Item(item);
-		last = last.next;
-		if (isEmpty()) {
-			first = last;
+		if (size == items.length) {
+			grow();
 		}
+		items[(head + size) & (items.length - 1)] = item;
 		size++;
+		modifications++;
 	}
 
 	/**
@@ -92,122 +101,112 @@ public class FIFO<E> implements Iterable<E> {
 	 * @throws NoSuchElementException Occurs when queue is empty
 	 * @see NoSuchElementException
 	 */
+	@SuppressWarnings("unchecked")
 	public E getFirst() throws NoSuchElementException {
 		if (isEmpty()) {
 			throw new NoSuchElementException();
 		}
-		E firstItem = first.content;
-		first = first.next;
-		size--;
+		E firstItem = (E) items[head];
+		removeFirst();
 		return firstItem;
 	}
 
 	/**
 	 * Remove first element in queue.
+	 * 
+	 * @throws NoSuchElementException Occurs when queue is empty
 	 */
-	public void removeFirst() {
-		if (size() == 1) {
-			first = new Item(null);
-			last = first;
-			size--;
+	public void removeFirst() throws NoSuchElementException {
+		if (isEmpty()) {
+			throw new NoSuchElementException();
 		}
-		first = first.next;
+		// Let go of the item so it can be garbage collected.
+		items[head] = null;
+		head = (head + 1) & (items.length - 1);
+		size--;
+		modifications++;
 	}
 
 	/**
 	 * Remove all items in queue.
 	 */
 	public void removeAll() {
-		first = new Item(null);
-		last = first;
+		Arrays.fill(items, null);
+		head = 0;
 		size = 0;
+		modifications++;
 	}
 
 	@Override
 	public String toString() {
-		String items = "{";
-		FIFO<E> fifo = this.clone();
-		while (!fifo.isEmpty()) {
-			items += fifo.getFirst().toString() + (fifo.size == 0 ? "}" : ", ");
+		StringBuilder builder = new StringBuilder("{");
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				builder.append(", ");
+			}
+			builder.append(items[(head + i) & (items.length - 1)]);
 		}
-		return items;
+		return builder.append('}').toString();
 	}
 
 	@Override
 	protected FIFO<E> clone() {
 		FIFO<E> clone = new FIFO<E>();
-
-		Item currentItem = first;
-		while (currentItem != null) {
-			clone.add(currentItem.content);
-			currentItem = currentItem.next;
-		}
+		clone.items = items.clone();
+		clone.head = head;
+		clone.size = size;
 		return clone;
 	}
 
 	/**
 	 * Get iterator for queue. Iteration in the queue does not change anything in
 	 * queue.
+	 * 
+	 * @throws ConcurrentModificationException from the iterator if the queue is
+	 *                                         changed during iteration
 	 */
 	@Override
 	public Iterator<E> iterator() {
 		return new ItemIterator();
 	}
 
+	private void grow() {
+		if (items.length == 1 << 30) {
+			throw new IllegalStateException("Queue is full");
+		}
+		Object[] grown = Arrays.copyOf(items, items.length * 2);
+		// Unwrap the part of the ring that was stored before head.
+		System.arraycopy(items, 0, grown, items.length, head);
+		Arrays.fill(grown, 0, head, null);
+		items = grown;
+	}
+
 	/**
 	 * This class represents an {@code Iterator}.
 	 * 
 	 * @author Rickard Bemm
-	 * @version 1.0
+	 * @version 2.0
 	 */
 	private class ItemIterator implements Iterator<E> {
 
-		private Item currentItem;
-
-		public ItemIterator() {
-			this.currentItem = FIFO.this.first;
-		}
+		private final int expectedModifications = modifications;
+		private int index;
 
 		@Override
 		public boolean hasNext() {
-			return currentItem != null;
+			return index < size;
 		}
 
 		@Override
+		@SuppressWarnings("unchecked")
 		public E next() {
-			E content = currentItem.content;
-			currentItem = currentItem.next;
-			return content;
-		}
-	}
-
-	/**
-	 * This class represents an {@code Item} in a FIFO-queue.
-	 * 
-	 * @author Rickard Bemm
-	 * @version 1.0
-	 */
-	private class Item {
-
-		/**
-		 * Reference to next Item. If there is no next {@code item}, {@code next} is
-		 * null.
-		 */
-		public Item next;
-
-		/**
-		 * Content of this Item
-		 */
-		public E content;
-
-		/**
-		 * Create a new {@code Item} with next item set to null.
-		 * 
-		 * @param content content to add to item
-		 */
-		public Item(E itemContent) {
-			next = null;
-			content = itemContent;
+			if (modifications != expectedModifications) {
+				throw new ConcurrentModificationException();
+			}
+			if (index >= size) {
+				throw new NoSuchElementException();
+			}
+			return (E) items[(head + index++) & (items.length - 1)];
 		}
 	}
 }
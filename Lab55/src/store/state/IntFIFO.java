@@ -0,0 +1,180 @@
+package store.state;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * This class represent a First-In-First-Out queue of primitive {@code int}
+ * values, such as customer ids, stored in a growable ring buffer. Adding and
+ * removing does not allocate once the buffer has grown to its working size.
+ * It has the same operations as {@link FIFO}, without boxing the values.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ *
+ * @version 2.0
+ */
+public class IntFIFO {
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private int[] items;
+	private int head;
+	private int size;
+	// Changed on every change, so iterators can tell the queue has changed.
+	private int modifications;
+
+	/**
+	 * Construct a new instance of a {@code IntFIFO} object
+	 */
+	public IntFIFO() {
+		items = new int[DEFAULT_CAPACITY];
+	}
+
+	/**
+	 * Get size of queue.
+	 *
+	 * @return size of queue where 0 is empty.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Determine if queue is empty and does not contain any values.
+	 *
+	 * @return true if queue is empty, otherwise false
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Add a value to end of queue.
+	 *
+	 * @param item Value to add
+	 */
+	public void add(int item) {
+		if (size == items.length) {
+			grow();
+		}
+		items[(head + size) & (items.length - 1)] = item;
+		size++;
+		modifications++;
+	}
+
+	/**
+	 * Add all values in an array to end of queue.
+	 *
+	 * @param arr Array of values to add
+	 */
+	public void addAll(int[] arr) {
+		for (int item : arr) {
+			add(item);
+		}
+	}
+
+	/**
+	 * Get and remove first value in queue, if queue is empty a
+	 * {@link NoSuchElementException} will be thrown.
+	 *
+	 * @return First value in queue
+	 * @throws NoSuchElementException Occurs when queue is empty
+	 */
+	public int getFirst() throws NoSuchElementException {
+		if (isEmpty()) {
+			throw new NoSuchElementException();
+		}
+		int first = items[head];
+		removeFirst();
+		return first;
+	}
+
+	/**
+	 * Remove first value in queue.
+	 *
+	 * @throws NoSuchElementException Occurs when queue is empty
+	 */
+	public void removeFirst() throws NoSuchElementException {
+		if (isEmpty()) {
+			throw new NoSuchElementException();
+		}
+		head = (head + 1) & (items.length - 1);
+		size--;
+		modifications++;
+	}
+
+	/**
+	 * Remove all values in queue.
+	 */
+	public void removeAll() {
+		head = 0;
+		size = 0;
+		modifications++;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("{");
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				builder.append(", ");
+			}
+			builder.append(items[(head + i) & (items.length - 1)]);
+		}
+		return builder.append('}').toString();
+	}
+
+	@Override
+	protected IntFIFO clone() {
+		IntFIFO clone = new IntFIFO();
+		clone.items = items.clone();
+		clone.head = head;
+		clone.size = size;
+		return clone;
+	}
+
+	/**
+	 * Get iterator for queue, without boxing the values. Iteration in the queue
+	 * does not change anything in queue.
+	 *
+	 * @return iterator from first to last value
+	 * @throws ConcurrentModificationException from the iterator if the queue is
+	 *                                         changed during iteration
+	 */
+	public PrimitiveIterator.OfInt iterator() {
+		return new PrimitiveIterator.OfInt() {
+			private final int expectedModifications = modifications;
+			private int index;
+
+			@Override
+			public boolean hasNext() {
+				return index < size;
+			}
+
+			@Override
+			public int nextInt() {
+				if (modifications != expectedModifications) {
+					throw new ConcurrentModificationException();
+				}
+				if (index >= size) {
+					throw new NoSuchElementException();
+				}
+				return items[(head + index++) & (items.length - 1)];
+			}
+		};
+	}
+
+	private void grow() {
+		if (items.length == 1 << 30) {
+			throw new IllegalStateException("Queue is full");
+		}
+		int[] grown = Arrays.copyOf(items, items.length * 2);
+		// Unwrap the part of the ring that was stored before head.
+		System.arraycopy(items, 0, grown, items.length, head);
+		items = grown;
+	}
+}
@@ -0,0 +1,94 @@
+package store.state;
+
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.ObjectName;
+import simulator.SimulatorMetrics;
+
+/**
+ * Live customer counts of running store simulations, exposed as a platform
+ * MBean next to {@link SimulatorMetrics}. One instance can be shared by
+ * simulations running on many threads at once, the counts are then totals.
+ * Simulations only write through {@link LongAdder}s, so reading the metrics
+ * never holds up a simulation.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public class StoreMetrics implements StoreMetricsMXBean {
+	private final LongAdder customersEntered = new LongAdder();
+	private final LongAdder customersPayed = new LongAdder();
+	private final LongAdder customersDenied = new LongAdder();
+	private final LongAdder customersInStore = new LongAdder();
+	private final LongAdder queueLength = new LongAdder();
+
+	private ObjectName name;
+
+	/**
+	 * Register the metrics with the platform MBean server as
+	 * {@code simulator:type=Store,name=<name>}.
+	 *
+	 * @param name name of the metrics, unique among registered metrics
+	 * @return this
+	 */
+	public synchronized StoreMetrics register(String name) {
+		this.name = SimulatorMetrics.register(this, "Store", name);
+		return this;
+	}
+
+	/**
+	 * Remove the metrics from the platform MBean server, if they are registered.
+	 */
+	public synchronized void unregister() {
+		SimulatorMetrics.unregister(name);
+		name = null;
+	}
+
+	void customerEntered() {
+		customersEntered.increment();
+		customersInStore.increment();
+	}
+
+	void customerPayed() {
+		customersPayed.increment();
+		customersInStore.decrement();
+	}
+
+	void customerDenied() {
+		customersDenied.increment();
+	}
+
+	void customerQueued() {
+		queueLength.increment();
+	}
+
+	void customerLeftQueue() {
+		queueLength.decrement();
+	}
+
+	@Override
+	public long getCustomersEntered() {
+		return customersEntered.sum();
+	}
+
+	@Override
+	public long getCustomersPayed() {
+		return customersPayed.sum();
+	}
+
+	@Override
+	public long getCustomersDenied() {
+		return customersDenied.sum();
+	}
+
+	@Override
+	public long getCustomersInStore() {
+		return customersInStore.sum();
+	}
+
+	@Override
+	public long getQueueLength() {
+		return queueLength.sum();
+	}
+}
@@ -0,0 +1,33 @@
+package store.state;
+
+/**
+ * Management interface of {@link StoreMetrics}, as seen from a JMX client such
+ * as JConsole.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public interface StoreMetricsMXBean {
+
+	long getCustomersEntered();
+
+	long getCustomersPayed();
+
+	long getCustomersDenied();
+
+	/**
+	 * Get the number of customers in the store right now.
+	 *
+	 * @return customers in store
+	 */
+	long getCustomersInStore();
+
+	/**
+	 * Get the number of customers in the checkout queue right now.
+	 *
+	 * @return queue length
+	 */
+	long getQueueLength();
+}
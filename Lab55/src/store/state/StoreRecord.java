@@ -0,0 +1,172 @@
+package store.state;
+
+/**
+ * Immutable snapshot of a {@link StoreState} right after an event has been
+ * executed, published on the state's event bus once per event.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public final class StoreRecord {
+
+	/**
+	 * Description of the event of a customer arriving at the store.
+	 */
+	public static final String ARRIVE = "Arrive";
+
+	private final double time;
+	private final String eventDescription;
+	private final String customerDescription;
+	private final int customerId;
+	private final boolean storeIsOpen;
+	private final int registersOpen;
+	private final double checkoutFreeTime;
+	private final int customersInTotal;
+	private final int customersPayed;
+	private final int customersDeniedEntry;
+	private final double queueTime;
+	private final int customersInQueue;
+
+	StoreRecord(StoreState state) {
+		this.time = state.getElapsedTime();
+		this.eventDescription = state.getEventDescription();
+		this.customerDescription = state.getCustomerDescription();
+		this.customerId = state.getCustomerIdWhoPerformedEvent();
+		this.storeIsOpen = state.storeIsOpen();
+		this.registersOpen = state.getRegistersOpen();
+		this.checkoutFreeTime = state.getCheckoutFreeTime();
+		this.customersInTotal = state.getCustomersInTotal();
+		this.customersPayed = state.getCustomersPayed();
+		this.customersDeniedEntry = state.getCustomersDeniedEntry();
+		this.queueTime = state.getQueueTime();
+		this.customersInQueue = state.getCustomersInQueue();
+	}
+
+	/**
+	 * Create a record from its values, for example when reading a stored trace.
+	 *
+	 * @param time                 time of event
+	 * @param eventDescription     name of event
+	 * @param customer             who performed the event, or null
+	 * @param storeIsOpen          whether the store was open
+	 * @param registersOpen        number of free registers
+	 * @param checkoutFreeTime     total time registers have been free
+	 * @param customersInTotal     number of customers who have entered
+	 * @param customersPayed       number of customers who have paid
+	 * @param customersDeniedEntry number of customers turned away
+	 * @param queueTime            total time customers have queued
+	 * @param customersInQueue     number of customers in the checkout queue
+	 */
+	public StoreRecord(double time, String eventDescription, String customer, boolean storeIsOpen,
+			int registersOpen, double checkoutFreeTime, int customersInTotal, int customersPayed,
+			int customersDeniedEntry, double queueTime, int customersInQueue) {
+		this(time, eventDescription, customer, StoreState.NO_CUSTOMER, storeIsOpen, registersOpen, checkoutFreeTime,
+				customersInTotal, customersPayed, customersDeniedEntry, queueTime, customersInQueue);
+	}
+
+	StoreRecord(double time, String eventDescription, String customerDescription, int customerId,
+			boolean storeIsOpen, int registersOpen, double checkoutFreeTime, int customersInTotal,
+			int customersPayed, int customersDeniedEntry, double queueTime, int customersInQueue) {
+		this.time = time;
+		this.eventDescription = eventDescription;
+		this.customerDescription = customerDescription;
+		this.customerId = customerId;
+		this.storeIsOpen = storeIsOpen;
+		this.registersOpen = registersOpen;
+		this.checkoutFreeTime = checkoutFreeTime;
+		this.customersInTotal = customersInTotal;
+		this.customersPayed = customersPayed;
+		this.customersDeniedEntry = customersDeniedEntry;
+		this.queueTime = queueTime;
+		this.customersInQueue = customersInQueue;
+	}
+
+	/**
+	 * Get time the event was executed at.
+	 *
+	 * @return time of event
+	 */
+	public double getTime() {
+		return time;
+	}
+
+	public String getEventDescription() {
+		return eventDescription;
+	}
+
+	/**
+	 * Determine if the event was a customer arriving while the store was open,
+	 * whether or not the customer was let in. The state does not count these
+	 * customers, views count them from the records.
+	 *
+	 * @return true if a customer arrived
+	 */
+	public boolean isArrival() {
+		return storeIsOpen && ARRIVE.equals(eventDescription);
+	}
+
+	/**
+	 * Get who performed the event, as shown in the view.
+	 *
+	 * @return customer, or null if the event was not performed by a customer
+	 */
+	public String getCustomer() {
+		if (customerDescription == null && customerId != StoreState.NO_CUSTOMER) {
+			return Integer.toString(customerId);
+		}
+		return customerDescription;
+	}
+
+	/**
+	 * Get the description of who performed the event, if it was not a customer
+	 * identified by id.
+	 *
+	 * @return description, or null
+	 */
+	public String getCustomerDescription() {
+		return customerDescription;
+	}
+
+	/**
+	 * Get the id of the customer who performed the event.
+	 *
+	 * @return customer id, or {@link StoreState#NO_CUSTOMER}
+	 */
+	public int getCustomerId() {
+		return customerId;
+	}
+
+	public boolean storeIsOpen() {
+		return storeIsOpen;
+	}
+
+	public int getRegistersOpen() {
+		return registersOpen;
+	}
+
+	public double getCheckoutFreeTime() {
+		return checkoutFreeTime;
+	}
+
+	public int getCustomersInTotal() {
+		return customersInTotal;
+	}
+
+	public int getCustomersPayed() {
+		return customersPayed;
+	}
+
+	public int getCustomersDeniedEntry() {
+		return customersDeniedEntry;
+	}
+
+	public double getQueueTime() {
+		return queueTime;
+	}
+
+	public int getCustomersInQueue() {
+		return customersInQueue;
+	}
+}
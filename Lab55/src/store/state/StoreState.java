@@ -1,7 +1,11 @@
 package store.state;
 
+import java.util.Arrays;
 import simulator.Event;
+import simulator.EventBus;
 import simulator.EventQueue;
+import simulator.TimeWeightedStatistic;
+import store.time.RateFunction;
 import store.time.StoreTime;
 
 /**
@@ -12,6 +16,11 @@ import store.time.StoreTime;
  */
 public class StoreState extends simulator.SimState {
 
+	/**
+	 * Customer id used for events that are not performed by a customer.
+	 */
+	public static final int NO_CUSTOMER = Event.NO_USER;
+
 	// Constants
 	private final long TIME_SEED;
 	private final int MAX_CUSTOMERS;
@@ -27,21 +36,34 @@ public class StoreState extends simulator.SimState {
 	private int customersPayed;
 	private int customersInTotal;
 	private int customersVisited;
-	private int customersInQueue;
 	private int customersDeniedEntry;
 
 	// Checkout statistics
 	private int registersOpen;
-	private double queueTime;
-	private double checkoutFreeTime;
+
+	// Time-weighted statistics, told about every change of the variables
+	private final TimeWeightedStatistic queueLength = new TimeWeightedStatistic();
+	private final TimeWeightedStatistic customersInStore = new TimeWeightedStatistic();
+	private final TimeWeightedStatistic busyRegisters;
+	private final TimeWeightedStatistic freeRegisters = new TimeWeightedStatistic();
 	
 	// Event descriptions
 	private String eventDescription;
 	private String customerWhoPerformedEvent;
+	private int customerIdWhoPerformedEvent = NO_CUSTOMER;
 
 	private boolean storeIsOpen;
+	private long nextArrival = EventQueue.NO_HANDLE;
+
+	private final EventBus<StoreRecord> eventBus = new EventBus<>();
+	private AsyncStoreListener[] asyncListeners = new AsyncStoreListener[0];
 
-	private FIFO<Customer> checkOutQueue;
+	// Per-customer statistics, and the times of customers still in the store
+	private final CustomerStatistics customerStatistics = new CustomerStatistics();
+	private final CustomerTable customers = new CustomerTable();
+	private StoreMetrics metrics;
+
+	private IntFIFO checkOutQueue;
 	private StoreTime storeTime;
 	private CreateCustomer customerSpawn;
 
@@ -61,10 +83,44 @@ public class StoreState extends simulator.SimState {
 	public StoreState(long TIME_SEED, int MAX_CUSTOMERS, int MAX_REGISTERS, double TIME_STORE_CLOSE,
 			double ARRIVAL_SPEED, double MIN_PICKING_TIME, double MAX_PICKING_TIME, double MIN_CHECKOUT_TIME,
 			double MAX_CHECKOUT_TIME, EventQueue eventQueue) {
+		this(TIME_SEED, MAX_CUSTOMERS, MAX_REGISTERS, TIME_STORE_CLOSE, null, ARRIVAL_SPEED, MIN_PICKING_TIME,
+				MAX_PICKING_TIME, MIN_CHECKOUT_TIME, MAX_CHECKOUT_TIME, eventQueue);
+	}
+
+	/**
+	 * Construct an instance of StoreState where customers arrive at a rate that
+	 * changes with the time of day. The arrival speed is the mean rate while the
+	 * store is open.
+	 * 
+	 * @param TIME_SEED         Seed to generate random number
+	 * @param MAX_CUSTOMERS     Maximum number of costumers allowed in store at once
+	 * @param MAX_REGISTERS     Maximum number of registers available in store
+	 * @param TIME_STORE_CLOSE  At what time store closes
+	 * @param ARRIVAL_RATE      Rate of which costumers arrive at
+	 * @param MIN_PICKING_TIME  Minimum time a costumer can pick items in
+	 * @param MAX_PICKING_TIME  Maximum time a costumer can pick items in
+	 * @param MIN_CHECKOUT_TIME Minimum time a costumer can checkout in
+	 * @param MAX_CHECKOUT_TIME Maximum time a costumer can checkout in
+	 */
+	public StoreState(long TIME_SEED, int MAX_CUSTOMERS, int MAX_REGISTERS, double TIME_STORE_CLOSE,
+			RateFunction ARRIVAL_RATE, double MIN_PICKING_TIME, double MAX_PICKING_TIME, double MIN_CHECKOUT_TIME,
+			double MAX_CHECKOUT_TIME, EventQueue eventQueue) {
+		this(TIME_SEED, MAX_CUSTOMERS, MAX_REGISTERS, TIME_STORE_CLOSE, ARRIVAL_RATE,
+				ARRIVAL_RATE.mean(TIME_STORE_CLOSE), MIN_PICKING_TIME, MAX_PICKING_TIME, MIN_CHECKOUT_TIME,
+				MAX_CHECKOUT_TIME, eventQueue);
+	}
+
+	private StoreState(long TIME_SEED, int MAX_CUSTOMERS, int MAX_REGISTERS, double TIME_STORE_CLOSE,
+			RateFunction ARRIVAL_RATE, double ARRIVAL_SPEED, double MIN_PICKING_TIME, double MAX_PICKING_TIME,
+			double MIN_CHECKOUT_TIME, double MAX_CHECKOUT_TIME, EventQueue eventQueue) {
 		super(eventQueue);
 
-		this.storeTime = new StoreTime(ARRIVAL_SPEED, TIME_SEED);
-		this.checkOutQueue = new FIFO<Customer>();
+		this.storeTime = ARRIVAL_RATE == null
+				? new StoreTime(ARRIVAL_SPEED, MIN_PICKING_TIME, MAX_PICKING_TIME, MIN_CHECKOUT_TIME,
+						MAX_CHECKOUT_TIME, TIME_SEED)
+				: new StoreTime(ARRIVAL_RATE, MIN_PICKING_TIME, MAX_PICKING_TIME, MIN_CHECKOUT_TIME,
+						MAX_CHECKOUT_TIME, TIME_SEED);
+		this.checkOutQueue = new IntFIFO();
 		this.customerSpawn = new CreateCustomer();
 
 		this.TIME_SEED = TIME_SEED;
@@ -76,15 +132,18 @@ public class StoreState extends simulator.SimState {
 		this.MAX_PICKING_TIME = MAX_PICKING_TIME;
 		this.MIN_CHECKOUT_TIME = MIN_CHECKOUT_TIME;
 		this.MAX_CHECKOUT_TIME = MAX_CHECKOUT_TIME;
+		// Every register is free until the first customer gets to one
+		this.registersOpen = MAX_REGISTERS;
+		this.busyRegisters = new TimeWeightedStatistic(0, MAX_REGISTERS - registersOpen);
 	}
 
 	/**
-	 * Create a new customer
+	 * Create a new customer, represented only by its id.
 	 *
-	 * @return newCustomer() method
+	 * @return id of new customer
 	 */
-	public Customer createNewCustomer() {
-		return customerSpawn.newCustomer();
+	public int createNewCustomerId() {
+		return customerSpawn.nextId();
 	}
 
 	/**
@@ -102,11 +161,10 @@ public class StoreState extends simulator.SimState {
 	 *
 	 * @throws OpenRegisterFailedException else
 	 */
-	public void openNewRegister() {
+	public void openNewRegister(double time) {
 		if (registersOpen < MAX_REGISTERS) {
-			setChanged();
-			notifyObservers();
 			registersOpen++;
+			updateRegisters(time);
 		} else {
 			// TODO: throw new OpenRegisterFailedException()
 		}
@@ -118,11 +176,10 @@ public class StoreState extends simulator.SimState {
 	 *
 	 * @throws CloseRegisterFailedException else.
 	 */
-	public void closeOneRegister() {
+	public void closeOneRegister(double time) {
 		if (registersOpen > 0) {
-			setChanged();
-			notifyObservers();
 			registersOpen--;
+			updateRegisters(time);
 		} else {
 			// TODO: throw new CloseRegisterFailedException()
 		}
@@ -141,11 +198,10 @@ public class StoreState extends simulator.SimState {
 	 * The store is closed and doesn't accept new customers. Change storeIsOpen to
 	 * false.
 	 */
-	public void closeStore() {
+	public void closeStore(double time) {
 		if (storeIsOpen) {
-			setChanged();
-			notifyObservers();
 			storeIsOpen = false;
+			updateRegisters(time);
 		}
 	}
 
@@ -154,21 +210,49 @@ public class StoreState extends simulator.SimState {
 	 *
 	 * StoreIsOpen change to true.
 	 */
-	public void openStore() {
+	public void openStore(double time) {
 		if (!storeIsOpen) {
-			setChanged();
-			notifyObservers();
 			storeIsOpen = true;
+			updateRegisters(time);
 		}
 	}
 
+	/**
+	 * Tell the register statistics about a change. Free registers count while
+	 * the store is open and, after closing, until the last customer has left.
+	 */
+	private void updateRegisters(double time) {
+		busyRegisters.set(time, MAX_REGISTERS - registersOpen);
+		freeRegisters.set(time, storeIsOpen || customersInStore.getValue() > 0 ? registersOpen : 0);
+	}
+
+	/**
+	 * Get the handle of the next scheduled customer arrival.
+	 *
+	 * @return handle in the event queue, or {@link EventQueue#NO_HANDLE}
+	 */
+	public long getNextArrival() {
+		return nextArrival;
+	}
+
+	/**
+	 * Remember the next scheduled customer arrival, so it can be cancelled when
+	 * the store closes.
+	 *
+	 * @param handle handle in the event queue
+	 */
+	public void setNextArrival(long handle) {
+		this.nextArrival = handle;
+	}
+
 	/**
 	 * Increase the number of customers who couldn't enter the store by one.
 	 */
 	public void increaseCustomerDeniedByOne() {
-		setChanged();
-		notifyObservers();
 		customersDeniedEntry++;
+		if (metrics != null) {
+			metrics.customerDenied();
+		}
 	}
 
 	public StoreTime getStoreTime() {
@@ -176,11 +260,11 @@ public class StoreState extends simulator.SimState {
 	}
 
 	/**
-	 * Get the number of customers who wait on the queue to pay their things.
+	 * Get the ids of the customers who wait on the queue to pay their things.
 	 *
 	 * @return checkOutQueue
 	 */
-	public FIFO<Customer> getCheckoutQueue() {
+	public IntFIFO getCheckoutQueue() {
 		return checkOutQueue;
 	}
 
@@ -203,8 +287,7 @@ public class StoreState extends simulator.SimState {
 	}
 
 	/**
-	 * Get the number of the customers which can be accepted in the store in the
-	 * moment
+	 * Get the number of registers that are free for the next customer.
 	 *
 	 * @return registersOpen
 	 */
@@ -223,20 +306,29 @@ public class StoreState extends simulator.SimState {
 
 	/**
 	 * Get the first customer who waits in the check out queue for paying his things
+	 * and remove the customer from the queue. The customer goes to a register.
 	 *
-	 * @return getFirst()
-	 */
-	public Customer getFirst() {
-		return checkOutQueue.getFirst();
+	 * @param time time the customer leaves the queue
+	 * @return row of first customer in queue in the {@link CustomerTable}
+	 */
+	public int getFirst(double time) {
+		int customer = checkOutQueue.getFirst();
+		queueLength.add(time, -1);
+		if (metrics != null) {
+			metrics.customerLeftQueue();
+		}
+		customers.setCheckoutTime(customer, time);
+		return customer;
 	}
 
 	/**
 	 * Get queue time between two customers.
 	 *
-	 * @return timeNextCustomer()
+	 * @param now time of the previous arrival, or when the store opens
+	 * @return timeNextCustomer(now), infinite if nobody arrives any more
 	 */
-	public double getTimeNextCustomer() {
-		return storeTime.timeNextCustomer();
+	public double getTimeNextCustomer(double now) {
+		return storeTime.timeNextCustomer(now);
 	}
 
 	/**
@@ -260,12 +352,119 @@ public class StoreState extends simulator.SimState {
 	/**
 	 * Add new customer in pay queue
 	 *
-	 * @param customer
+	 * @param customer row of customer, from {@link #customerEntered(int, double)}
+	 * @param time     time the customer joins the queue
 	 */
-	public void addCustomerInPayoutLine(Customer customer) {
-		setChanged();
-		notifyObservers();
+	public void addCustomerInPayoutLine(int customer, double time) {
 		checkOutQueue.add(customer);
+		queueLength.add(time, 1);
+		if (metrics != null) {
+			metrics.customerQueued();
+		}
+		customers.setQueueTime(customer, time);
+		customerStatistics.customerQueued();
+	}
+
+	/**
+	 * Remember when a customer was let into the store.
+	 *
+	 * @param customerId id of customer
+	 * @param time       time the customer entered
+	 * @return row of the customer in the {@link CustomerTable}, which stands for
+	 *         the customer until the customer has payed
+	 */
+	public int customerEntered(int customerId, double time) {
+		int customer = customers.add(customerId, time);
+		customersInStore.add(time, 1);
+		updateRegisters(time);
+		if (metrics != null) {
+			metrics.customerEntered();
+		}
+		return customer;
+	}
+
+	/**
+	 * Remember when a customer was done picking items.
+	 *
+	 * @param customer row of customer
+	 * @param time     time the customer was done
+	 */
+	public void customerPicked(int customer, double time) {
+		customers.setPickTime(customer, time);
+	}
+
+	/**
+	 * Remember when a customer went straight to a free register without
+	 * queueing.
+	 *
+	 * @param customer row of customer
+	 * @param time     time the customer got to the register
+	 */
+	public void customerAtRegister(int customer, double time) {
+		customers.setCheckoutTime(customer, time);
+	}
+
+	/**
+	 * Count a customer who has payed, and add how long the customer queued and
+	 * was in the store to the per-customer statistics.
+	 *
+	 * @param customer row of customer, free for another customer afterwards
+	 * @param time     time the customer payed
+	 */
+	public void customerPayed(int customer, double time) {
+		if (!customers.contains(customer)) {
+			throw new IllegalStateException("Customer in row " + customer + " payed without entering");
+		}
+		double queueTime = customers.getWaitingTime(customer);
+		double storeTime = time - customers.getArrivalTime(customer);
+		customers.remove(customer);
+		customersPayed++;
+		customersInStore.add(time, -1);
+		updateRegisters(time);
+		if (metrics != null) {
+			metrics.customerPayed();
+		}
+		customerStatistics.customerPayed(time, queueTime, storeTime);
+	}
+
+	/**
+	 * Feed live customer counts from this store from now on.
+	 *
+	 * @param metrics metrics to feed, possibly shared with other stores, or null
+	 *                to stop
+	 */
+	public void setMetrics(StoreMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Get how long customers queued and were in the store.
+	 *
+	 * @return per-customer statistics
+	 */
+	public CustomerStatistics getCustomerStatistics() {
+		return customerStatistics;
+	}
+
+	/**
+	 * Get the customers in the store, with the times each of them entered,
+	 * picked, queued and got to a register.
+	 *
+	 * @return table of customers, indexed by the rows events refer to
+	 */
+	public CustomerTable getCustomers() {
+		return customers;
+	}
+
+	/**
+	 * Get the id of a customer, also after the customer has payed until another
+	 * customer has entered.
+	 *
+	 * @param customer row of customer
+	 * @return id of customer
+	 */
+	public int getCustomerId(int customer) {
+		return customers.getId(customer);
 	}
 
 	/**
@@ -365,7 +564,7 @@ public class StoreState extends simulator.SimState {
 	 * @return customersInQueue
 	 */
 	public int getCustomersInQueue() {
-		return customersInQueue;
+		return (int) queueLength.getValue();
 	}
 
 	/**
@@ -379,50 +578,69 @@ public class StoreState extends simulator.SimState {
 
 
 	/**
-	 * Get the time while the checkout was empty
+	 * Get the total time registers have been free, while the store was open or
+	 * had customers, up to the last event.
 	 *
-	 * @return checkoutFreeTime
+	 * @return free register time
 	 */
-
 	public double getCheckoutFreeTime() {
-		return checkoutFreeTime;
+		return freeRegisters.getArea(elapsedTime);
+	}
+
+	/**
+	 * Get the length of the checkout queue over time.
+	 *
+	 * @return time-weighted queue length
+	 */
+	public TimeWeightedStatistic getQueueLength() {
+		return queueLength;
 	}
 
 	/**
-	 * Update the time when the checkout is down.
+	 * Get the number of customers in the store over time.
 	 *
-	 * @param deadRegisterTime
+	 * @return time-weighted number of customers in store
 	 */
-	public void uppdateRegistersDownTime(double deadRegisterTime) {
-		setChanged();
-		notifyObservers();
-		checkoutFreeTime += deadRegisterTime;
+	public TimeWeightedStatistic getCustomersInStore() {
+		return customersInStore;
 	}
 
 	/**
-	 * Update the time that spent in queue
+	 * Get the number of busy registers over time.
 	 *
-	 * @param peopleInQueueTime
+	 * @return time-weighted number of busy registers
 	 */
-	public void uppdateCustomersInQueueTime(double peopleInQueueTime) {
-		setChanged();
-		notifyObservers();
-		queueTime += peopleInQueueTime;
+	public TimeWeightedStatistic getBusyRegisters() {
+		return busyRegisters;
+	}
+
+	/**
+	 * Get the number of free registers over time, 0 while they don't count as
+	 * free, see {@link #getCheckoutFreeTime()}.
+	 *
+	 * @return time-weighted number of free registers
+	 */
+	public TimeWeightedStatistic getFreeRegisters() {
+		return freeRegisters;
 	}
 
 	@Override
 	public void runSim() {
-		setChanged();
-		notifyObservers();
 		startSimulator();
 	}
 	//FOR VIEW
 	public double getCheckOutFreeTime() {
-		return checkoutFreeTime;
+		return getCheckoutFreeTime();
 	} 
 	
+	/**
+	 * Get the total time customers have spent in the checkout queue, up to the
+	 * last event.
+	 *
+	 * @return area under the queue length
+	 */
 	public double getQueueTime() {
-		return queueTime;
+		return queueLength.getArea(elapsedTime);
 	} 
 	public double getElapsedTime() {
 		return elapsedTime;
@@ -431,36 +649,116 @@ public class StoreState extends simulator.SimState {
 		return eventDescription;
 	}
 	public String getCustomerWhoPerformedEvent() {
+		if (customerWhoPerformedEvent == null && customerIdWhoPerformedEvent != NO_CUSTOMER) {
+			return Integer.toString(customerIdWhoPerformedEvent);
+		}
 		return customerWhoPerformedEvent;
 	}
+
+	String getCustomerDescription() {
+		return customerWhoPerformedEvent;
+	}
+
+	int getCustomerIdWhoPerformedEvent() {
+		return customerIdWhoPerformedEvent;
+	}
 	
 	
 
 	@Override
 	public void updateState(Event event) {
+		updateState(event.getExTime(), event.getEventDescription(), event.getEventUserDescription(),
+				event.getEventUserId());
+	}
+
+	/**
+	 * Update the state for an event performed by a customer, without the event
+	 * being an {@link Event} object.
+	 *
+	 * @param time             time the event was executed
+	 * @param eventDescription description of event
+	 * @param customerId       customer who performed the event, or
+	 *                         {@link #NO_CUSTOMER}
+	 */
+	public void updateState(double time, String eventDescription, int customerId) {
+		updateState(time, eventDescription, null, customerId);
+	}
+
+	/**
+	 * Update the state for an event, without the event being an {@link Event}
+	 * object.
+	 *
+	 * @param time                 time the event was executed
+	 * @param eventDescription     description of event
+	 * @param eventUserDescription who performed the event
+	 */
+	public void updateState(double time, String eventDescription, String eventUserDescription) {
+		updateState(time, eventDescription, eventUserDescription, NO_CUSTOMER);
+	}
+
+	private void updateState(double time, String eventDescription, String eventUserDescription, int customerId) {
 		// TIME
 		
-		// Updates registers wasted time
-		if (storeIsOpen) {
-			checkoutFreeTime += registersOpen * (event.getExTime() - elapsedTime);
-		}
-
-		// Updates time that people have been standing in the queue
-		queueTime += customersInQueue * (event.getExTime() - elapsedTime);
+		// Free register and queue time are added up by their statistics as the
+		// variables change.
 
 		// Sets time to be the time that the event was executed.
-		elapsedTime += event.getExTime()-elapsedTime;
+		elapsedTime += time - elapsedTime;
 		
 		//DESCRIPTION OF EVENT
 		
 		// Updates event that occured
-		eventDescription = event.getEventDescription();
+		this.eventDescription = eventDescription;
 		
 		// Updates which customer who performed the event.
-		customerWhoPerformedEvent = event.getEventUserDescription();
-		
-		setChanged();
-		notifyObservers();
+		this.customerWhoPerformedEvent = eventUserDescription;
+		this.customerIdWhoPerformedEvent = customerId;
+
+		// One record per event, and none at all when nobody listens.
+		if (eventBus.hasListeners()) {
+			eventBus.publish(new StoreRecord(this));
+		}
+		for (AsyncStoreListener listener : asyncListeners) {
+			listener.publish(this);
+		}
+	}
+
+	/**
+	 * Publish the last record at the stop time, the same as a stop event at
+	 * that time.
+	 */
+	@Override
+	public void stoppedAt(double time) {
+		updateState(time, null, null, NO_CUSTOMER);
+	}
+
+	/**
+	 * Get the bus the record of every event is published on.
+	 *
+	 * @return event bus of this store
+	 */
+	public EventBus<StoreRecord> getEventBus() {
+		return eventBus;
+	}
+
+	/**
+	 * Hand the state after every event to a listener on a thread of its own,
+	 * which builds the records there. Nothing is published on the event bus for
+	 * it, so no record is built on the simulation thread.
+	 *
+	 * @param listener listener to add
+	 */
+	public void subscribeAsync(AsyncStoreListener listener) {
+		asyncListeners = Arrays.copyOf(asyncListeners, asyncListeners.length + 1);
+		asyncListeners[asyncListeners.length - 1] = listener;
+	}
+
+	@Override
+	public void endSim() {
+		eventBus.end();
+		for (AsyncStoreListener listener : asyncListeners) {
+			listener.onEnd();
+		}
 	}
 
 }
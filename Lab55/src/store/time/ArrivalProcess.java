@@ -0,0 +1,22 @@
+package store.time;
+
+/**
+ * Process that customers arrive by, asked for one arrival at a time in order
+ * of time.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public interface ArrivalProcess {
+
+	/**
+	 * Get the time from now until the next arrival.
+	 *
+	 * @param now time of the previous arrival, or when the process starts,
+	 *            never earlier than on the previous call
+	 * @return time until next arrival, infinite if nobody arrives any more
+	 */
+	double next(double now);
+}
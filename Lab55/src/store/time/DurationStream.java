@@ -0,0 +1,20 @@
+package store.time;
+
+/**
+ * Source of durations, such as how long customers pick items or check out,
+ * asked for one duration at a time.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public interface DurationStream {
+
+	/**
+	 * Get the next duration.
+	 *
+	 * @return duration
+	 */
+	double next();
+}
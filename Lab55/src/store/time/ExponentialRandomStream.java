@@ -8,27 +8,27 @@
  */
 package store.time;
 
-import java.util.Random;
-
 /**
  * 
  * This class is used for computing the next arrival time of an event.
+ * Variates are drawn in blocks by a {@link VariateBuffer}.
  *
  */
 
-public class ExponentialRandomStream {
+public class ExponentialRandomStream implements ArrivalProcess, DurationStream {
+
+	private final VariateBuffer variates;
 
-	private Random rand;
-	private double lambda;
+	public ExponentialRandomStream(double lambda, Xoshiro256 rand) {
+		this.variates = VariateBuffer.exponential(lambda, rand, VariateBuffer.DEFAULT_SIZE);
+	}
 
 	public ExponentialRandomStream(double lambda, long seed) {
-		rand = new Random(seed);
-		this.lambda = lambda;
+		this(lambda, new Xoshiro256(seed));
 	}
 
 	public ExponentialRandomStream(double lambda) {
-		rand = new Random();
-		this.lambda = lambda;
+		this(lambda, new Xoshiro256());
 	}
 	
 	/**
@@ -36,7 +36,16 @@ public class ExponentialRandomStream {
 	 * @return the double value that is needed for the event time.
 	 */
 
+	@Override
 	public double next() {
-		return -Math.log(rand.nextDouble()) / lambda;
+		return variates.next();
+	}
+
+	/**
+	 * Arrivals at a constant rate do not depend on the time.
+	 */
+	@Override
+	public double next(double now) {
+		return next();
 	}
 }
@@ -0,0 +1,38 @@
+package store.time;
+
+/**
+ * Poisson arrivals whose rate changes with time, as given by a
+ * {@link RateFunction}. Arrivals are generated by inversion: a unit
+ * exponential variate is added to the expected number of arrivals so far, and
+ * the next arrival is when the integral of the rate reaches the sum. Every
+ * arrival costs one variate whatever the rate, so unlike thinning nothing is
+ * drawn in vain however much the peak rate exceeds the quiet hours.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public final class PoissonArrivals implements ArrivalProcess {
+	private final RateFunction rate;
+	private final VariateBuffer variates;
+	private int segment;
+
+	/**
+	 * Create the arrival process.
+	 *
+	 * @param rate arrival rate
+	 * @param rand generator to draw from, owned by the process from now on
+	 */
+	public PoissonArrivals(RateFunction rate, Xoshiro256 rand) {
+		this.rate = rate;
+		this.variates = VariateBuffer.exponential(1, rand, VariateBuffer.DEFAULT_SIZE);
+	}
+
+	@Override
+	public double next(double now) {
+		segment = rate.segment(now, segment);
+		double next = rate.inverse(rate.cumulative(now, segment) + variates.next(), segment);
+		return next - now;
+	}
+}
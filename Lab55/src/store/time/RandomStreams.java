@@ -0,0 +1,44 @@
+package store.time;
+
+/**
+ * Hands out independent random streams for the stochastic processes of one
+ * simulation, such as arrivals, picking and checkout, so drawing more numbers
+ * for one process never changes the numbers of another.
+ *
+ * All streams of a seed come from one {@link Xoshiro256} generator started
+ * from the seed, and each is {@code 2^128} draws further along its period
+ * than the one before, so the streams of a simulation never overlap and the
+ * same seed always gives the same streams. Different seeds start at unrelated
+ * points of the {@code 2^256 - 1} long period, so replications with different
+ * seeds, consecutive ones included, overlap only with negligible
+ * probability.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public final class RandomStreams {
+	private final Xoshiro256 next;
+
+	/**
+	 * Create a factory of the streams of a seed.
+	 *
+	 * @param seed seed of the simulation
+	 */
+	public RandomStreams(long seed) {
+		this.next = new Xoshiro256(seed);
+	}
+
+	/**
+	 * Get the next stream. The n-th call always gives the same stream for the
+	 * same seed.
+	 *
+	 * @return new stream
+	 */
+	public Xoshiro256 next() {
+		Xoshiro256 stream = next.copy();
+		next.jump();
+		return stream;
+	}
+}
@@ -0,0 +1,168 @@
+package store.time;
+
+import java.util.Arrays;
+
+/**
+ * Arrival rate that changes with the time of day, given by its value at a
+ * number of times from time 0. Between two of them the rate is either the
+ * value at the earlier time, for a piecewise-constant rate, or goes linearly
+ * from one value to the next, for a piecewise-linear rate. After the last
+ * time it stays at the last value. Instances are immutable and can be shared
+ * by simulations running in parallel.
+ *
+ * The expected number of arrivals up to a time, the integral of the rate, is
+ * kept at every time given, so it and its inverse cost a table lookup and at
+ * most a square root, see {@link PoissonArrivals}.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public final class RateFunction {
+	private final double[] times;
+	private final double[] rates;
+	private final boolean linear;
+	// Integral of the rate from 0 to times[i]
+	private final double[] cumulative;
+
+	private RateFunction(double[] times, double[] rates, boolean linear) {
+		if (times.length == 0 || times.length != rates.length) {
+			throw new IllegalArgumentException("Need as many rates as times, and at least one");
+		}
+		if (times[0] != 0) {
+			throw new IllegalArgumentException("First time must be 0: " + times[0]);
+		}
+		for (int i = 0; i < times.length; i++) {
+			if (i > 0 && !(times[i] > times[i - 1]) || Double.isInfinite(times[i])) {
+				throw new IllegalArgumentException("Times must be finite and increasing: " + Arrays.toString(times));
+			}
+			if (!(rates[i] >= 0) || Double.isInfinite(rates[i])) {
+				throw new IllegalArgumentException("Rates must be finite and not negative: " + Arrays.toString(rates));
+			}
+		}
+		this.times = times.clone();
+		this.rates = rates.clone();
+		this.linear = linear;
+		this.cumulative = new double[times.length];
+		for (int i = 1; i < times.length; i++) {
+			double length = times[i] - times[i - 1];
+			cumulative[i] = cumulative[i - 1]
+					+ (linear ? (rates[i - 1] + rates[i]) / 2 * length : rates[i - 1] * length);
+		}
+	}
+
+	/**
+	 * Create a rate that holds each value until the next time.
+	 *
+	 * @param times times the rate changes at, increasing from 0
+	 * @param rates rate from each time on
+	 * @return rate function
+	 */
+	public static RateFunction piecewiseConstant(double[] times, double[] rates) {
+		return new RateFunction(times, rates, false);
+	}
+
+	/**
+	 * Create a rate that goes linearly from each value to the next.
+	 *
+	 * @param times times the rate is known at, increasing from 0
+	 * @param rates rate at each time
+	 * @return rate function
+	 */
+	public static RateFunction piecewiseLinear(double[] times, double[] rates) {
+		return new RateFunction(times, rates, true);
+	}
+
+	/**
+	 * Get the rate at a time.
+	 *
+	 * @param time time, not negative
+	 * @return rate
+	 */
+	public double rate(double time) {
+		int i = segment(time, 0);
+		return rates[i] + slope(i) * (time - times[i]);
+	}
+
+	/**
+	 * Get the expected number of arrivals from time 0 to a time.
+	 *
+	 * @param time time, not negative
+	 * @return integral of the rate
+	 */
+	public double cumulative(double time) {
+		return cumulative(time, segment(time, 0));
+	}
+
+	/**
+	 * Get the mean rate from time 0 to a time.
+	 *
+	 * @param time time, positive
+	 * @return mean rate
+	 */
+	public double mean(double time) {
+		return time > 0 ? cumulative(time) / time : rates[0];
+	}
+
+	/**
+	 * Get the integral of the rate up to a time in a segment.
+	 */
+	double cumulative(double time, int segment) {
+		double d = time - times[segment];
+		return cumulative[segment] + (rates[segment] + slope(segment) * d / 2) * d;
+	}
+
+	/**
+	 * Get the time the integral of the rate reaches a value, starting the
+	 * search at a segment that ends after that time.
+	 *
+	 * @return time, infinite if the rate stays 0 before it is reached
+	 */
+	double inverse(double value, int segment) {
+		int i = segment;
+		while (i + 1 < times.length && cumulative[i + 1] <= value) {
+			i++;
+		}
+		double remaining = value - cumulative[i];
+		double rate = rates[i];
+		double slope = slope(i);
+		double d;
+		if (slope == 0) {
+			if (rate == 0) {
+				return Double.POSITIVE_INFINITY;
+			}
+			d = remaining / rate;
+		} else {
+			// Root of slope / 2 * d^2 + rate * d = remaining, without cancellation
+			d = 2 * remaining / (rate + Math.sqrt(Math.max(0, rate * rate + 2 * slope * remaining)));
+		}
+		if (i + 1 < times.length) {
+			d = Math.min(d, times[i + 1] - times[i]);
+		}
+		return times[i] + d;
+	}
+
+	/**
+	 * Get the segment a time falls in, searching forward from a segment that
+	 * starts at or before it, so times that only grow cost O(1) on average.
+	 */
+	int segment(double time, int from) {
+		if (time < times[from]) {
+			int i = Arrays.binarySearch(times, time);
+			return Math.max(0, i >= 0 ? i : -i - 2);
+		}
+		int i = from;
+		while (i + 1 < times.length && times[i + 1] <= time) {
+			i++;
+		}
+		return i;
+	}
+
+	private double slope(int segment) {
+		if (!linear || segment + 1 == times.length) {
+			return 0;
+		}
+		return (rates[segment + 1] - rates[segment]) / (times[segment + 1] - times[segment]);
+	}
+}
@@ -10,29 +10,91 @@
 package store.time;
 
 public class StoreTime {
-	private ExponentialRandomStream randomExcept;
-	private UniformRandomStream randomUni;
+	private ArrivalProcess arrivals;
+	private DurationStream randomPick;
+	private DurationStream randomCheckOut;
 
 	/**
-	 * Construct a new Time Object
+	 * Construct a new Time Object. Arrivals, picking and checkout each draw from
+	 * a stream of their own from {@link RandomStreams}.
 	 * 
-	 * @param lambda
-	 * @param seed
+	 * @param lambda          arrival speed
+	 * @param minPickingTime  minimum time a customer picks items
+	 * @param maxPickingTime  maximum time a customer picks items
+	 * @param minCheckoutTime minimum time a customer checks out
+	 * @param maxCheckoutTime maximum time a customer checks out
+	 * @param seed            seed of all streams
 	 */
 
-	public StoreTime(double lambda, long seed) {
-		this.randomExcept = new ExponentialRandomStream(lambda, seed);
-		this.randomUni = new UniformRandomStream(lambda, seed);
+	public StoreTime(double lambda, double minPickingTime, double maxPickingTime, double minCheckoutTime,
+			double maxCheckoutTime, long seed) {
+		this(null, lambda, minPickingTime, maxPickingTime, minCheckoutTime, maxCheckoutTime, seed);
+	}
+
+	/**
+	 * Construct a new Time Object where customers arrive at a rate that changes
+	 * with time.
+	 * 
+	 * @param rate            arrival rate
+	 * @param minPickingTime  minimum time a customer picks items
+	 * @param maxPickingTime  maximum time a customer picks items
+	 * @param minCheckoutTime minimum time a customer checks out
+	 * @param maxCheckoutTime maximum time a customer checks out
+	 * @param seed            seed of all streams
+	 */
+	public StoreTime(RateFunction rate, double minPickingTime, double maxPickingTime, double minCheckoutTime,
+			double maxCheckoutTime, long seed) {
+		this(rate, 0, minPickingTime, maxPickingTime, minCheckoutTime, maxCheckoutTime, seed);
+	}
+
+	private StoreTime(RateFunction rate, double lambda, double minPickingTime, double maxPickingTime,
+			double minCheckoutTime, double maxCheckoutTime, long seed) {
+		RandomStreams streams = new RandomStreams(seed);
+		this.arrivals = rate == null ? new ExponentialRandomStream(lambda, streams.next())
+				: new PoissonArrivals(rate, streams.next());
+		this.randomPick = new UniformRandomStream(minPickingTime, maxPickingTime, streams.next());
+		this.randomCheckOut = new UniformRandomStream(minCheckoutTime, maxCheckoutTime, streams.next());
+
+	}
+
+	/**
+	 * Replace how customers arrive, for example with a {@link TraceArrivals}.
+	 * Must be called before the simulation starts.
+	 * 
+	 * @param arrivals new arrival process
+	 */
+	public void setArrivals(ArrivalProcess arrivals) {
+		this.arrivals = arrivals;
+	}
 
+	/**
+	 * Replace how long customers pick items, for example with a
+	 * {@link TraceDurations}. Must be called before the simulation starts.
+	 * 
+	 * @param pickTimes new pick times
+	 */
+	public void setPickTimes(DurationStream pickTimes) {
+		this.randomPick = pickTimes;
+	}
+
+	/**
+	 * Replace how long customers check out, for example with a
+	 * {@link TraceDurations}. Must be called before the simulation starts.
+	 * 
+	 * @param checkOutTimes new checkout times
+	 */
+	public void setCheckOutTimes(DurationStream checkOutTimes) {
+		this.randomCheckOut = checkOutTimes;
 	}
 
 	/**
 	 * Returns time for next customer to arrive
 	 * 
-	 * @Return time for next customer
+	 * @param now time of the previous arrival, or when the store opens
+	 * @Return time from now until the next customer
 	 */
-	public double timeNextCustomer() {
-		return randomExcept.next();
+	public double timeNextCustomer(double now) {
+		return arrivals.next(now);
 
 	}
 
@@ -42,7 +104,7 @@ public class StoreTime {
 	 * @return duration for a pick event
 	 */
 	public double timeCustomerPick() {
-		return randomUni.next();
+		return randomPick.next();
 
 	}
 
@@ -52,6 +114,6 @@ public class StoreTime {
 	 * @return time duration for a checkout event
 	 */
 	public double timeCustomerCheckOut() {
-		return randomUni.next();
+		return randomCheckOut.next();
 	}
 }
@@ -0,0 +1,68 @@
+package store.time;
+
+/**
+ * Arrivals replayed from recorded arrival times, such as point-of-sale
+ * timestamps, instead of drawn at random. Only times in a window of the trace
+ * are replayed, with the start of the window at time 0 of the simulation, and
+ * they can be replayed faster than they happened.
+ *
+ * Times are expected in order. A time before the previous arrival arrives
+ * right after it. Times before the window are skipped as they are read, and
+ * nobody arrives after the first time past the window or after the end of
+ * the trace.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public final class TraceArrivals implements ArrivalProcess {
+	private final TraceFile times;
+	private final double from;
+	private final double to;
+	private final double speedUp;
+
+	/**
+	 * Replay all arrival times of a trace, with trace time 0 at simulation time
+	 * 0.
+	 *
+	 * @param times arrival times
+	 */
+	public TraceArrivals(TraceFile times) {
+		this(times, 0, Double.POSITIVE_INFINITY, 1);
+	}
+
+	/**
+	 * Replay the arrival times in a window of a trace.
+	 *
+	 * @param times   arrival times
+	 * @param from    first trace time to replay, simulation time 0
+	 * @param to      trace time to stop before
+	 * @param speedUp how many times faster than recorded to replay, 1 for real
+	 *                time
+	 */
+	public TraceArrivals(TraceFile times, double from, double to, double speedUp) {
+		if (!(speedUp > 0) || Double.isInfinite(speedUp)) {
+			throw new IllegalArgumentException("Speed-up must be positive: " + speedUp);
+		}
+		this.times = times;
+		this.from = from;
+		this.to = to;
+		this.speedUp = speedUp;
+	}
+
+	@Override
+	public double next(double now) {
+		while (times.hasNext()) {
+			double time = times.next();
+			if (time < from) {
+				continue;
+			}
+			if (time >= to) {
+				break;
+			}
+			return Math.max(0, (time - from) / speedUp - now);
+		}
+		return Double.POSITIVE_INFINITY;
+	}
+}
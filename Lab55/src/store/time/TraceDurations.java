@@ -0,0 +1,51 @@
+package store.time;
+
+/**
+ * Durations replayed from recorded durations, such as how long customers took
+ * to check out, instead of drawn at random. The trace starts over from the
+ * beginning when it runs out, so a short trace can drive a long simulation.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public final class TraceDurations implements DurationStream {
+	private final TraceFile durations;
+	private final double speedUp;
+
+	/**
+	 * Replay durations as recorded.
+	 *
+	 * @param durations durations
+	 */
+	public TraceDurations(TraceFile durations) {
+		this(durations, 1);
+	}
+
+	/**
+	 * Replay durations faster than recorded.
+	 *
+	 * @param durations durations
+	 * @param speedUp   how many times shorter than recorded durations are, 1 for
+	 *                  real time
+	 */
+	public TraceDurations(TraceFile durations, double speedUp) {
+		if (!(speedUp > 0) || Double.isInfinite(speedUp)) {
+			throw new IllegalArgumentException("Speed-up must be positive: " + speedUp);
+		}
+		this.durations = durations;
+		this.speedUp = speedUp;
+	}
+
+	@Override
+	public double next() {
+		if (!durations.hasNext()) {
+			durations.rewind();
+			if (!durations.hasNext()) {
+				throw new IllegalStateException("Trace has no durations");
+			}
+		}
+		return durations.next() / speedUp;
+	}
+}
@@ -0,0 +1,325 @@
+package store.time;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+
+/**
+ * One column of numbers in a file of recorded times, such as point-of-sale
+ * timestamps, read in order without loading the file. The file is memory
+ * mapped a window of at most {@value #WINDOW} bytes at a time and numbers are
+ * parsed only when they are asked for, so files of any size take the same
+ * small heap.
+ *
+ * A CSV file has one record per line with comma separated columns. A first
+ * line that is not a number in the column is taken as a header and skipped,
+ * and so are empty lines. A line must fit in a window. A binary file is a
+ * sequence of records of big-endian IEEE doubles, as written by
+ * {@link java.io.DataOutput#writeDouble(double)}, with the same number of
+ * columns each. A binary file that ends in the middle of a record ends before
+ * it.
+ *
+ * Reading problems during a simulation are thrown as
+ * {@link UncheckedIOException}.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public final class TraceFile implements Closeable {
+	static final int WINDOW = 1 << 26;
+
+	// Powers of ten a double holds exactly
+	private static final double[] POWERS_OF_TEN = new double[23];
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+		}
+	}
+
+	private final Path path;
+	private final FileChannel channel;
+	private final long size;
+	private final boolean csv;
+	private final int column;
+	private final int recordSize;
+
+	private MappedByteBuffer window;
+	private long windowStart;
+	private int position;
+	// Line at the position, counted from 0
+	private long line;
+
+	private TraceFile(Path path, boolean csv, int columns, int column) throws IOException {
+		if (columns < 1 || column < 0 || (!csv && column >= columns)) {
+			throw new IllegalArgumentException("Column " + column + " out of range");
+		}
+		this.path = path;
+		this.channel = FileChannel.open(path, StandardOpenOption.READ);
+		this.size = channel.size();
+		this.csv = csv;
+		this.column = column;
+		this.recordSize = columns * Double.BYTES;
+		map(0);
+	}
+
+	/**
+	 * Open a column of a CSV file.
+	 *
+	 * @param path   file to read
+	 * @param column column to read, 0 for the first
+	 * @return trace
+	 * @throws IOException if the file can't be opened
+	 */
+	public static TraceFile csv(Path path, int column) throws IOException {
+		return new TraceFile(path, true, column + 1, column);
+	}
+
+	/**
+	 * Open a column of a binary file.
+	 *
+	 * @param path    file to read
+	 * @param columns number of doubles per record
+	 * @param column  column to read, 0 for the first
+	 * @return trace
+	 * @throws IOException if the file can't be opened
+	 */
+	public static TraceFile binary(Path path, int columns, int column) throws IOException {
+		return new TraceFile(path, false, columns, column);
+	}
+
+	/**
+	 * Determine if there are more numbers.
+	 *
+	 * @return true if {@link #next()} will return a number
+	 */
+	public boolean hasNext() {
+		if (!csv) {
+			return windowStart + position + recordSize <= size;
+		}
+		int b = peek();
+		while (b == '\n' || b == '\r') {
+			if (b == '\n') {
+				line++;
+			}
+			position++;
+			b = peek();
+		}
+		return b >= 0;
+	}
+
+	/**
+	 * Get the next number.
+	 *
+	 * @return next number in the column
+	 * @throws NoSuchElementException if the file has ended
+	 */
+	public double next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException("End of trace " + path);
+		}
+		if (!csv) {
+			if (position + recordSize > window.limit()) {
+				map(windowStart + position);
+			}
+			double value = window.getDouble(position + column * Double.BYTES);
+			position += recordSize;
+			return value;
+		}
+		while (true) {
+			int end = lineEnd();
+			long number = line;
+			try {
+				double value = parseColumn(position, end);
+				position = end;
+				return value;
+			} catch (NumberFormatException e) {
+				position = end;
+				if (number > 0) {
+					throw new UncheckedIOException(
+							new IOException("Malformed number on line " + (number + 1) + " of " + path, e));
+				}
+				// A header, go on with the next line
+				if (!hasNext()) {
+					throw new NoSuchElementException("End of trace " + path);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Start over from the beginning of the file.
+	 */
+	public void rewind() {
+		map(0);
+		line = 0;
+	}
+
+	@Override
+	public void close() throws IOException {
+		window = null;
+		channel.close();
+	}
+
+	/**
+	 * Get the byte at the position, mapping the next window when the position
+	 * has reached the end of this one.
+	 *
+	 * @return byte, -1 at the end of the file
+	 */
+	private int peek() {
+		if (position == window.limit()) {
+			if (windowStart + position >= size) {
+				return -1;
+			}
+			map(windowStart + position);
+		}
+		return window.get(position);
+	}
+
+	/**
+	 * Get the end of the line at the position, mapping a window that starts at
+	 * the line if it does not fit in this one.
+	 */
+	private int lineEnd() {
+		int end = find(position);
+		if (end == window.limit() && windowStart + end < size) {
+			map(windowStart + position);
+			end = find(0);
+			if (end == window.limit() && windowStart + end < size) {
+				throw new UncheckedIOException(
+						new IOException("Line " + (line + 1) + " of " + path + " is longer than " + WINDOW + " bytes"));
+			}
+		}
+		return end;
+	}
+
+	private int find(int from) {
+		int limit = window.limit();
+		for (int i = from; i < limit; i++) {
+			if (window.get(i) == '\n') {
+				return i;
+			}
+		}
+		return limit;
+	}
+
+	private double parseColumn(int from, int to) {
+		int start = from;
+		for (int c = 0; c < column; c++) {
+			while (start < to && window.get(start) != ',') {
+				start++;
+			}
+			if (start == to) {
+				throw new NumberFormatException("Missing column " + column);
+			}
+			start++;
+		}
+		int end = start;
+		while (end < to && window.get(end) != ',') {
+			end++;
+		}
+		while (start < end && isBlank(window.get(start))) {
+			start++;
+		}
+		while (end > start && isBlank(window.get(end - 1))) {
+			end--;
+		}
+		return parse(start, end);
+	}
+
+	private static boolean isBlank(byte b) {
+		return b == ' ' || b == '\t' || b == '\r' || b == '"';
+	}
+
+	/**
+	 * Parse a decimal number. Numbers with at most 18 significant digits whose
+	 * value is an integer below 2^53 times a power of ten up to 10^22 are
+	 * computed with a single correctly rounded multiplication or division,
+	 * which gives the same double as {@link Double#parseDouble(String)}. Other
+	 * numbers are handed to it.
+	 */
+	private double parse(int from, int to) {
+		int i = from;
+		boolean negative = false;
+		if (i < to && (window.get(i) == '-' || window.get(i) == '+')) {
+			negative = window.get(i) == '-';
+			i++;
+		}
+		long mantissa = 0;
+		int digits = 0;
+		int exponent = 0;
+		boolean any = false;
+		boolean slow = false;
+		boolean fraction = false;
+		for (; i < to; i++) {
+			byte b = window.get(i);
+			if (b >= '0' && b <= '9') {
+				any = true;
+				if (digits < 18) {
+					mantissa = mantissa * 10 + (b - '0');
+					if (mantissa != 0) {
+						digits++;
+					}
+					if (fraction) {
+						exponent--;
+					}
+				} else {
+					slow = true;
+				}
+			} else if (b == '.' && !fraction) {
+				fraction = true;
+			} else {
+				break;
+			}
+		}
+		if (any && i < to && (window.get(i) == 'e' || window.get(i) == 'E')) {
+			i++;
+			boolean negativeExponent = false;
+			if (i < to && (window.get(i) == '-' || window.get(i) == '+')) {
+				negativeExponent = window.get(i) == '-';
+				i++;
+			}
+			int e = 0;
+			boolean anyExponent = false;
+			for (; i < to && window.get(i) >= '0' && window.get(i) <= '9'; i++) {
+				e = Math.min(e * 10 + (window.get(i) - '0'), 100_000);
+				anyExponent = true;
+			}
+			if (!anyExponent) {
+				slow = true;
+			}
+			exponent += negativeExponent ? -e : e;
+		}
+		if (!any || i != to) {
+			slow = true;
+		}
+		if (!slow && mantissa < 1L << 53 && Math.abs(exponent) < POWERS_OF_TEN.length) {
+			double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+			return negative ? -value : value;
+		}
+		byte[] text = new byte[to - from];
+		window.get(from, text);
+		return Double.parseDouble(new String(text, StandardCharsets.US_ASCII));
+	}
+
+	private void map(long start) {
+		try {
+			window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW, size - start));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		window.order(ByteOrder.BIG_ENDIAN);
+		windowStart = start;
+		position = 0;
+	}
+}
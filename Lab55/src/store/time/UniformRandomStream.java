@@ -9,34 +9,33 @@
 
 package store.time;
 
-import java.util.Random;
-
 /**
- * This class is used for computing the time of an event.
+ * This class is used for computing the time of an event. Variates are drawn in
+ * blocks by a {@link VariateBuffer}.
  */
-public class UniformRandomStream {
+public class UniformRandomStream implements DurationStream {
+
+	private final VariateBuffer variates;
 
-	private Random rand;
-	private double lower, width;
+	public UniformRandomStream(double lower, double upper, Xoshiro256 rand) {
+		this.variates = VariateBuffer.uniform(lower, upper, rand, VariateBuffer.DEFAULT_SIZE);
+	}
 
 	public UniformRandomStream(double lower, double upper, long seed) {
-		rand = new Random(seed);
-		this.lower = lower;
-		this.width = upper - lower;
+		this(lower, upper, new Xoshiro256(seed));
 	}
 
 	public UniformRandomStream(double lower, double upper) {
-		rand = new Random();
-		this.lower = lower;
-		this.width = upper - lower;
+		this(lower, upper, new Xoshiro256());
 	}
 
 	/**
 	 * 
 	 * @return the double value that is needed for the events
 	 */
+	@Override
 	public double next() {
-		return lower + rand.nextDouble() * width;
+		return variates.next();
 	}
 
 }
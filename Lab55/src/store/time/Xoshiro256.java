@@ -0,0 +1,122 @@
+package store.time;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The xoshiro256++ pseudo-random number generator of Blackman and Vigna. It is
+ * much faster than {@link java.util.Random}, which is safe to share between
+ * threads and pays for an atomic update on every draw, and has a period of
+ * {@code 2^256 - 1}. A generator must not be shared between threads.
+ *
+ * {@link #jump()} moves the generator {@code 2^128} draws ahead, which splits
+ * the period into that many streams that never overlap, see
+ * {@link RandomStreams}.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public final class Xoshiro256 {
+	private static final long[] JUMP = { 0x180ec6d33cfd0abaL, 0xd5a61266f0c9392cL, 0xa9582618e03fc9aaL,
+			0x39abdc4529b1661cL };
+
+	private long s0;
+	private long s1;
+	private long s2;
+	private long s3;
+
+	/**
+	 * Create a generator with an unpredictable seed.
+	 */
+	public Xoshiro256() {
+		this(ThreadLocalRandom.current().nextLong());
+	}
+
+	/**
+	 * Create a generator whose state is filled by SplitMix64 from a seed, so
+	 * similar seeds give unrelated generators.
+	 *
+	 * @param seed seed
+	 */
+	public Xoshiro256(long seed) {
+		long x = seed;
+		s0 = mix(x += 0x9e3779b97f4a7c15L);
+		s1 = mix(x += 0x9e3779b97f4a7c15L);
+		s2 = mix(x += 0x9e3779b97f4a7c15L);
+		s3 = mix(x += 0x9e3779b97f4a7c15L);
+	}
+
+	private Xoshiro256(Xoshiro256 other) {
+		s0 = other.s0;
+		s1 = other.s1;
+		s2 = other.s2;
+		s3 = other.s3;
+	}
+
+	/**
+	 * Get the next 64 random bits.
+	 *
+	 * @return random long
+	 */
+	public long nextLong() {
+		long result = Long.rotateLeft(s0 + s3, 23) + s0;
+		long t = s1 << 17;
+		s2 ^= s0;
+		s3 ^= s1;
+		s1 ^= s2;
+		s0 ^= s3;
+		s2 ^= t;
+		s3 = Long.rotateLeft(s3, 45);
+		return result;
+	}
+
+	/**
+	 * Get a random double, evenly spread in {@code [0, 1)} with 53 bits.
+	 *
+	 * @return random double
+	 */
+	public double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+
+	/**
+	 * Get a copy of this generator that will draw the same numbers.
+	 *
+	 * @return copy
+	 */
+	public Xoshiro256 copy() {
+		return new Xoshiro256(this);
+	}
+
+	/**
+	 * Move this generator {@code 2^128} draws ahead.
+	 */
+	public void jump() {
+		long t0 = 0;
+		long t1 = 0;
+		long t2 = 0;
+		long t3 = 0;
+		for (long word : JUMP) {
+			for (int bit = 0; bit < 64; bit++) {
+				if ((word & (1L << bit)) != 0) {
+					t0 ^= s0;
+					t1 ^= s1;
+					t2 ^= s2;
+					t3 ^= s3;
+				}
+				nextLong();
+			}
+		}
+		s0 = t0;
+		s1 = t1;
+		s2 = t2;
+		s3 = t3;
+	}
+
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -0,0 +1,85 @@
+package store.time;
+
+/**
+ * Standard exponential variates by the ziggurat method of Marsaglia and Tsang,
+ * with 256 layers. About 98.9% of variates cost one random long, a table
+ * lookup, a compare and a multiply, with no logarithm. The rest fall in a
+ * wedge or the tail and take a few more draws.
+ *
+ * The tables are those of the paper, with 53 bit instead of 32 bit integers,
+ * so variates have the resolution of a double.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+final class Ziggurat {
+	// Start of the tail and area of every layer
+	private static final double R = 7.697117470131487;
+	private static final double V = 3.949659822581572e-3;
+	private static final double SCALE = 0x1.0p53;
+
+	// Accept x = j * W[i] outright when j < K[i], F[i] = exp(-x_i)
+	private static final long[] K = new long[256];
+	private static final double[] W = new double[256];
+	private static final double[] F = new double[256];
+
+	static {
+		double d = R;
+		double t = R;
+		double q = V / Math.exp(-d);
+		K[0] = (long) ((d / q) * SCALE);
+		K[1] = 0;
+		W[0] = q / SCALE;
+		W[255] = d / SCALE;
+		F[0] = 1;
+		F[255] = Math.exp(-d);
+		for (int i = 254; i >= 1; i--) {
+			d = -Math.log(V / d + Math.exp(-d));
+			K[i + 1] = (long) ((d / t) * SCALE);
+			t = d;
+			F[i] = Math.exp(-d);
+			W[i] = d / SCALE;
+		}
+	}
+
+	private Ziggurat() {
+	}
+
+	/**
+	 * Draw an exponential variate with mean 1.
+	 *
+	 * @param rand generator to draw from
+	 * @return variate
+	 */
+	static double next(Xoshiro256 rand) {
+		long u = rand.nextLong();
+		// The low 8 bits pick the layer and the high 53 bits the point in it.
+		int i = (int) u & 255;
+		long j = u >>> 11;
+		if (j < K[i]) {
+			return j * W[i];
+		}
+		return slow(rand, i, j);
+	}
+
+	private static double slow(Xoshiro256 rand, int i, long j) {
+		while (true) {
+			if (i == 0) {
+				// The exponential is memoryless, so the tail is R plus a new variate.
+				return R - Math.log(1 - rand.nextDouble());
+			}
+			double x = j * W[i];
+			if (F[i] + rand.nextDouble() * (F[i - 1] - F[i]) < Math.exp(-x)) {
+				return x;
+			}
+			long u = rand.nextLong();
+			i = (int) u & 255;
+			j = u >>> 11;
+			if (j < K[i]) {
+				return j * W[i];
+			}
+		}
+	}
+}
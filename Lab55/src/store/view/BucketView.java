@@ -0,0 +1,224 @@
+package store.view;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import simulator.SimView;
+import store.state.StoreRecord;
+import store.state.StoreState;
+
+/**
+ * View of a store simulation that writes one row per fixed-width interval of
+ * simulated time instead of one row per event, for simulations too long to
+ * follow event by event.
+ *
+ * Records are folded into the interval being filled as they arrive, and an
+ * interval is written once the time of a record has passed its end, so the
+ * view uses the same memory and writes the same number of rows no matter how
+ * many events there are. Intervals without events are written too. Every row
+ * holds the number of customers who arrived, payed and were denied entry in
+ * the interval, the mean length of the checkout queue, and the fraction of
+ * register time that was free while the store was open. The last interval is
+ * written when the simulation ends, and covers only the time up to the last
+ * event.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public class BucketView extends SimView<StoreRecord> {
+
+	private final String newLine = "\r\n";
+	private final String headerFormat = "%10s %10s %9s %8s %8s %10s %10s" + newLine;
+	private final String format = "%10.2f %10.2f %9d %8d %8d %10.3f %10.3f" + newLine;
+	private final double width;
+	private final int maxRegisters;
+
+	private PrintWriter out;
+	private boolean closeOut;
+	private boolean started;
+
+	// Interval being filled, and how far into it the levels have been added up
+	private long bucket;
+	private double time;
+	private int arrivals;
+	private int payments;
+	private int denials;
+	private double queueArea;
+	private double freeArea;
+
+	// State after the last record
+	private boolean seen;
+	private boolean storeIsOpen;
+	private int registersOpen;
+	private int customersInQueue;
+	private int customersArrived;
+	private int customersPayed;
+	private int customersDeniedEntry;
+
+	/**
+	 * Create a view that writes to the console. Subscribe with
+	 * {@code state.getEventBus().subscribe(view)}.
+	 *
+	 * @param state state to view
+	 * @param width length of an interval in simulated time
+	 */
+	public BucketView(StoreState state, double width) {
+		this(state, width, new PrintWriter(System.out));
+	}
+
+	/**
+	 * Create a view that writes to a sink, which is flushed but not closed when
+	 * the simulation ends.
+	 *
+	 * @param state state to view
+	 * @param width length of an interval in simulated time
+	 * @param sink  where to write
+	 */
+	public BucketView(StoreState state, double width, Writer sink) {
+		if (!(width > 0) || Double.isInfinite(width)) {
+			throw new IllegalArgumentException("Interval width must be positive: " + width);
+		}
+		this.width = width;
+		this.maxRegisters = state.getMAX_REGISTERS();
+		this.out = sink instanceof PrintWriter ? (PrintWriter) sink : new PrintWriter(sink);
+	}
+
+	@Override
+	public void onRecords(List<? extends StoreRecord> records) {
+		start();
+		for (StoreRecord record : records) {
+			double now = record.getTime();
+			if (!seen) {
+				seen = true;
+				bucket = (long) Math.floor(now / width);
+				time = bucket * width;
+			}
+			advance(now);
+
+			if (record.isArrival()) {
+				arrivals++;
+				customersArrived++;
+			}
+			payments += record.getCustomersPayed() - customersPayed;
+			denials += record.getCustomersDeniedEntry() - customersDeniedEntry;
+			storeIsOpen = record.storeIsOpen();
+			registersOpen = record.getRegistersOpen();
+			customersInQueue = record.getCustomersInQueue();
+			customersPayed = record.getCustomersPayed();
+			customersDeniedEntry = record.getCustomersDeniedEntry();
+		}
+	}
+
+	@Override
+	public void onEnd() {
+		start();
+		double from = bucket * width;
+		if (seen && (time > from || arrivals != 0 || payments != 0 || denials != 0)) {
+			writeBucket(from, time);
+		}
+		out.println();
+		if (closeOut) {
+			out.close();
+		} else {
+			out.flush();
+		}
+	}
+
+	/**
+	 * Write to the console. Default for views created without a sink.
+	 */
+	@Override
+	public void printConsole() {
+		redirect(new PrintWriter(System.out), false);
+	}
+
+	/**
+	 * Write to a new file instead of the current sink. Must be called before the
+	 * simulation starts. Encoding is {@code UTF-8}.
+	 *
+	 * @param filePath  Path to file
+	 * @param overwrite Should a already existing file be overwritten.
+	 */
+	@Override
+	public void printFile(String filePath, boolean overwrite) {
+		File file = new File(filePath);
+		if (file.isDirectory() || (!overwrite && file.exists())) {
+			return;
+		}
+		try {
+			redirect(new PrintWriter(file, StandardCharsets.UTF_8), true);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void redirect(PrintWriter sink, boolean close) {
+		if (started) {
+			throw new IllegalStateException("Output can't be redirected once the simulation has started");
+		}
+		this.out = sink;
+		this.closeOut = close;
+	}
+
+	/**
+	 * Write the table header before anything else.
+	 */
+	private void start() {
+		if (!started) {
+			started = true;
+			out.format(headerFormat, "Från", "Till", "Ankomster", "Betalat", "Missade", "Kö, medel", "Ledig");
+		}
+	}
+
+	/**
+	 * Add up the levels until {@code now}, writing every interval that ends on
+	 * the way.
+	 */
+	private void advance(double now) {
+		double end = (bucket + 1) * width;
+		while (now >= end) {
+			accumulate(end);
+			writeBucket(bucket * width, end);
+			bucket++;
+			arrivals = 0;
+			payments = 0;
+			denials = 0;
+			queueArea = 0;
+			freeArea = 0;
+			end = (bucket + 1) * width;
+		}
+		accumulate(now);
+	}
+
+	private void accumulate(double until) {
+		double duration = until - time;
+		queueArea += customersInQueue * duration;
+		if (registersCount()) {
+			freeArea += registersOpen * duration;
+		}
+		time = until;
+	}
+
+	/**
+	 * Free register time counts while the store is open and, after closing,
+	 * until the last customer has left, as in the state.
+	 */
+	private boolean registersCount() {
+		int customersInStore = customersArrived - customersDeniedEntry - customersPayed;
+		return storeIsOpen || customersInStore > 0;
+	}
+
+	private void writeBucket(double from, double to) {
+		double duration = to - from;
+		double meanQueue = duration > 0 ? queueArea / duration : customersInQueue;
+		double free = maxRegisters == 0 ? 0 : duration > 0 ? freeArea / (maxRegisters * duration)
+				: registersCount() ? (double) registersOpen / maxRegisters : 0;
+		out.format(format, from, to, arrivals, payments, denials, meanQueue, free);
+	}
+}
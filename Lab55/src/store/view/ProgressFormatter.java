@@ -0,0 +1,182 @@
+package store.view;
+
+import java.io.PrintWriter;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import store.state.StoreRecord;
+import store.state.StoreState;
+
+/**
+ * Writes rows of the progress table of {@link StoreView} without allocating.
+ * The output is identical to formatting the row with
+ * {@code "%7s %-10s %4s %2s %4s | %5s %3s %3s %4s %5s | %5s %5s %s\r\n"}, with
+ * the time formatted by {@code new DecimalFormat("#.##")}, but the columns are
+ * written straight into a reused buffer and no format string is parsed.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public final class ProgressFormatter {
+
+	// Largest time rounded by hand, its hundredths stay well below 2^52
+	private static final double MAX_FAST_TIME = 1e13;
+
+	private final StringBuilder row = new StringBuilder(128);
+	private char[] chars = new char[128];
+	private final DecimalFormat timeFormat = new DecimalFormat("#.##");
+	private final char decimalSeparator;
+	private final char zeroDigit;
+
+	public ProgressFormatter() {
+		DecimalFormatSymbols symbols = timeFormat.getDecimalFormatSymbols();
+		this.decimalSeparator = symbols.getDecimalSeparator();
+		this.zeroDigit = symbols.getZeroDigit();
+	}
+
+	/**
+	 * Write the row of a record.
+	 *
+	 * @param record           record to write
+	 * @param customersArrived customers who have arrived so far, counted from
+	 *                         the records
+	 * @param out              where to write
+	 */
+	public void write(StoreRecord record, int customersArrived, PrintWriter out) {
+		row.setLength(0);
+		int start = row.length();
+		appendTime(record.getTime());
+		padLeft(start, 7);
+		row.append(' ');
+
+		start = row.length();
+		row.append(record.getEventDescription());
+		padRight(start, 10);
+		row.append(' ');
+
+		start = row.length();
+		String customer = record.getCustomerDescription();
+		if (customer != null) {
+			row.append(customer);
+		} else if (record.getCustomerId() != StoreState.NO_CUSTOMER) {
+			row.append(record.getCustomerId());
+		}
+		padLeft(start, 4);
+		row.append(' ');
+
+		start = row.length();
+		row.append(record.storeIsOpen() ? 'Ö' : 'S');
+		padLeft(start, 2);
+		row.append(' ');
+		appendInt(record.getRegistersOpen(), 4);
+		row.append(" | ");
+
+		start = row.length();
+		row.append(record.getCheckoutFreeTime());
+		padLeft(start, 5);
+		row.append(' ');
+		appendInt(customersArrived, 3);
+		row.append(' ');
+		appendInt(record.getCustomersPayed(), 3);
+		row.append(' ');
+		appendInt(record.getCustomersDeniedEntry(), 4);
+		row.append("     - | ");
+
+		start = row.length();
+		row.append(record.getQueueTime());
+		padLeft(start, 5);
+		row.append(' ');
+		appendInt(record.getCustomersInQueue(), 5);
+		row.append(" <Queue>\r\n");
+
+		int length = row.length();
+		if (chars.length < length) {
+			chars = new char[Math.max(length, 2 * chars.length)];
+		}
+		row.getChars(0, length, chars, 0);
+		out.write(chars, 0, length);
+	}
+
+	private void appendInt(int value, int width) {
+		int start = row.length();
+		row.append(value);
+		padLeft(start, width);
+	}
+
+	/**
+	 * Append a time as {@code DecimalFormat("#.##")} would, by hand for the
+	 * non-negative times a simulation has.
+	 */
+	private void appendTime(double time) {
+		long hundredths = hundredths(time);
+		if (hundredths < 0) {
+			row.append(timeFormat.format(time));
+			return;
+		}
+		int start = row.length();
+		long whole = hundredths / 100;
+		do {
+			row.append((char) (zeroDigit + whole % 10));
+			whole /= 10;
+		} while (whole != 0);
+		reverse(start, row.length());
+
+		int fraction = (int) (hundredths % 100);
+		if (fraction != 0) {
+			row.append(decimalSeparator).append((char) (zeroDigit + fraction / 10));
+			if (fraction % 10 != 0) {
+				row.append((char) (zeroDigit + fraction % 10));
+			}
+		}
+	}
+
+	private void reverse(int from, int to) {
+		for (to--; from < to; from++, to--) {
+			char c = row.charAt(from);
+			row.setCharAt(from, row.charAt(to));
+			row.setCharAt(to, c);
+		}
+	}
+
+	/**
+	 * Round a value to hundredths, half to even, as {@link DecimalFormat} does
+	 * with the exact binary value. The product {@code value * 100} is rounded,
+	 * so the exact remainders are taken with {@link Math#fma}, which rounds only
+	 * once and so never gets the sign wrong.
+	 *
+	 * @param value value to round
+	 * @return value in hundredths, or -1 for negative, infinite, NaN and huge
+	 *         values
+	 */
+	static long hundredths(double value) {
+		if (!(value >= 0) || value > MAX_FAST_TIME || Double.doubleToRawLongBits(value) != 0 && value == 0) {
+			return -1;
+		}
+		long n = (long) (value * 100);
+		if (Math.fma(value, 100, -n) < 0) {
+			n--;
+		} else if (Math.fma(value, 100, -(n + 1)) >= 0) {
+			n++;
+		}
+		double half = Math.fma(value, 100, -(n + 0.5));
+		if (half > 0 || (half == 0 && (n & 1) != 0)) {
+			n++;
+		}
+		return n;
+	}
+
+	private void padLeft(int start, int width) {
+		int missing = width - (row.length() - start);
+		for (int i = 0; i < missing; i++) {
+			row.insert(start, ' ');
+		}
+	}
+
+	private void padRight(int start, int width) {
+		int missing = width - (row.length() - start);
+		for (int i = 0; i < missing; i++) {
+			row.append(' ');
+		}
+	}
+}
@@ -10,54 +10,118 @@
 package store.view;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.PrintWriter;
-import java.text.DecimalFormat;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
-import java.util.Observable;
-import simulator.SimState;
+import java.util.List;
 import simulator.SimView;
+import simulator.Distribution;
+import store.state.CustomerStatistics;
+import store.state.StoreRecord;
 import store.state.StoreState;
 
 /**
+ * View of a store simulation. Parameters, one row per event and the results
+ * are written to a sink as the simulation runs, so the view uses the same
+ * memory no matter how long the simulation is. The sink is the console unless
+ * another one is given, or chosen with {@link #printFile(String, boolean)}
+ * before the simulation starts.
+ *
  * @author Rickard Bemm
  * @author Philip Eriksson
  * @author Nour Aldein Bahtite
  * @author Andr� Christofferson
  *
  */
-public class StoreView extends SimView {
+public class StoreView extends SimView<StoreRecord> {
 
 	private boolean progressHeaderGenerated = false;
 	private String newLine = "\r\n";
-	private String result;
+	private final String format = "%7s %-10s %4s %2s %4s | %5s %3s %3s %4s %5s | %5s %5s %s" + newLine;
+	private final ProgressFormatter progressFormatter = new ProgressFormatter();
+	private final String parameters;
+	private final int maxRegisters;
+	private final CustomerStatistics customers;
+	private StoreRecord last;
+	private int customersArrived;
+
+	private PrintWriter out;
+	private boolean closeOut;
+	private boolean started;
+
+	/**
+	 * Create a view that writes to the console. Subscribe with
+	 * {@code state.getEventBus().subscribe(view)}.
+	 *
+	 * @param state state to view
+	 */
+	public StoreView(StoreState state) {
+		this.parameters = generateParameters(state);
+		this.maxRegisters = state.getMAX_REGISTERS();
+		this.customers = state.getCustomerStatistics();
+		this.out = new PrintWriter(System.out);
+	}
+
+	/**
+	 * Create a view that writes to a sink, which is flushed but not closed when
+	 * the simulation ends.
+	 *
+	 * @param state state to view
+	 * @param sink  where to write, buffered if it is not already
+	 */
+	public StoreView(StoreState state, Writer sink) {
+		this.parameters = generateParameters(state);
+		this.maxRegisters = state.getMAX_REGISTERS();
+		this.customers = state.getCustomerStatistics();
+		this.out = new PrintWriter(sink);
+	}
 
 	@Override
-	public void update(Observable o, Object arg) {
-		result += generateProgress((StoreState) o);
-		if (!((SimState) o).simulatorIsRunning()) {
-			result += generateResult((StoreState) o);
-			printConsole();
+	public void onRecords(List<? extends StoreRecord> records) {
+		start();
+		for (StoreRecord record : records) {
+			if (record.isArrival()) {
+				customersArrived++;
+			}
+			writeProgress(record);
+			last = record;
 		}
 	}
 
-	public StoreView(StoreState state) {
-		this.result = generateParameters(state);
+	@Override
+	public void onEnd() {
+		start();
+		if (last != null) {
+			out.write(generateResult(last));
+		}
+		out.println();
+		if (closeOut) {
+			out.close();
+		} else {
+			out.flush();
+		}
 	}
 
 	/**
-	 * Print simulation parameters, progress and result to a console window.
+	 * Write simulation parameters, progress and result to the console. Default
+	 * for views created without a sink.
 	 */
 	@Override
 	public void printConsole() {
-		System.out.println(result);
+		redirect(new PrintWriter(System.out), false);
 	}
 
 	/**
-	 * Print simulation parameters, progress and result to a new file. Default
-	 * encoding is {@code UTF-8}.
+	 * Write simulation parameters, progress and result to a new file instead of
+	 * the current sink. Must be called before the simulation starts. Encoding is
+	 * {@code UTF-8}.
 	 * 
 	 * @param filePath  Path to file
 	 * @param overwrite Should a already existing file be overwritten.
+	 * @throws UncheckedIOException if the file can't be created
 	 */
 	@Override
 	public void printFile(String filePath, boolean overwrite) {
@@ -67,15 +131,31 @@ public class StoreView extends SimView {
 		}
 
 		try {
-			PrintWriter writer = new PrintWriter(file);
-			writer.println(result);
-			writer.close();
-		} catch (Exception e) {
-			// TODO: handle exception
+			redirect(new PrintWriter(file, StandardCharsets.UTF_8), true);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
 		}
 
 	}
 
+	private void redirect(PrintWriter sink, boolean close) {
+		if (started) {
+			throw new IllegalStateException("Output can't be redirected once the simulation has started");
+		}
+		this.out = sink;
+		this.closeOut = close;
+	}
+
+	/**
+	 * Write the parameters before anything else.
+	 */
+	private void start() {
+		if (!started) {
+			started = true;
+			out.write(parameters);
+		}
+	}
+
 	/**
 	 * Method to generate the paramaters for this simulation.
 	 * 
@@ -99,56 +179,63 @@ public class StoreView extends SimView {
 	}
 
 	/**
-	 * Method generates the event course of the simulation.
-	 * 
-	 * @return simulation event description
+	 * Method writes the event course of the simulation, one row per event.
 	 */
-	private String generateProgress(StoreState state) {
-		String format = "%7s %-10s %4s %2s %4s | %5s %3s %3s %4s %5s | %5s %5s %s"
-				+ newLine;
-		String result = "";
+	private void writeProgress(StoreRecord record) {
 		if (!progressHeaderGenerated) {
 			progressHeaderGenerated = true;
-			result += generateHeader("Förlopp");
-			result += String.format(format,
+			out.write(generateHeader("Förlopp"));
+			out.format(format,
 					new Object[] { "Tid", "Händelse", "Kund", "?", "led", "ledT", "I",
 							"$", ":-(", "köat", "köT", "köar", "[Kassakö..]" });
 		}
-		String customerId = state.getCustomerWhoPerformedEvent();
-
-		result += String.format(format,
-				new Object[] { new DecimalFormat("#.##").format(state.getElapsedTime()),
-						state.getEventDescription(), customerId == null ? "" : customerId,
-						state.storeIsOpen() ? "Ö" : "S", state.getRegistersOpen(),
-						state.getCheckoutFreeTime(), state.getCustomersInTotal(),
-						state.getCustomersPayed(), state.getCustomersDeniedEntry(), "-",
-						state.getQueueTime(), state.getCustomersInQueue(), "<Queue>" });
-		return result;
+		progressFormatter.write(record, customersArrived, out);
 	}
 
 	/**
-	 * Method generates statistics regarding how well the store is run.
+	 * Method generates statistics regarding how well the store is run. The
+	 * per-customer statistics are read from the state, which is finished by the
+	 * time the simulation has ended.
 	 * 
 	 * @return simulation results
 	 */
-	private String generateResult(StoreState state) {
+	private String generateResult(StoreRecord record) {
+		Distribution queueTimes = customers.getQueueTimes();
+		double averageFreeTime = maxRegisters > 0 ? record.getCheckoutFreeTime() / maxRegisters : 0;
+		double lastPayment = customers.getLastPaymentTime();
+
 		String result = generateHeader("Resultat");
 		result += MessageFormat.format(
 				"1) Av {0} kunder handlade {1} medan {2} missades \n",
-				state.getCustomersInTotal(), state.getCustomersPayed(),
-				state.getCustomersDeniedEntry());
+				customersArrived, record.getCustomersPayed(),
+				record.getCustomersDeniedEntry());
 		result += MessageFormat.format("2) Total tid {0} kassor varit lediga: {1} te. \n",
-				state.getMAX_REGISTERS(), state.getCheckoutFreeTime());
+				maxRegisters, record.getCheckoutFreeTime());
 		result += MessageFormat.format(
-				"\t Genomsnittlig ledig kassatid: {0} te (dvs {1} av tiden från öppning tills sista kunden betalat). \n",
-				"<KASSOR_LEDIG_TID_AVG>", "<PROCENT>");
+				"\t Genomsnittlig ledig kassatid: {0} te (dvs {1}% av tiden från öppning tills sista kunden betalat). \n",
+				averageFreeTime, lastPayment > 0 ? averageFreeTime / lastPayment * 100 : 0);
 		result += MessageFormat.format("3) Total tid {0} kunder tvingats köa: {1} te. \n",
-				state.getCustomersPayed(), "<TOTAL_KÖTID_FÖR_KUNDER");
+				customers.getCustomersQueued(), queueTimes.getSum());
 		result += MessageFormat.format("\tGenomsnittlig kötid: {0} te. \n",
-				"<KÖTID_AVG>");
+				queueTimes.getCount() > 0 ? queueTimes.getMean() : 0);
+		result += MessageFormat.format("4) Kötid per kund: {0} \n", describe(queueTimes));
+		result += MessageFormat.format("5) Tid i butiken per kund: {0} \n", describe(customers.getStoreTimes()));
 		return result;
 	}
 
+	/**
+	 * Describe a per-customer distribution on one line.
+	 */
+	private String describe(Distribution distribution) {
+		if (distribution.getCount() == 0) {
+			return "-";
+		}
+		return MessageFormat.format("medel {0}, std {1}, p50 {2}, p95 {3}, p99 {4}, max {5} te",
+				distribution.getMean(), distribution.getCount() > 1 ? distribution.getStandardDeviation() : 0,
+				distribution.getPercentile(50), distribution.getPercentile(95), distribution.getPercentile(99),
+				distribution.getMax());
+	}
+
 	/**
 	 * Method generates description of the current event.
 	 * 
@@ -0,0 +1,127 @@
+package store.view;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Variable length integer encoding shared by {@link TraceWriter} and
+ * {@link TraceReader}. Integers are zig-zag encoded so small negative values
+ * are small too, then written seven bits per byte, lowest bits first.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+final class TraceCodec {
+	static final int MAGIC = 0x53545243; // "STRC"
+	static final int VERSION = 2;
+	// Record count that marks the trailer instead of a chunk
+	static final int TRAILER = -1;
+	static final byte FLAG_COMPRESSED = 1;
+
+	private TraceCodec() {
+	}
+
+	static long zigZag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	static long unZigZag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * Get the customer id a string stands for, if it is the canonical decimal
+	 * form of a non-negative int.
+	 *
+	 * @return id, or -1 if the string is not an id
+	 */
+	static int parseId(String value) {
+		int length = value.length();
+		if (length == 0 || length > 9 || (length > 1 && value.charAt(0) == '0')) {
+			return -1;
+		}
+		int id = 0;
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			id = id * 10 + (c - '0');
+		}
+		return id;
+	}
+
+	static long readVarLong(ByteBuffer in) {
+		long value = 0;
+		int shift = 0;
+		while (true) {
+			byte b = in.get();
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+			shift += 7;
+		}
+	}
+
+	static String readString(ByteBuffer in) {
+		int length = (int) readVarLong(in);
+		byte[] bytes = new byte[length];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Growable byte array to encode a column into.
+	 */
+	static final class Sink {
+		private byte[] bytes = new byte[1024];
+		private int size;
+
+		void writeVarLong(long value) {
+			ensure(10);
+			while ((value & ~0x7FL) != 0) {
+				bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			bytes[size++] = (byte) value;
+		}
+
+		void writeString(String value) {
+			byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+			writeVarLong(encoded.length);
+			write(encoded, 0, encoded.length);
+		}
+
+		void write(byte[] source, int offset, int length) {
+			ensure(length);
+			System.arraycopy(source, offset, bytes, size, length);
+			size += length;
+		}
+
+		void write(Sink source) {
+			write(source.bytes, 0, source.size);
+		}
+
+		byte[] array() {
+			return bytes;
+		}
+
+		int size() {
+			return size;
+		}
+
+		void clear() {
+			size = 0;
+		}
+
+		private void ensure(int extra) {
+			if (size + extra > bytes.length) {
+				bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+			}
+		}
+	}
+}
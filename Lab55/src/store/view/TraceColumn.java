@@ -0,0 +1,51 @@
+package store.view;
+
+/**
+ * Columns of a binary store trace, in the order they are stored in every
+ * chunk. See {@link TraceWriter} for how each kind of column is encoded.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public enum TraceColumn {
+	TIME(Kind.DOUBLE), EVENT(Kind.STRING), CUSTOMER(Kind.STRING), STORE_OPEN(Kind.INTEGER),
+	REGISTERS_OPEN(Kind.INTEGER), CHECKOUT_FREE_TIME(Kind.DOUBLE), CUSTOMERS_IN_TOTAL(Kind.COUNTER),
+	CUSTOMERS_PAYED(Kind.COUNTER), CUSTOMERS_DENIED_ENTRY(Kind.COUNTER), QUEUE_TIME(Kind.DOUBLE),
+	CUSTOMERS_IN_QUEUE(Kind.INTEGER);
+
+	/**
+	 * How the values of a column are encoded.
+	 */
+	public enum Kind {
+		/**
+		 * Doubles, stored as the difference between the bits of consecutive
+		 * values. Exact, and small for slowly growing times.
+		 */
+		DOUBLE,
+		/**
+		 * Integers that only grow, stored as the difference to the previous value.
+		 */
+		COUNTER,
+		/**
+		 * Small integers, stored as they are.
+		 */
+		INTEGER,
+		/**
+		 * Strings, stored as codes into a dictionary per chunk. Customer ids are
+		 * stored as numbers rather than in the dictionary.
+		 */
+		STRING
+	}
+
+	private final Kind kind;
+
+	TraceColumn(Kind kind) {
+		this.kind = kind;
+	}
+
+	public Kind getKind() {
+		return kind;
+	}
+}
@@ -0,0 +1,446 @@
+package store.view;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import store.state.CustomerStatistics;
+import store.state.StoreRecord;
+
+/**
+ * Reader of a binary trace written by {@link TraceWriter}.
+ *
+ * The file is memory mapped in windows of whole chunks, at most
+ * {@value #WINDOW} bytes each unless a single chunk is larger, so traces of
+ * any size can be read. Only the chunk headers are read when it is opened, so
+ * opening is cheap and reading a single column decodes that column alone.
+ * Reading is not thread safe.
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public class TraceReader {
+	static final int WINDOW = 1 << 26;
+
+	private static final TraceColumn[] COLUMNS = TraceColumn.values();
+
+	// Bytes of the file header, from the magic number to the number of columns
+	private static final int HEADER_SIZE = 4 + 4 + 1 + 8 + 4 + 4 + 6 * 8 + 4;
+
+	private final boolean compressed;
+	private final long seed;
+	private final int maxCustomers;
+	private final int maxRegisters;
+	private final double timeStoreClose;
+	private final double arrivalSpeed;
+	private final double minPickingTime;
+	private final double maxPickingTime;
+	private final double minCheckoutTime;
+	private final double maxCheckoutTime;
+
+	// Mapped windows, and per chunk the number of records, the window and the
+	// offset of every column block in the window
+	private final MappedByteBuffer[] windows;
+	private final int[] chunkRecords;
+	private final int[] chunkWindows;
+	private final int[][] blockOffsets;
+	private final int recordCount;
+	private final CustomerStatistics customerStatistics;
+
+	private final Inflater inflater = new Inflater();
+	private byte[] inflated = new byte[0];
+
+	/**
+	 * Open a trace.
+	 *
+	 * @param file trace to open
+	 * @throws IOException if the file can't be read or is not a trace
+	 */
+	public TraceReader(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			Scan scan = new Scan(channel, size);
+			ByteBuffer buffer = scan.at(0, HEADER_SIZE);
+			if (buffer.getInt() != TraceCodec.MAGIC) {
+				throw new IOException("Not a trace: " + file);
+			}
+			int version = buffer.getInt();
+			if (version != TraceCodec.VERSION) {
+				throw new IOException("Unsupported trace version " + version + ": " + file);
+			}
+			compressed = (buffer.get() & TraceCodec.FLAG_COMPRESSED) != 0;
+			seed = buffer.getLong();
+			maxCustomers = buffer.getInt();
+			maxRegisters = buffer.getInt();
+			timeStoreClose = buffer.getDouble();
+			arrivalSpeed = buffer.getDouble();
+			minPickingTime = buffer.getDouble();
+			maxPickingTime = buffer.getDouble();
+			minCheckoutTime = buffer.getDouble();
+			maxCheckoutTime = buffer.getDouble();
+			int columns = buffer.getInt();
+			if (columns != COLUMNS.length) {
+				throw new IOException("Expected " + COLUMNS.length + " columns, got " + columns + ": " + file);
+			}
+
+			List<Integer> records = new ArrayList<>();
+			List<Integer> chunkWindowList = new ArrayList<>();
+			List<int[]> offsets = new ArrayList<>();
+			List<Long> windowStarts = new ArrayList<>();
+			List<Long> windowEnds = new ArrayList<>();
+			long windowStart = HEADER_SIZE;
+			long position = HEADER_SIZE;
+			long total = 0;
+			CustomerStatistics statistics = null;
+			while (position < size) {
+				long chunkStart = position;
+				int count = scan.at(position, 4).getInt();
+				position += 4;
+				if (count == TraceCodec.TRAILER) {
+					if (size - position > Integer.MAX_VALUE) {
+						throw new IOException("Trace trailer too large: " + file);
+					}
+					byte[] trailer = new byte[(int) (size - position)];
+					scan.at(position, trailer.length).get(trailer);
+					statistics = CustomerStatistics.read(new DataInputStream(new ByteArrayInputStream(trailer)));
+					break;
+				}
+				long[] chunkOffsets = new long[columns];
+				for (int i = 0; i < columns; i++) {
+					chunkOffsets[i] = position;
+					int stored = scan.at(position, 8).getInt();
+					if (stored < 0) {
+						throw new IOException("Corrupt block in chunk " + records.size() + ": " + file);
+					}
+					position += 8 + stored;
+				}
+				if (position > size) {
+					throw new EOFException();
+				}
+				// Start a new window at a chunk that does not fit in the current one
+				if (position - windowStart > WINDOW && chunkStart > windowStart) {
+					windowStarts.add(windowStart);
+					windowEnds.add(chunkStart);
+					windowStart = chunkStart;
+				}
+				if (position - windowStart > Integer.MAX_VALUE) {
+					throw new IOException("Chunk " + records.size() + " too large to map: " + file);
+				}
+				int[] relative = new int[columns];
+				for (int i = 0; i < columns; i++) {
+					relative[i] = (int) (chunkOffsets[i] - windowStart);
+				}
+				records.add(count);
+				chunkWindowList.add(windowStarts.size());
+				offsets.add(relative);
+				total += count;
+			}
+			if (!records.isEmpty()) {
+				windowStarts.add(windowStart);
+				windowEnds.add(position);
+			}
+			if (total > Integer.MAX_VALUE - 8) {
+				throw new IOException("Too many records in trace: " + file);
+			}
+			if (statistics == null) {
+				throw new IOException("Trace has no trailer, the simulation did not end: " + file);
+			}
+			windows = new MappedByteBuffer[windowStarts.size()];
+			for (int i = 0; i < windows.length; i++) {
+				long start = windowStarts.get(i);
+				windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, windowEnds.get(i) - start);
+			}
+			chunkRecords = records.stream().mapToInt(Integer::intValue).toArray();
+			chunkWindows = chunkWindowList.stream().mapToInt(Integer::intValue).toArray();
+			blockOffsets = offsets.toArray(new int[0][]);
+			recordCount = (int) total;
+			customerStatistics = statistics;
+		} catch (RuntimeException | EOFException e) {
+			// Buffer underflow or bad position, the file was cut short
+			throw new IOException("Truncated trace: " + file, e);
+		}
+	}
+
+	/**
+	 * Get the number of records in the trace.
+	 *
+	 * @return number of records
+	 */
+	public int getRecordCount() {
+		return recordCount;
+	}
+
+	/**
+	 * Get the per-customer statistics of the traced simulation.
+	 *
+	 * @return per-customer statistics
+	 */
+	public CustomerStatistics getCustomerStatistics() {
+		return customerStatistics;
+	}
+
+	/**
+	 * Get the number of chunks in the trace.
+	 *
+	 * @return number of chunks
+	 */
+	public int getChunkCount() {
+		return chunkRecords.length;
+	}
+
+	/**
+	 * Read a column of doubles for the whole trace.
+	 *
+	 * @param column column of kind {@link TraceColumn.Kind#DOUBLE}
+	 * @return one value per record
+	 */
+	public double[] readDoubles(TraceColumn column) {
+		checkKind(column, column.getKind() == TraceColumn.Kind.DOUBLE);
+		double[] values = new double[recordCount];
+		int offset = 0;
+		for (int chunk = 0; chunk < chunkRecords.length; chunk++) {
+			ByteBuffer in = block(chunk, column);
+			long bits = 0;
+			for (int i = 0; i < chunkRecords[chunk]; i++) {
+				bits += TraceCodec.unZigZag(TraceCodec.readVarLong(in));
+				values[offset++] = Double.longBitsToDouble(bits);
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * Read a column of integers for the whole trace.
+	 *
+	 * @param column column of kind {@link TraceColumn.Kind#COUNTER} or
+	 *               {@link TraceColumn.Kind#INTEGER}
+	 * @return one value per record
+	 */
+	public long[] readLongs(TraceColumn column) {
+		checkKind(column,
+				column.getKind() == TraceColumn.Kind.COUNTER || column.getKind() == TraceColumn.Kind.INTEGER);
+		long[] values = new long[recordCount];
+		int offset = 0;
+		for (int chunk = 0; chunk < chunkRecords.length; chunk++) {
+			decodeLongs(chunk, column, values, offset);
+			offset += chunkRecords[chunk];
+		}
+		return values;
+	}
+
+	/**
+	 * Read a column of strings for the whole trace.
+	 *
+	 * @param column column of kind {@link TraceColumn.Kind#STRING}
+	 * @return one value per record, null where the record had none
+	 */
+	public String[] readStrings(TraceColumn column) {
+		checkKind(column, column.getKind() == TraceColumn.Kind.STRING);
+		String[] values = new String[recordCount];
+		int offset = 0;
+		for (int chunk = 0; chunk < chunkRecords.length; chunk++) {
+			decodeStrings(chunk, column, values, offset);
+			offset += chunkRecords[chunk];
+		}
+		return values;
+	}
+
+	/**
+	 * Read all records of a chunk.
+	 *
+	 * @param chunk index of chunk
+	 * @return records of chunk, in the order they were written
+	 */
+	public List<StoreRecord> readChunk(int chunk) {
+		int count = chunkRecords[chunk];
+		double[][] doubles = new double[COLUMNS.length][];
+		long[][] longs = new long[COLUMNS.length][];
+		String[][] strings = new String[COLUMNS.length][];
+		for (TraceColumn column : COLUMNS) {
+			int i = column.ordinal();
+			switch (column.getKind()) {
+			case DOUBLE:
+				doubles[i] = new double[count];
+				long[] bits = new long[count];
+				decodeLongs(chunk, column, bits, 0);
+				for (int j = 0; j < count; j++) {
+					doubles[i][j] = Double.longBitsToDouble(bits[j]);
+				}
+				break;
+			case STRING:
+				strings[i] = new String[count];
+				decodeStrings(chunk, column, strings[i], 0);
+				break;
+			default:
+				longs[i] = new long[count];
+				decodeLongs(chunk, column, longs[i], 0);
+				break;
+			}
+		}
+
+		List<StoreRecord> records = new ArrayList<>(count);
+		for (int j = 0; j < count; j++) {
+			records.add(new StoreRecord(doubles[TraceColumn.TIME.ordinal()][j],
+					strings[TraceColumn.EVENT.ordinal()][j], strings[TraceColumn.CUSTOMER.ordinal()][j],
+					longs[TraceColumn.STORE_OPEN.ordinal()][j] != 0,
+					(int) longs[TraceColumn.REGISTERS_OPEN.ordinal()][j],
+					doubles[TraceColumn.CHECKOUT_FREE_TIME.ordinal()][j],
+					(int) longs[TraceColumn.CUSTOMERS_IN_TOTAL.ordinal()][j],
+					(int) longs[TraceColumn.CUSTOMERS_PAYED.ordinal()][j],
+					(int) longs[TraceColumn.CUSTOMERS_DENIED_ENTRY.ordinal()][j],
+					doubles[TraceColumn.QUEUE_TIME.ordinal()][j],
+					(int) longs[TraceColumn.CUSTOMERS_IN_QUEUE.ordinal()][j]));
+		}
+		return records;
+	}
+
+	/**
+	 * Decode a numeric column of a chunk. Doubles are decoded to their bits.
+	 */
+	private void decodeLongs(int chunk, TraceColumn column, long[] values, int offset) {
+		ByteBuffer in = block(chunk, column);
+		boolean delta = column.getKind() != TraceColumn.Kind.INTEGER;
+		long value = 0;
+		for (int i = 0; i < chunkRecords[chunk]; i++) {
+			long decoded = TraceCodec.unZigZag(TraceCodec.readVarLong(in));
+			value = delta ? value + decoded : decoded;
+			values[offset + i] = value;
+		}
+	}
+
+	private void decodeStrings(int chunk, TraceColumn column, String[] values, int offset) {
+		ByteBuffer in = block(chunk, column);
+		String[] dictionary = new String[(int) TraceCodec.readVarLong(in)];
+		for (int i = 0; i < dictionary.length; i++) {
+			dictionary[i] = TraceCodec.readString(in);
+		}
+		for (int i = 0; i < chunkRecords[chunk]; i++) {
+			long code = TraceCodec.readVarLong(in);
+			if (code == 0) {
+				values[offset + i] = null;
+			} else if ((code & 1) != 0) {
+				values[offset + i] = Long.toString(code >>> 1);
+			} else {
+				values[offset + i] = dictionary[(int) (code >>> 1) - 1];
+			}
+		}
+	}
+
+	/**
+	 * Get the decoded bytes of a column block. Uncompressed blocks are read
+	 * straight from the mapped file.
+	 */
+	private ByteBuffer block(int chunk, TraceColumn column) {
+		MappedByteBuffer buffer = windows[chunkWindows[chunk]];
+		int position = blockOffsets[chunk][column.ordinal()];
+		int stored = buffer.getInt(position);
+		int raw = buffer.getInt(position + 4);
+		ByteBuffer bytes = buffer.slice(position + 8, stored);
+		if (!compressed) {
+			return bytes;
+		}
+		if (inflated.length < raw) {
+			inflated = Arrays.copyOf(inflated, Math.max(raw, 2 * inflated.length));
+		}
+		inflater.reset();
+		inflater.setInput(bytes);
+		try {
+			int size = 0;
+			while (size < raw && !inflater.finished()) {
+				size += inflater.inflate(inflated, size, raw - size);
+			}
+		} catch (DataFormatException e) {
+			throw new IllegalStateException("Corrupt block in chunk " + chunk + ", column " + column, e);
+		}
+		return ByteBuffer.wrap(inflated, 0, raw);
+	}
+
+	/**
+	 * Reads the headers of a trace through a window of the file, mapped again
+	 * wherever the next header does not fit.
+	 */
+	private static final class Scan {
+		private final FileChannel channel;
+		private final long size;
+		private MappedByteBuffer window;
+		private long windowStart;
+
+		Scan(FileChannel channel, long size) {
+			this.channel = channel;
+			this.size = size;
+		}
+
+		/**
+		 * Get a buffer positioned at a position in the file, with at least some
+		 * bytes remaining.
+		 *
+		 * @throws EOFException if the file ends before the bytes
+		 */
+		ByteBuffer at(long position, int bytes) throws IOException {
+			if (position + bytes > size) {
+				throw new EOFException();
+			}
+			if (window == null || position < windowStart || position + bytes > windowStart + window.limit()) {
+				long length = Math.max(bytes, Math.min(WINDOW, size - position));
+				window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+				windowStart = position;
+			}
+			window.position((int) (position - windowStart));
+			return window;
+		}
+	}
+
+	private static void checkKind(TraceColumn column, boolean expected) {
+		if (!expected) {
+			throw new IllegalArgumentException("Column " + column + " is of kind " + column.getKind());
+		}
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public int getMaxCustomers() {
+		return maxCustomers;
+	}
+
+	public int getMaxRegisters() {
+		return maxRegisters;
+	}
+
+	public double getTimeStoreClose() {
+		return timeStoreClose;
+	}
+
+	public double getArrivalSpeed() {
+		return arrivalSpeed;
+	}
+
+	public double getMinPickingTime() {
+		return minPickingTime;
+	}
+
+	public double getMaxPickingTime() {
+		return maxPickingTime;
+	}
+
+	public double getMinCheckoutTime() {
+		return minCheckoutTime;
+	}
+
+	public double getMaxCheckoutTime() {
+		return maxCheckoutTime;
+	}
+}
@@ -0,0 +1,272 @@
+package store.view;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import simulator.SimListener;
+import store.state.StoreRecord;
+import store.state.StoreState;
+
+/**
+ * Listener that writes the records of a store simulation to a compact binary
+ * trace, to be read back with {@link TraceReader}.
+ *
+ * A trace starts with a header holding the parameters of the simulation,
+ * followed by chunks of up to {@link #CHUNK_SIZE} records. Within a chunk the
+ * records are stored column by column, in the order of {@link TraceColumn},
+ * and every column is a block of its own that can be decoded without touching
+ * the others. Values are written as variable length integers:
+ * <ul>
+ * <li>doubles as the difference between the bits of consecutive values,</li>
+ * <li>counters as the difference to the previous value,</li>
+ * <li>other integers as they are,</li>
+ * <li>strings as codes into a dictionary stored first in the block. Code 0 is
+ * null, odd codes are customer ids and other codes are dictionary entries.</li>
+ * </ul>
+ * Differences start over in every chunk. Blocks can also be deflated, which
+ * costs time but roughly halves the size again. The trace ends with the
+ * {@link store.state.CustomerStatistics} of the simulation.
+ *
+ * <pre>
+ * header: int magic, int version, byte flags, long seed, int maxCustomers,
+ *         int maxRegisters, double timeStoreClose, double arrivalSpeed,
+ *         double minPickingTime, double maxPickingTime, double minCheckoutTime,
+ *         double maxCheckoutTime, int columns
+ * chunk:  int records, then per column: int storedLength, int rawLength, bytes
+ * trailer: int -1, per-customer statistics
+ * </pre>
+ *
+ * @author Nour Aldein Bahtite
+ * @author Philip Eriksson
+ * @author Rickard Bemm
+ * @author André Christofferson
+ */
+public class TraceWriter implements SimListener<StoreRecord> {
+
+	/**
+	 * Maximum number of records in a chunk.
+	 */
+	public static final int CHUNK_SIZE = 4096;
+
+	private static final TraceColumn[] COLUMNS = TraceColumn.values();
+
+	private final StoreState state;
+	private final boolean compress;
+	private final TraceCodec.Sink[] columns = new TraceCodec.Sink[COLUMNS.length];
+	private final long[] previous = new long[COLUMNS.length];
+	private final List<Map<String, Integer>> codes = new ArrayList<>();
+	private final List<List<String>> dictionaries = new ArrayList<>();
+	private final TraceCodec.Sink block = new TraceCodec.Sink();
+	private final Deflater deflater;
+	private byte[] deflated = new byte[0];
+	private int count;
+
+	private DataOutputStream out;
+	private boolean started;
+
+	/**
+	 * Create a trace writer. The stream is closed when the simulation ends.
+	 * Subscribe with {@code state.getEventBus().subscribe(writer)}.
+	 *
+	 * @param state    state to trace
+	 * @param sink     where to write the trace, buffered if it is not already
+	 * @param compress whether to deflate the blocks
+	 */
+	public TraceWriter(StoreState state, OutputStream sink, boolean compress) {
+		this.state = state;
+		this.compress = compress;
+		this.deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+		for (int i = 0; i < COLUMNS.length; i++) {
+			columns[i] = new TraceCodec.Sink();
+			codes.add(new HashMap<>());
+			dictionaries.add(new ArrayList<>());
+		}
+		redirect(sink);
+	}
+
+	@Override
+	public void onRecords(List<? extends StoreRecord> records) {
+		try {
+			start();
+			for (StoreRecord record : records) {
+				writeDouble(TraceColumn.TIME, record.getTime());
+				writeString(TraceColumn.EVENT, record.getEventDescription());
+				writeString(TraceColumn.CUSTOMER, record.getCustomer());
+				writeInteger(TraceColumn.STORE_OPEN, record.storeIsOpen() ? 1 : 0);
+				writeInteger(TraceColumn.REGISTERS_OPEN, record.getRegistersOpen());
+				writeDouble(TraceColumn.CHECKOUT_FREE_TIME, record.getCheckoutFreeTime());
+				writeCounter(TraceColumn.CUSTOMERS_IN_TOTAL, record.getCustomersInTotal());
+				writeCounter(TraceColumn.CUSTOMERS_PAYED, record.getCustomersPayed());
+				writeCounter(TraceColumn.CUSTOMERS_DENIED_ENTRY, record.getCustomersDeniedEntry());
+				writeDouble(TraceColumn.QUEUE_TIME, record.getQueueTime());
+				writeInteger(TraceColumn.CUSTOMERS_IN_QUEUE, record.getCustomersInQueue());
+				if (++count == CHUNK_SIZE) {
+					writeChunk();
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void onEnd() {
+		try {
+			start();
+			if (count > 0) {
+				writeChunk();
+			}
+			out.writeInt(TraceCodec.TRAILER);
+			state.getCustomerStatistics().write(out);
+			out.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			if (deflater != null) {
+				deflater.end();
+			}
+		}
+	}
+
+	/**
+	 * Write the trace to a new file instead of the current sink. Must be called
+	 * before the simulation starts.
+	 *
+	 * @param filePath  Path to file
+	 * @param overwrite Should a already existing file be overwritten.
+	 * @throws UncheckedIOException if the file can't be created
+	 */
+	public void printFile(String filePath, boolean overwrite) {
+		File file = new File(filePath);
+		if (file.isDirectory() || (!overwrite && file.exists())) {
+			return;
+		}
+		try {
+			redirect(new FileOutputStream(file));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void redirect(OutputStream sink) {
+		if (started) {
+			throw new IllegalStateException("Output can't be redirected once the simulation has started");
+		}
+		if (!(sink instanceof BufferedOutputStream)) {
+			sink = new BufferedOutputStream(sink, 1 << 16);
+		}
+		this.out = new DataOutputStream(sink);
+	}
+
+	/**
+	 * Write the header before anything else.
+	 */
+	private void start() throws IOException {
+		if (started) {
+			return;
+		}
+		started = true;
+		out.writeInt(TraceCodec.MAGIC);
+		out.writeInt(TraceCodec.VERSION);
+		out.writeByte(compress ? TraceCodec.FLAG_COMPRESSED : 0);
+		out.writeLong(state.getTIME_SEED());
+		out.writeInt(state.getMAX_CUSTOMERS());
+		out.writeInt(state.getMAX_REGISTERS());
+		out.writeDouble(state.getTimeStoreClose());
+		out.writeDouble(state.getARRIVAL_SPEED());
+		out.writeDouble(state.getMIN_PICKING_TIME());
+		out.writeDouble(state.getMAX_PICKING_TIME());
+		out.writeDouble(state.getMIN_CHECKOUT_TIME());
+		out.writeDouble(state.getMAX_CHECKOUT_TIME());
+		out.writeInt(COLUMNS.length);
+	}
+
+	private void writeDouble(TraceColumn column, double value) {
+		writeCounter(column, Double.doubleToRawLongBits(value));
+	}
+
+	private void writeCounter(TraceColumn column, long value) {
+		int i = column.ordinal();
+		columns[i].writeVarLong(TraceCodec.zigZag(value - previous[i]));
+		previous[i] = value;
+	}
+
+	private void writeInteger(TraceColumn column, long value) {
+		columns[column.ordinal()].writeVarLong(TraceCodec.zigZag(value));
+	}
+
+	private void writeString(TraceColumn column, String value) {
+		TraceCodec.Sink sink = columns[column.ordinal()];
+		if (value == null) {
+			sink.writeVarLong(0);
+			return;
+		}
+		int id = TraceCodec.parseId(value);
+		if (id >= 0) {
+			sink.writeVarLong(2L * id + 1);
+			return;
+		}
+		Map<String, Integer> columnCodes = codes.get(column.ordinal());
+		Integer code = columnCodes.get(value);
+		if (code == null) {
+			List<String> dictionary = dictionaries.get(column.ordinal());
+			dictionary.add(value);
+			code = 2 * dictionary.size();
+			columnCodes.put(value, code);
+		}
+		sink.writeVarLong(code);
+	}
+
+	private void writeChunk() throws IOException {
+		out.writeInt(count);
+		for (int i = 0; i < COLUMNS.length; i++) {
+			block.clear();
+			if (COLUMNS[i].getKind() == TraceColumn.Kind.STRING) {
+				List<String> dictionary = dictionaries.get(i);
+				block.writeVarLong(dictionary.size());
+				for (String entry : dictionary) {
+					block.writeString(entry);
+				}
+				dictionary.clear();
+				codes.get(i).clear();
+			}
+			block.write(columns[i]);
+			writeBlock(block.array(), block.size());
+			columns[i].clear();
+			previous[i] = 0;
+		}
+		count = 0;
+	}
+
+	private void writeBlock(byte[] bytes, int length) throws IOException {
+		if (!compress) {
+			out.writeInt(length);
+			out.writeInt(length);
+			out.write(bytes, 0, length);
+			return;
+		}
+		deflater.reset();
+		deflater.setInput(bytes, 0, length);
+		deflater.finish();
+		int size = 0;
+		while (!deflater.finished()) {
+			if (size == deflated.length) {
+				deflated = Arrays.copyOf(deflated, Math.max(1024, 2 * deflated.length));
+			}
+			size += deflater.deflate(deflated, size, deflated.length - size);
+		}
+		out.writeInt(size);
+		out.writeInt(length);
+		out.write(deflated, 0, size);
+	}
+}